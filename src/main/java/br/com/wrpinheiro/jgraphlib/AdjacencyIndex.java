@@ -0,0 +1,183 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.Arrays;
+
+/**
+ * Counts the arcs between every pair of vertices, keyed by (source id, target
+ * id) packed in a long. It is an open addressing hash table with linear
+ * probing, so a lookup costs O(1) expected and creates no object.
+ *
+ * @author wrp
+ */
+class AdjacencyIndex {
+	/**
+	 * Marks a free slot. No pair of valid ids packs to this key.
+	 */
+	private static final long FREE = -1L;
+
+	/**
+	 * The initial number of slots. Must be a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The packed (source, target) pairs.
+	 */
+	private long[] keys;
+
+	/**
+	 * The number of arcs for each pair, parallel to keys.
+	 */
+	private int[] counts;
+
+	/**
+	 * The number of pairs in this index.
+	 */
+	private int size;
+
+	/**
+	 * Creates an empty index.
+	 */
+	AdjacencyIndex() {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.counts = new int[INITIAL_CAPACITY];
+		Arrays.fill(this.keys, FREE);
+	}
+
+	/**
+	 * Count one more arc from source to target.
+	 *
+	 * @param source
+	 *            the source vertex id.
+	 * @param target
+	 *            the target vertex id.
+	 */
+	void add(int source, int target) {
+		long key = key(source, target);
+		int slot = this.find(key);
+		if (this.keys[slot] == key) {
+			this.counts[slot]++;
+			return;
+		}
+
+		this.keys[slot] = key;
+		this.counts[slot] = 1;
+		if (++this.size * 2 > this.keys.length)
+			this.resize(this.keys.length * 2);
+	}
+
+	/**
+	 * Count one arc less from source to target.
+	 *
+	 * @param source
+	 *            the source vertex id.
+	 * @param target
+	 *            the target vertex id.
+	 */
+	void remove(int source, int target) {
+		long key = key(source, target);
+		int slot = this.find(key);
+		if (this.keys[slot] != key || --this.counts[slot] > 0)
+			return;
+
+		// backward shift deletion keeps every probe sequence unbroken.
+		int mask = this.keys.length - 1;
+		int hole = slot;
+		for (int i = (hole + 1) & mask; this.keys[i] != FREE; i = (i + 1) & mask) {
+			int home = hash(this.keys[i]) & mask;
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				this.keys[hole] = this.keys[i];
+				this.counts[hole] = this.counts[i];
+				hole = i;
+			}
+		}
+		this.keys[hole] = FREE;
+		this.counts[hole] = 0;
+		this.size--;
+	}
+
+	/**
+	 * Check if there is at least one arc from source to target.
+	 *
+	 * @param source
+	 *            the source vertex id.
+	 * @param target
+	 *            the target vertex id.
+	 * @return TRUE if there is an arc from source to target.
+	 */
+	boolean contains(int source, int target) {
+		long key = key(source, target);
+		return this.keys[this.find(key)] == key;
+	}
+
+	/**
+	 * Find the slot of a key or the free slot where it would be inserted.
+	 *
+	 * @param key
+	 *            the packed pair.
+	 * @return the slot.
+	 */
+	private int find(long key) {
+		int mask = this.keys.length - 1;
+		int slot = hash(key) & mask;
+		while (this.keys[slot] != FREE && this.keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Move every pair to a table with a new number of slots.
+	 *
+	 * @param capacity
+	 *            the new number of slots, a power of two.
+	 */
+	private void resize(int capacity) {
+		long[] oldKeys = this.keys;
+		int[] oldCounts = this.counts;
+
+		this.keys = new long[capacity];
+		this.counts = new int[capacity];
+		Arrays.fill(this.keys, FREE);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int slot = this.find(oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.counts[slot] = oldCounts[i];
+			}
+		}
+	}
+
+	/**
+	 * Pack a pair of vertex ids.
+	 */
+	private static long key(int source, int target) {
+		return ((long) source << 32) | (target & 0xffffffffL);
+	}
+
+	/**
+	 * Spread the bits of a key (the finalizer of MurmurHash3).
+	 */
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
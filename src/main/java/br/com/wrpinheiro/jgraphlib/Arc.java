@@ -26,20 +26,32 @@ public class Arc<T> {
 	 */
 	private int id;
 
+	/**
+	 * Set when this arc is removed from its graph. The id is kept, so a
+	 * removed arc is still found in the sets holding it.
+	 */
+	private boolean removed;
+
 	/**
 	 * The label for this arc.
 	 */
 	private T label;
 
+	/**
+	 * The code of the label in the label dictionary of the graph, or -1 if
+	 * the label is null or the graph has no dictionary.
+	 */
+	private int labelCode = -1;
+
 	/**
 	 * The source vertex.
 	 */
-	private Vertex<T> source;
+	private volatile Vertex<T> source;
 
 	/**
 	 * The target vertex.
 	 */
-	private Vertex<T> target;
+	private volatile Vertex<T> target;
 
 	/**
 	 * This arc belongs to graph.
@@ -74,6 +86,35 @@ public class Arc<T> {
 		this.graph.addArc(this);
 	}
 
+	/**
+	 * Creates a labeled arc between two vertices already known to be from g,
+	 * skipping the checks done by setSource and setTarget. Used for bulk
+	 * construction.
+	 * 
+	 * @param g
+	 *            the graph of this arc.
+	 * @param source
+	 *            the source vertex, from g.
+	 * @param target
+	 *            the target vertex, from g.
+	 * @param label
+	 *            the label of this arc.
+	 */
+	Arc(Graph<T> g, Vertex<T> source, Vertex<T> target, T label) {
+		this(g);
+		this.setLabel(label);
+		this.source = source;
+		this.target = target;
+		g.beginWrite();
+		try {
+			source.addOutArc(this);
+			target.addInArc(this);
+			g.arcLinked(source, target);
+		} finally {
+			g.endWrite();
+		}
+	}
+
 	/**
 	 * Set the id of this arc. Note that this setter has a default access
 	 * modifier, so it can't be set externally.
@@ -86,17 +127,45 @@ public class Arc<T> {
 	}
 
 	/**
-	 * Set the label of this arc.
+	 * Check if this arc was removed from its graph. A removed arc keeps its id
+	 * until the graph is compacted.
+	 * 
+	 * @return TRUE if this arc was removed.
+	 * @see Graph#removeArcs(java.util.HashSet)
+	 */
+	public boolean isRemoved() {
+		return this.removed;
+	}
+
+	/**
+	 * Mark this arc as removed from its graph.
+	 */
+	void markRemoved() {
+		this.removed = true;
+	}
+
+	/**
+	 * Set the label of this arc. If the graph encodes its labels, the arc
+	 * keeps the instance of the label already in the dictionary.
 	 * 
 	 * @param label
 	 *            new label for this arc.
 	 */
 	public void setLabel(T label) {
-		this.label = label;
+		LabelDictionary<T> dictionary = this.graph.getLabelDictionary();
+		if (dictionary == null || label == null) {
+			this.labelCode = -1;
+			this.label = label;
+		} else {
+			this.labelCode = dictionary.encode(label);
+			this.label = dictionary.decode(this.labelCode);
+		}
 	}
 
 	/**
-	 * Set the source vertex of this arc.
+	 * Set the source vertex of this arc. In a {@link ConcurrentGraph} the
+	 * change is atomic: the old source, the new source and the target are
+	 * locked until every list is updated.
 	 * 
 	 * @param source
 	 *            the source vertex of this arc.
@@ -105,18 +174,40 @@ public class Arc<T> {
 		if (source != null && !source.getGraph().equals(this.graph)) {
 			throw new InvalidVertexException();
 		}
-		
-		if (this.source != null) {
-			this.source.internalRemoveOutArc(this);
-		}
 
-		this.source = source;
-		if (this.source != null)
-			this.source.addOutArc(this);
+		this.graph.beginWrite();
+		this.graph.lockArc(this);
+		try {
+			Vertex<T> oldSource = this.source;
+			Vertex<T> target = this.target;
+			this.graph.lockAdjacency(oldSource, source, target);
+			try {
+				beginWrite(this.graph.getEpoch(), oldSource, source, target);
+				if (oldSource != null) {
+					oldSource.internalRemoveOutArc(this);
+					if (target != null)
+						this.graph.arcUnlinked(oldSource, target);
+				}
+
+				this.source = source;
+				if (source != null) {
+					source.addOutArc(this);
+					if (target != null)
+						this.graph.arcLinked(source, target);
+				}
+			} finally {
+				this.graph.unlockAdjacency(oldSource, source, target);
+			}
+		} finally {
+			this.graph.unlockArc(this);
+			this.graph.endWrite();
+		}
 	}
 
 	/**
-	 * Set the target vertex of this arc.
+	 * Set the target vertex of this arc. In a {@link ConcurrentGraph} the
+	 * change is atomic: the source, the old target and the new target are
+	 * locked until every list is updated.
 	 * 
 	 * @param target
 	 *            the target vertex of this arc.
@@ -125,14 +216,49 @@ public class Arc<T> {
 		if (target != null && !target.getGraph().equals(this.graph)) {
 			throw new InvalidVertexException();
 		}
-		
-		if (this.target != null) {
-			this.target.internalRemoveInArc(this);
+
+		this.graph.beginWrite();
+		this.graph.lockArc(this);
+		try {
+			Vertex<T> source = this.source;
+			Vertex<T> oldTarget = this.target;
+			this.graph.lockAdjacency(source, oldTarget, target);
+			try {
+				beginWrite(this.graph.getEpoch(), source, oldTarget, target);
+				if (oldTarget != null) {
+					oldTarget.internalRemoveInArc(this);
+					if (source != null)
+						this.graph.arcUnlinked(source, oldTarget);
+				}
+
+				this.target = target;
+				if (target != null) {
+					target.addInArc(this);
+					if (source != null)
+						this.graph.arcLinked(source, target);
+				}
+			} finally {
+				this.graph.unlockAdjacency(source, oldTarget, target);
+			}
+		} finally {
+			this.graph.unlockArc(this);
+			this.graph.endWrite();
 		}
+	}
 
-		this.target = target;
-		if (this.target != null)
-			this.target.addInArc(this);
+	/**
+	 * Start a write on the vertices linked by this arc before and after a
+	 * change. All of them are written in the same epoch, so a snapshot sees
+	 * the whole change or none of it. Null vertices are ignored.
+	 */
+	private static <T> void beginWrite(long epoch, Vertex<T> v1,
+			Vertex<T> v2, Vertex<T> v3) {
+		if (v1 != null)
+			v1.beginWrite(epoch);
+		if (v2 != null)
+			v2.beginWrite(epoch);
+		if (v3 != null)
+			v3.beginWrite(epoch);
 	}
 
 	/**
@@ -144,6 +270,34 @@ public class Arc<T> {
 		return this.label;
 	}
 
+	/**
+	 * Return the code of the label of this arc in the label dictionary of its
+	 * graph.
+	 * 
+	 * @return the code, or -1 if the label is null or the graph does not
+	 *         encode its labels.
+	 * @see Graph#setLabelDictionaryEnabled(boolean)
+	 */
+	public int getLabelCode() {
+		return this.labelCode;
+	}
+
+	/**
+	 * Check if this arc has the same label as another one. The labels of arcs
+	 * of a graph that encodes its labels are compared by code.
+	 * 
+	 * @param other
+	 *            the other arc.
+	 * @return TRUE if the labels are equal or both null, FALSE otherwise.
+	 */
+	public boolean hasSameLabel(Arc<T> other) {
+		if (this.graph == other.graph
+				&& (this.labelCode >= 0 || other.labelCode >= 0))
+			return this.labelCode == other.labelCode;
+		return this.label == null ? other.label == null : this.label
+				.equals(other.label);
+	}
+
 	/**
 	 * Return the source vertex of this arc.
 	 * 
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.BitSet;
+
+/**
+ * A column of boolean vertex properties, kept as a bit set. The default value
+ * is FALSE.
+ * 
+ * @author wrp
+ */
+public class BooleanColumn extends PropertyColumn {
+	/**
+	 * The vertices whose value is TRUE.
+	 */
+	private BitSet values = new BitSet();
+
+	/**
+	 * @param name
+	 *            the name of this column.
+	 */
+	BooleanColumn(String name) {
+		super(name);
+	}
+
+	/**
+	 * Return the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return the value, or FALSE if none was set.
+	 * @throws InvalidVertexException
+	 *             if the id is negative.
+	 */
+	public boolean get(int v) {
+		checkId(v);
+		return this.values.get(v);
+	}
+
+	/**
+	 * Return the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 * @return the value, or FALSE if none was set.
+	 * @throws InvalidVertexException
+	 *             if the vertex was removed.
+	 */
+	public boolean get(Vertex<?> v) {
+		return this.get(idOf(v));
+	}
+
+	/**
+	 * Set the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @param value
+	 *            the new value.
+	 * @throws InvalidVertexException
+	 *             if the id is negative.
+	 */
+	public void set(int v, boolean value) {
+		checkId(v);
+		this.values.set(v, value);
+	}
+
+	/**
+	 * Set the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 * @param value
+	 *            the new value.
+	 * @throws InvalidVertexException
+	 *             if the vertex was removed.
+	 */
+	public void set(Vertex<?> v, boolean value) {
+		this.set(idOf(v), value);
+	}
+
+	/**
+	 * Return the number of vertices whose value is TRUE.
+	 * 
+	 * @return the number of vertices.
+	 */
+	public int count() {
+		return this.values.cardinality();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.PropertyColumn#clear(int)
+	 */
+	@Override
+	void clear(int v) {
+		if (v >= 0)
+			this.values.clear(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.PropertyColumn#compact(int[])
+	 */
+	@Override
+	void compact(int[] newIds) {
+		BitSet moved = new BitSet();
+		int i = this.values.nextSetBit(0);
+		while (i >= 0 && i < newIds.length) {
+			if (newIds[i] >= 0)
+				moved.set(newIds[i]);
+			i = this.values.nextSetBit(i + 1);
+		}
+		this.values = moved;
+	}
+}
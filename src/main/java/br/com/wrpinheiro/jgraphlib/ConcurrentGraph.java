@@ -0,0 +1,951 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A graph that can be built and changed by several threads at once.
+ *
+ * The arc lists of the vertices are guarded by a fixed array of locks, each
+ * vertex hashing to one of them, so threads working on different vertices
+ * rarely wait for each other. Changing an endpoint of an arc locks the arc and
+ * every vertex it links before and after the change, so each rewiring is
+ * atomic. Vertices and arcs are appended without waiting for each other:
+ * each append reserves the next slot with a compare-and-set and stores the
+ * element there. Only growing the lists takes an exclusive lock.
+ *
+ * Removing vertices or arcs, compacting and enabling the adjacency index wait
+ * for the running changes and block new ones until they finish. The
+ * accessors that read only the lists of vertices and arcs take no lock while
+ * none of these is running. The ones that read the number of removed
+ * vertices, the columns or the adjacency index take the shared lock, since
+ * those fields are not volatile and a read without the lock could see a
+ * change in part.
+ *
+ * The graph may also be read without any lock: a reader takes a stamp with
+ * {@link #tryOptimisticRead()}, reads through {@link #getOptimisticView()}
+ * and checks with {@link #validate(long)} that no change ran meanwhile. The
+ * stamp covers the whole graph, so a traversal validated by it never
+ * combines arcs read before and after a change. Readers never block the
+ * writers and the writers never block them.
+ *
+ * getVertices() and getArcs() return copies. The arc list views of the
+ * vertices, the vertex properties and the values of the property columns are
+ * not guarded, and the endpoints read through {@link Arc#getSource()} and
+ * {@link Arc#getTarget()} may be stale unless the vertices are locked; read
+ * the adjacency through the vertices or through the {@link IndexedGraph}
+ * methods instead.
+ *
+ * @author wrp
+ */
+public class ConcurrentGraph<T> extends Graph<T> {
+	/**
+	 * The default number of locks guarding the vertices.
+	 */
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+	/**
+	 * The vertices of this graph, the same list kept by Graph.
+	 */
+	private final ConcurrentReadList<Vertex<T>> vertices;
+
+	/**
+	 * The arcs of this graph, the same list kept by Graph.
+	 */
+	private final ConcurrentReadList<Arc<T>> arcs;
+
+	/**
+	 * Guards the lists of vertices and arcs. Every change to the arcs of the
+	 * vertices holds it shared, so the structural changes and the snapshots
+	 * exclude them.
+	 */
+	private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Changes when a removal, a compaction or another change taking the
+	 * exclusive lock starts and when it ends, so it is odd while one is
+	 * running. The accessors that read only the lists of vertices and arcs,
+	 * whose reads are volatile, read without the lock while it stays the
+	 * same.
+	 */
+	private volatile long structureVersion = 2;
+
+	/**
+	 * The locks guarding the arc lists of the vertices.
+	 */
+	private final ReentrantLock[] vertexLocks;
+
+	/**
+	 * The locks guarding the endpoints of the arcs.
+	 */
+	private final ReentrantLock[] arcLocks;
+
+	/**
+	 * Guards the adjacency index.
+	 */
+	private final Object indexLock = new Object();
+
+	/**
+	 * The number of changes started. It starts at 1 so that 0 is never a
+	 * valid stamp.
+	 */
+	private final AtomicLong writesStarted = new AtomicLong(1);
+
+	/**
+	 * The number of changes ended. No change is running while it is the same
+	 * as writesStarted.
+	 */
+	private final AtomicLong writesEnded = new AtomicLong(1);
+
+	/**
+	 * The view of this graph read without locks.
+	 */
+	private final IndexedGraph optimisticView = new OptimisticView();
+
+	/**
+	 * Create a graph with the default number of locks.
+	 */
+	public ConcurrentGraph() {
+		this(DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Create a graph guarded by a number of locks. More locks make threads
+	 * working on different vertices wait less for each other.
+	 *
+	 * @param concurrencyLevel
+	 *            the number of locks, rounded up to a power of two.
+	 */
+	public ConcurrentGraph(int concurrencyLevel) {
+		this(concurrencyLevel, new ConcurrentReadList<Vertex<T>>(),
+				new ConcurrentReadList<Arc<T>>());
+	}
+
+	private ConcurrentGraph(int concurrencyLevel,
+			ConcurrentReadList<Vertex<T>> vertices,
+			ConcurrentReadList<Arc<T>> arcs) {
+		super(vertices, arcs);
+		this.vertices = vertices;
+		this.arcs = arcs;
+
+		int size = 1;
+		while (size < concurrencyLevel)
+			size <<= 1;
+
+		this.vertexLocks = new ReentrantLock[size];
+		this.arcLocks = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			this.vertexLocks[i] = new ReentrantLock();
+			this.arcLocks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#newArcList(int)
+	 */
+	@Override
+	List<Arc<T>> newArcList(int capacity) {
+		return new ConcurrentReadList<Arc<T>>(capacity);
+	}
+
+	/**
+	 * Return a stamp for reading this graph without locks, to be checked
+	 * later with {@link #validate(long)}. Any change to the arcs of the
+	 * vertices and any removal or compaction invalidates the stamp. Vertices
+	 * and arcs appended meanwhile are safe to read but may or may not be
+	 * seen. Labels and properties are not covered by the stamp.
+	 *
+	 * <pre>
+	 * for (;;) {
+	 * 	long stamp = g.tryOptimisticRead();
+	 * 	try {
+	 * 		result = traverse(g.getOptimisticView());
+	 * 		if (g.validate(stamp))
+	 * 			break;
+	 * 	} catch (RuntimeException e) {
+	 * 		if (g.validate(stamp))
+	 * 			throw e;
+	 * 	}
+	 * }
+	 * </pre>
+	 *
+	 * A reader that keeps failing under a steady stream of changes can read
+	 * a {@link #snapshot()} instead.
+	 *
+	 * @return a stamp, or 0 if a change is running.
+	 */
+	public long tryOptimisticRead() {
+		long ended = this.writesEnded.get();
+		return this.writesStarted.get() == ended ? ended : 0;
+	}
+
+	/**
+	 * Check if no change started since a stamp was taken.
+	 *
+	 * @param stamp
+	 *            a stamp from {@link #tryOptimisticRead()}.
+	 * @return TRUE if the reads done after taking the stamp saw a consistent
+	 *         graph or FALSE if they must be retried.
+	 */
+	public boolean validate(long stamp) {
+		return stamp != 0 && this.writesStarted.get() == stamp;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getModificationCount()
+	 */
+	@Override
+	public long getModificationCount() {
+		long ended = this.writesEnded.get();
+		return this.writesStarted.get() == ended ? ended : -1;
+	}
+
+	/**
+	 * Return a view of this graph that takes no lock. A read through it may
+	 * see a change in part or fail with a RuntimeException while the graph
+	 * changes, so it must be validated with a stamp from
+	 * {@link #tryOptimisticRead()}.
+	 *
+	 * @return the view.
+	 */
+	public IndexedGraph getOptimisticView() {
+		return this.optimisticView;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#beginWrite()
+	 */
+	@Override
+	void beginWrite() {
+		this.structureLock.readLock().lock();
+		this.writesStarted.incrementAndGet();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#endWrite()
+	 */
+	@Override
+	void endWrite() {
+		this.writesEnded.incrementAndGet();
+		this.structureLock.readLock().unlock();
+	}
+
+	/**
+	 * Take the exclusive lock for a change to the lists of vertices and arcs,
+	 * the ids, the adjacency index or the columns.
+	 */
+	private void lockStructure() {
+		this.structureLock.writeLock().lock();
+		this.structureVersion++;
+	}
+
+	/**
+	 * Release the lock taken by {@link #lockStructure()}.
+	 */
+	private void unlockStructure() {
+		this.structureVersion++;
+		this.structureLock.writeLock().unlock();
+	}
+
+	/**
+	 * Return a stamp for reading the lists of vertices and arcs without the
+	 * lock.
+	 *
+	 * @return the stamp, or 0 if they are being changed.
+	 */
+	private long structureStamp() {
+		long stamp = this.structureVersion;
+		return (stamp & 1) == 0 ? stamp : 0;
+	}
+
+	/**
+	 * Check if the lists of vertices and arcs did not change since a stamp
+	 * was taken.
+	 */
+	private boolean validateStructure(long stamp) {
+		return this.structureVersion == stamp;
+	}
+
+	/**
+	 * A read of the lists of vertices and arcs.
+	 */
+	private interface StructureRead<R> {
+		R read();
+	}
+
+	/**
+	 * Run a read of the lists of vertices and arcs without the lock, and run
+	 * it again under the shared lock if they changed meanwhile. Only reads of
+	 * volatile fields, like the elements of the lists, are validated this way.
+	 */
+	private <R> R readStructure(StructureRead<R> read) {
+		long stamp = this.structureStamp();
+		if (stamp != 0) {
+			try {
+				R result = read.read();
+				if (this.validateStructure(stamp))
+					return result;
+			} catch (RuntimeException e) {
+				if (this.validateStructure(stamp))
+					throw e;
+			}
+		}
+
+		this.structureLock.readLock().lock();
+		try {
+			return read.read();
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the lock of an object. The identity hash is used because the
+	 * ids of vertices and arcs change when the graph is compacted.
+	 */
+	private ReentrantLock lockOf(ReentrantLock[] locks, Object o) {
+		return locks[this.stripe(locks, o)];
+	}
+
+	/**
+	 * Return the position of the lock of an object, or -1 for null.
+	 */
+	private int stripe(ReentrantLock[] locks, Object o) {
+		if (o == null)
+			return -1;
+
+		int h = System.identityHashCode(o);
+		h ^= (h >>> 16);
+		return h & (locks.length - 1);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#lockAdjacency(br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void lockAdjacency(Vertex<T> v) {
+		this.lockOf(this.vertexLocks, v).lock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#unlockAdjacency(br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void unlockAdjacency(Vertex<T> v) {
+		this.lockOf(this.vertexLocks, v).unlock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#lockAdjacency(br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void lockAdjacency(Vertex<T> v1, Vertex<T> v2, Vertex<T> v3) {
+		int a = this.stripe(this.vertexLocks, v1);
+		int b = this.stripe(this.vertexLocks, v2);
+		int c = this.stripe(this.vertexLocks, v3);
+
+		// every thread takes the locks in increasing position.
+		int t;
+		if (a > b) {
+			t = a;
+			a = b;
+			b = t;
+		}
+		if (b > c) {
+			t = b;
+			b = c;
+			c = t;
+		}
+		if (a > b) {
+			t = a;
+			a = b;
+			b = t;
+		}
+
+		if (a >= 0)
+			this.vertexLocks[a].lock();
+		if (b >= 0 && b != a)
+			this.vertexLocks[b].lock();
+		if (c >= 0 && c != b)
+			this.vertexLocks[c].lock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#unlockAdjacency(br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void unlockAdjacency(Vertex<T> v1, Vertex<T> v2, Vertex<T> v3) {
+		int a = this.stripe(this.vertexLocks, v1);
+		int b = this.stripe(this.vertexLocks, v2);
+		int c = this.stripe(this.vertexLocks, v3);
+
+		if (a >= 0)
+			this.vertexLocks[a].unlock();
+		if (b >= 0 && b != a)
+			this.vertexLocks[b].unlock();
+		if (c >= 0 && c != a && c != b)
+			this.vertexLocks[c].unlock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#lockArc(br.com.wrpinheiro.jgraphlib.Arc)
+	 */
+	@Override
+	void lockArc(Arc<T> arc) {
+		this.lockOf(this.arcLocks, arc).lock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#unlockArc(br.com.wrpinheiro.jgraphlib.Arc)
+	 */
+	@Override
+	void unlockArc(Arc<T> arc) {
+		this.lockOf(this.arcLocks, arc).unlock();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#arcLinked(br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void arcLinked(Vertex<T> source, Vertex<T> target) {
+		synchronized (this.indexLock) {
+			super.arcLinked(source, target);
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#arcUnlinked(br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	void arcUnlinked(Vertex<T> source, Vertex<T> target) {
+		synchronized (this.indexLock) {
+			super.arcUnlinked(source, target);
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#isIndexedAdjacent(br.com.wrpinheiro.jgraphlib.Vertex,
+	 *      br.com.wrpinheiro.jgraphlib.Vertex)
+	 */
+	@Override
+	boolean isIndexedAdjacent(Vertex<T> source, Vertex<T> target) {
+		this.structureLock.readLock().lock();
+		try {
+			return this.isIndexedAdjacentLocked(source, target);
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Check in the adjacency index if source is adjacent to target, holding
+	 * the lock of the index.
+	 */
+	private boolean isIndexedAdjacentLocked(Vertex<T> source, Vertex<T> target) {
+		synchronized (this.indexLock) {
+			return super.isIndexedAdjacent(source, target);
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#ensureCapacity(int, int)
+	 */
+	@Override
+	void ensureCapacity(int numVertex, int numArcs) {
+		this.structureLock.writeLock().lock();
+		try {
+			this.vertices.ensureCapacity(numVertex);
+			this.arcs.ensureCapacity(numArcs);
+		} finally {
+			this.structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Add a new vertex to this graph. Several threads may add vertices at
+	 * once: each one reserves the slot of its vertex and stores it there
+	 * without waiting for the others.
+	 *
+	 * @param vertex
+	 *            the vertex to be add.
+	 */
+	@Override
+	public void addVertex(Vertex<T> vertex) {
+		int id = this.reserve(this.vertices);
+		try {
+			vertex.setId(id);
+			this.vertices.publish(id, vertex);
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Add a new arc to this graph. Several threads may add arcs at once, as
+	 * in {@link #addVertex(Vertex)}.
+	 *
+	 * @param arc
+	 *            the arc to be add.
+	 */
+	@Override
+	public void addArc(Arc<T> arc) {
+		int id = this.reserve(this.arcs);
+		try {
+			arc.setId(id);
+			this.arcs.publish(id, arc);
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Reserve the next slot of a list, growing it under the exclusive lock
+	 * when it is full. Returns holding the shared lock, so that the list is
+	 * neither grown nor compacted before the slot is published.
+	 *
+	 * @param list
+	 *            the list of vertices or arcs.
+	 * @return the index of the slot.
+	 */
+	private <E> int reserve(ConcurrentReadList<E> list) {
+		for (;;) {
+			this.structureLock.readLock().lock();
+			int i = list.tryReserve();
+			if (i >= 0)
+				return i;
+			this.structureLock.readLock().unlock();
+
+			this.structureLock.writeLock().lock();
+			try {
+				list.ensureCapacity(list.size() + 1);
+			} finally {
+				this.structureLock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getVertex(int)
+	 */
+	@Override
+	public Vertex<T> getVertex(final int i) {
+		return this.readStructure(new StructureRead<Vertex<T>>() {
+			public Vertex<T> read() {
+				return ConcurrentGraph.super.getVertex(i);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#containsVertex(int)
+	 */
+	@Override
+	public boolean containsVertex(final int v) {
+		return this.readStructure(new StructureRead<Boolean>() {
+			public Boolean read() {
+				return ConcurrentGraph.super.containsVertex(v);
+			}
+		});
+	}
+
+	/**
+	 * Return a copy of the vertices of this graph in id order. Removed
+	 * vertices are skipped.
+	 *
+	 * @return the vertices of this graph.
+	 */
+	@Override
+	public Iterable<Vertex<T>> getVertices() {
+		return this.readStructure(new StructureRead<Iterable<Vertex<T>>>() {
+			public Iterable<Vertex<T>> read() {
+				return ConcurrentGraph.this.copy(ConcurrentGraph.super
+						.getVertices());
+			}
+		});
+	}
+
+	/**
+	 * Return a copy of the arcs of this graph in id order. Removed arcs are
+	 * skipped.
+	 *
+	 * @return the arcs of this graph.
+	 */
+	@Override
+	public Iterable<Arc<T>> getArcs() {
+		return this.readStructure(new StructureRead<Iterable<Arc<T>>>() {
+			public Iterable<Arc<T>> read() {
+				return ConcurrentGraph.this.copy(ConcurrentGraph.super
+						.getArcs());
+			}
+		});
+	}
+
+	/**
+	 * Copy the elements of a list of vertices or arcs.
+	 */
+	private <E> List<E> copy(Iterable<E> elements) {
+		List<E> copy = new ArrayList<E>();
+		for (E e : elements) {
+			copy.add(e);
+		}
+		return copy;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getArc(int)
+	 */
+	@Override
+	public Arc<T> getArc(final int i) {
+		return this.readStructure(new StructureRead<Arc<T>>() {
+			public Arc<T> read() {
+				return ConcurrentGraph.super.getArc(i);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getNumLiveVertex()
+	 */
+	@Override
+	public int getNumLiveVertex() {
+		this.structureLock.readLock().lock();
+		try {
+			return super.getNumLiveVertex();
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getOutDegree(int)
+	 */
+	@Override
+	public int getOutDegree(final int v) {
+		return this.readStructure(new StructureRead<Integer>() {
+			public Integer read() {
+				return ConcurrentGraph.super.getOutDegree(v);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getOutNeighbor(int, int)
+	 */
+	@Override
+	public int getOutNeighbor(final int v, final int i) {
+		return this.readStructure(new StructureRead<Integer>() {
+			public Integer read() {
+				return ConcurrentGraph.super.getOutNeighbor(v, i);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getInDegree(int)
+	 */
+	@Override
+	public int getInDegree(final int v) {
+		return this.readStructure(new StructureRead<Integer>() {
+			public Integer read() {
+				return ConcurrentGraph.super.getInDegree(v);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getInNeighbor(int, int)
+	 */
+	@Override
+	public int getInNeighbor(final int v, final int i) {
+		return this.readStructure(new StructureRead<Integer>() {
+			public Integer read() {
+				return ConcurrentGraph.super.getInNeighbor(v, i);
+			}
+		});
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#setAdjacencyIndexEnabled(boolean)
+	 */
+	@Override
+	public void setAdjacencyIndexEnabled(boolean enabled) {
+		this.lockStructure();
+		try {
+			super.setAdjacencyIndexEnabled(enabled);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#isAdjacencyIndexEnabled()
+	 */
+	@Override
+	public boolean isAdjacencyIndexEnabled() {
+		this.structureLock.readLock().lock();
+		try {
+			return super.isAdjacencyIndexEnabled();
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Create a read-only CSR snapshot of this graph. Arcs are not rewired
+	 * while the snapshot is taken, so it is consistent.
+	 *
+	 * @return the frozen graph.
+	 */
+	@Override
+	public FrozenGraph<T> freeze() {
+		this.structureLock.writeLock().lock();
+		try {
+			return super.freeze();
+		} finally {
+			this.structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Take an immutable snapshot of this graph. Arcs are not rewired while the
+	 * snapshot is taken, so it sees each change whole or not at all.
+	 *
+	 * @return the snapshot.
+	 */
+	@Override
+	public GraphSnapshot<T> snapshot() {
+		this.structureLock.writeLock().lock();
+		try {
+			return super.snapshot();
+		} finally {
+			this.structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#setLabelDictionaryEnabled(boolean)
+	 */
+	@Override
+	public void setLabelDictionaryEnabled(boolean enabled) {
+		this.lockStructure();
+		try {
+			super.setLabelDictionaryEnabled(enabled);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#hasColumn(java.lang.String)
+	 */
+	@Override
+	public boolean hasColumn(String name) {
+		this.structureLock.readLock().lock();
+		try {
+			return super.hasColumn(name);
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#removeColumn(java.lang.String)
+	 */
+	@Override
+	public boolean removeColumn(String name) {
+		this.lockStructure();
+		try {
+			return super.removeColumn(name);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#getColumn(java.lang.String,
+	 *      java.lang.Class)
+	 */
+	@Override
+	<C extends PropertyColumn> C getColumn(String name, Class<C> type) {
+		this.structureLock.readLock().lock();
+		try {
+			if (super.hasColumn(name))
+				return super.getColumn(name, type);
+		} finally {
+			this.structureLock.readLock().unlock();
+		}
+
+		// creating the column needs the exclusive lock.
+		this.lockStructure();
+		try {
+			return super.getColumn(name, type);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#removeVertices(java.util.Set)
+	 */
+	@Override
+	public void removeVertices(Set<Vertex<T>> vertices) {
+		this.lockStructure();
+		try {
+			super.removeVertices(vertices);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#removeArcs(java.util.HashSet)
+	 */
+	@Override
+	public void removeArcs(HashSet<Arc<T>> arcsRemoved) {
+		this.lockStructure();
+		try {
+			super.removeArcs(arcsRemoved);
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.Graph#compact()
+	 */
+	@Override
+	public int[] compact() {
+		this.lockStructure();
+		try {
+			return super.compact();
+		} finally {
+			this.unlockStructure();
+		}
+	}
+
+	/**
+	 * The graph read through the vertices without taking their locks.
+	 */
+	private class OptimisticView implements IndexedGraph {
+		public int getNumVertex() {
+			return ConcurrentGraph.this.vertices.size();
+		}
+
+		public boolean containsVertex(int v) {
+			return ConcurrentGraph.this.slot(v) != null;
+		}
+
+		public int getOutDegree(int v) {
+			Vertex<T> vertex = ConcurrentGraph.this.slot(v);
+			return vertex == null ? 0 : vertex.readDegree(true);
+		}
+
+		public int getOutNeighbor(int v, int i) {
+			return this.vertex(v).readNeighborId(true, i);
+		}
+
+		public int getInDegree(int v) {
+			Vertex<T> vertex = ConcurrentGraph.this.slot(v);
+			return vertex == null ? 0 : vertex.readDegree(false);
+		}
+
+		public int getInNeighbor(int v, int i) {
+			return this.vertex(v).readNeighborId(false, i);
+		}
+
+		private Vertex<T> vertex(int v) {
+			Vertex<T> vertex = ConcurrentGraph.this.slot(v);
+			if (vertex == null)
+				throw new InvalidVertexException();
+			return vertex;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An array list that one writer changes while other threads read it without
+ * locks. Every slot is read and written with volatile semantics, so a reader
+ * never sees an element before the writes that preceded its insertion, and
+ * an appended element is seen once the size covers it.
+ *
+ * Several threads may also append at once with {@link #tryReserve()} and
+ * {@link #publish(int, Object)}, as long as the list is not grown or changed
+ * otherwise meanwhile. A reserved slot reads null until it is published.
+ *
+ * Readers get no other guarantee: while elements are removed or replaced a
+ * reader may see an element twice, miss one or get an
+ * IndexOutOfBoundsException. They detect this with the stamps of
+ * {@link ConcurrentGraph} and retry.
+ *
+ * @author wrp
+ */
+class ConcurrentReadList<E> extends AbstractList<E> implements RandomAccess {
+	/**
+	 * Updates the size of the lists reserving slots.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<ConcurrentReadList> SIZE = AtomicIntegerFieldUpdater
+			.newUpdater(ConcurrentReadList.class, "size");
+
+	/**
+	 * The elements. Replaced by a larger copy when full.
+	 */
+	private volatile AtomicReferenceArray<E> elements;
+
+	/**
+	 * The number of elements.
+	 */
+	private volatile int size;
+
+	/**
+	 * Create an empty list.
+	 */
+	public ConcurrentReadList() {
+		this(0);
+	}
+
+	/**
+	 * Create an empty list with room for a number of elements.
+	 *
+	 * @param capacity
+	 *            the number of elements.
+	 */
+	public ConcurrentReadList(int capacity) {
+		this.elements = new AtomicReferenceArray<E>(capacity);
+	}
+
+	/**
+	 * Make room for a number of elements.
+	 *
+	 * @param capacity
+	 *            the number of elements.
+	 */
+	public void ensureCapacity(int capacity) {
+		AtomicReferenceArray<E> current = this.elements;
+		if (capacity <= current.length())
+			return;
+
+		AtomicReferenceArray<E> grown = new AtomicReferenceArray<E>(Math.max(
+				capacity, Math.max(current.length() * 2, 4)));
+		for (int i = 0; i < this.size; i++) {
+			grown.lazySet(i, current.get(i));
+		}
+		this.elements = grown;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index);
+		return this.elements.get(index);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E element) {
+		int n = this.size;
+		this.ensureCapacity(n + 1);
+		this.elements.lazySet(n, element);
+		this.modCount++;
+		this.size = n + 1;
+		return true;
+	}
+
+	/**
+	 * Reserve the slot after the last one, if there is room for it.
+	 *
+	 * @return the index of the slot, or -1 if the list must grow first.
+	 */
+	public int tryReserve() {
+		for (;;) {
+			int n = this.size;
+			if (n >= this.elements.length())
+				return -1;
+			if (SIZE.compareAndSet(this, n, n + 1))
+				return n;
+		}
+	}
+
+	/**
+	 * Store an element in a slot reserved by {@link #tryReserve()}.
+	 *
+	 * @param index
+	 *            the index of the slot.
+	 * @param element
+	 *            the element.
+	 */
+	public void publish(int index, E element) {
+		this.elements.set(index, element);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#set(int, java.lang.Object)
+	 */
+	@Override
+	public E set(int index, E element) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index);
+		return this.elements.getAndSet(index, element);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#remove(int)
+	 */
+	@Override
+	public E remove(int index) {
+		int n = this.size;
+		if (index < 0 || index >= n)
+			throw new IndexOutOfBoundsException("Index: " + index);
+
+		AtomicReferenceArray<E> elements = this.elements;
+		E removed = elements.get(index);
+		for (int i = index; i < n - 1; i++) {
+			elements.set(i, elements.get(i + 1));
+		}
+		elements.set(n - 1, null);
+		this.modCount++;
+		this.size = n - 1;
+		return removed;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#removeRange(int, int)
+	 */
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		int n = this.size;
+		AtomicReferenceArray<E> elements = this.elements;
+		int shift = toIndex - fromIndex;
+		for (int i = fromIndex; i < n - shift; i++) {
+			elements.set(i, elements.get(i + shift));
+		}
+		for (int i = n - shift; i < n; i++) {
+			elements.set(i, null);
+		}
+		this.modCount++;
+		this.size = n - shift;
+	}
+}
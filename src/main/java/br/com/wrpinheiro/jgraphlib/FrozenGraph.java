@@ -0,0 +1,195 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+/**
+ * A read-only snapshot of a graph in compressed sparse row (CSR) form. The
+ * output arcs of vertex v are the positions outOffsets[v] to outOffsets[v + 1]
+ * - 1 of the targets and labels arrays. Input arcs are kept the same way, with
+ * a position map back to the output arc so its label can be found.
+ *
+ * @author wrp
+ */
+public class FrozenGraph<T> implements IndexedGraph {
+	/**
+	 * The number of vertices of this graph.
+	 */
+	private final int numVertex;
+
+	/**
+	 * Where the output arcs of each vertex start. Has numVertex + 1 entries.
+	 */
+	private final int[] outOffsets;
+
+	/**
+	 * The target vertex of every output arc.
+	 */
+	private final int[] outTargets;
+
+	/**
+	 * The label of every output arc, parallel to outTargets.
+	 */
+	private final Object[] labels;
+
+	/**
+	 * Where the input arcs of each vertex start. Has numVertex + 1 entries.
+	 */
+	private final int[] inOffsets;
+
+	/**
+	 * The source vertex of every input arc.
+	 */
+	private final int[] inSources;
+
+	/**
+	 * The position in outTargets of every input arc.
+	 */
+	private final int[] inArcs;
+
+	/**
+	 * Creates a frozen graph from its output arcs. The input arcs are computed
+	 * here in a single pass.
+	 *
+	 * @param numVertex
+	 *            the number of vertices.
+	 * @param outOffsets
+	 *            where the output arcs of each vertex start.
+	 * @param outTargets
+	 *            the target vertex of every output arc.
+	 * @param labels
+	 *            the label of every output arc.
+	 */
+	FrozenGraph(int numVertex, int[] outOffsets, int[] outTargets,
+			Object[] labels) {
+		this.numVertex = numVertex;
+		this.outOffsets = outOffsets;
+		this.outTargets = outTargets;
+		this.labels = labels;
+
+		int numArcs = outOffsets[numVertex];
+		this.inOffsets = new int[numVertex + 1];
+		this.inSources = new int[numArcs];
+		this.inArcs = new int[numArcs];
+
+		for (int p = 0; p < numArcs; p++) {
+			this.inOffsets[outTargets[p] + 1]++;
+		}
+		for (int v = 0; v < numVertex; v++) {
+			this.inOffsets[v + 1] += this.inOffsets[v];
+		}
+
+		int[] next = new int[numVertex];
+		System.arraycopy(this.inOffsets, 0, next, 0, numVertex);
+		for (int v = 0; v < numVertex; v++) {
+			for (int p = outOffsets[v]; p < outOffsets[v + 1]; p++) {
+				int q = next[outTargets[p]]++;
+				this.inSources[q] = v;
+				this.inArcs[q] = p;
+			}
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.numVertex;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && v < this.numVertex;
+	}
+
+	/**
+	 * Return the number of arcs of this graph.
+	 *
+	 * @return the number of arcs of this graph.
+	 */
+	public int getNumArc() {
+		return this.outTargets.length;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		return this.outOffsets[v + 1] - this.outOffsets[v];
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		return this.outTargets[this.outOffsets[v] + i];
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		return this.inOffsets[v + 1] - this.inOffsets[v];
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		return this.inSources[this.inOffsets[v] + i];
+	}
+
+	/**
+	 * Return the label of the ith output arc of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc.
+	 * @return the label of the arc.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getOutArcLabel(int v, int i) {
+		return (T) this.labels[this.outOffsets[v] + i];
+	}
+
+	/**
+	 * Return the label of the ith input arc of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc.
+	 * @return the label of the arc.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getInArcLabel(int v, int i) {
+		return (T) this.labels[this.inArcs[this.inOffsets[v] + i]];
+	}
+}
@@ -16,30 +16,48 @@
 package br.com.wrpinheiro.jgraphlib;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A graph definition.
  * 
  * @author wrp 02/02/2008
  */
-public class Graph<T> {
+public class Graph<T> implements IndexedGraph {
 	/**
-	 * An ID counter for the graph. Every graph must have an unique ID.
+	 * An ID counter for the graph. Every graph must have an unique ID, also
+	 * when graphs are created by several threads.
 	 */
-	private static int staticId = 1;
+	private static final AtomicInteger staticId = new AtomicInteger(1);
 
 	/**
-	 * List of the vertices of this graph.
+	 * List of the vertices of this graph, indexed by vertex id. A removed
+	 * vertex leaves a null slot until the graph is compacted.
 	 */
-	private List<Vertex<T>> vertices = new ArrayList<Vertex<T>>();
+	private final List<Vertex<T>> vertices;
 
 	/**
-	 * List of the arcs of this graph.
+	 * List of the arcs of this graph, indexed by arc id. A removed arc leaves a
+	 * null slot until the graph is compacted.
 	 */
-	private List<Arc<T>> arcs = new ArrayList<Arc<T>>();
+	private final List<Arc<T>> arcs;
+
+	/**
+	 * The number of slots left by removed vertices until the graph is
+	 * compacted.
+	 */
+	private int numRemovedVertex;
 
 	/**
 	 * ID of this graph.
@@ -51,11 +69,110 @@ public class Graph<T> {
 	 */
 	private Vertex<T> rootVertex;
 
+	/**
+	 * An optional index of the adjacent pairs of vertices. It is null while
+	 * the index is disabled.
+	 */
+	private AdjacencyIndex adjacencyIndex;
+
+	/**
+	 * Counts the starts and ends of the changes made to the arcs of the
+	 * vertices, counting removals and compactions. It is odd while a change
+	 * runs.
+	 */
+	private long modifications;
+
+	/**
+	 * The number of nested changes running.
+	 */
+	private int writeDepth;
+
+	/**
+	 * The epoch of the changes made now. Taking a snapshot starts a new one,
+	 * and the snapshot sees the changes of the earlier epochs.
+	 */
+	private volatile long epoch;
+
+	/**
+	 * The epoch of the latest open snapshot, or -1 if there is none.
+	 */
+	private volatile long latestSnapshotEpoch = -1;
+
+	/**
+	 * The number of open snapshots of each epoch. Also guards
+	 * versionedVertices and the pruning of versions.
+	 */
+	private final TreeMap<Long, Integer> openSnapshots = new TreeMap<Long, Integer>();
+
+	/**
+	 * The vertices keeping older versions of their neighbours.
+	 */
+	private final Set<Vertex<T>> versionedVertices = Collections
+			.newSetFromMap(new IdentityHashMap<Vertex<T>, Boolean>());
+
+	/**
+	 * The vertices removed while snapshots were open, by their old id.
+	 */
+	private final ConcurrentHashMap<Integer, RemovedVertex<T>> removedVertices = new ConcurrentHashMap<Integer, RemovedVertex<T>>();
+
+	/**
+	 * An optional dictionary of the arc labels. It is null while label
+	 * encoding is disabled.
+	 */
+	private volatile LabelDictionary<T> labelDictionary;
+
+	/**
+	 * The property columns of this graph by name. It is null until a column
+	 * is created.
+	 */
+	private Map<String, PropertyColumn> columns;
+
 	/**
 	 * Create a new graph and set its unique id.
 	 */
 	public Graph() {
-		this.id = staticId++;
+		this(new ArrayList<Vertex<T>>(), new ArrayList<Arc<T>>());
+	}
+
+	/**
+	 * Create a new graph keeping its vertices and arcs in the given lists.
+	 * 
+	 * @param vertices
+	 *            an empty list for the vertices.
+	 * @param arcs
+	 *            an empty list for the arcs.
+	 */
+	Graph(List<Vertex<T>> vertices, List<Arc<T>> arcs) {
+		this.id = staticId.getAndIncrement();
+		this.vertices = vertices;
+		this.arcs = arcs;
+	}
+
+	/**
+	 * Create the list of input or output arcs of a vertex.
+	 * 
+	 * @param capacity
+	 *            the expected number of arcs.
+	 * @return an empty list.
+	 */
+	List<Arc<T>> newArcList(int capacity) {
+		return new ArrayList<Arc<T>>(capacity);
+	}
+
+	/**
+	 * Make room for a known number of vertices and arcs, so that adding them
+	 * does not grow the lists step by step.
+	 * 
+	 * @param numVertex
+	 *            the expected number of vertices.
+	 * @param numArcs
+	 *            the expected number of arcs.
+	 */
+	void ensureCapacity(int numVertex, int numArcs) {
+		if (this.vertices instanceof ArrayList) {
+			((ArrayList<Vertex<T>>) this.vertices).ensureCapacity(numVertex);
+			((ArrayList<Arc<T>>) this.arcs).ensureCapacity(numArcs);
+		}
 	}
 
 	/**
@@ -65,8 +182,8 @@ public class Graph<T> {
 	 *            the vertex to be add.
 	 */
 	public void addVertex(Vertex<T> vertex) {
+		vertex.setId(this.vertices.size());
 		this.vertices.add(vertex);
-		vertex.setId(this.vertices.size() - 1);
 	}
 
 	/**
@@ -75,14 +192,67 @@ public class Graph<T> {
 	 * @param i
 	 *            the ith vertex index.
 	 * @return the ith vertex.
+	 * @throws InvalidVertexException
+	 *             if there is no such vertex or it was removed.
 	 */
 	public Vertex<T> getVertex(final int i) {
-		if (i < 0 || i > this.vertices.size() - 1)
+		if (i < 0 || i > this.vertices.size() - 1 || this.vertices.get(i) == null)
 			throw new InvalidVertexException();
 
 		return this.vertices.get(i);
 	}
 
+	/**
+	 * Return the vertex in a slot without checking it.
+	 * 
+	 * @param i
+	 *            the vertex id.
+	 * @return the vertex or null if the id is out of range or the vertex was
+	 *         removed.
+	 */
+	Vertex<T> slot(int i) {
+		return i >= 0 && i < this.vertices.size() ? this.vertices.get(i) : null;
+	}
+
+	/**
+	 * Check if there is a vertex with an id. Removed vertices are not
+	 * contained in the graph.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return TRUE if the vertex exists or FALSE otherwise.
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && v < this.vertices.size() && this.vertices.get(v) != null;
+	}
+
+	/**
+	 * Return the vertices of this graph in id order. Removed vertices are
+	 * skipped. Vertices added while iterating are also returned.
+	 * 
+	 * @return the vertices of this graph.
+	 */
+	public Iterable<Vertex<T>> getVertices() {
+		return new Iterable<Vertex<T>>() {
+			public Iterator<Vertex<T>> iterator() {
+				return new LiveIterator<Vertex<T>>(Graph.this.vertices);
+			}
+		};
+	}
+
+	/**
+	 * Return the arcs of this graph in id order. Removed arcs are skipped.
+	 * 
+	 * @return the arcs of this graph.
+	 */
+	public Iterable<Arc<T>> getArcs() {
+		return new Iterable<Arc<T>>() {
+			public Iterator<Arc<T>> iterator() {
+				return new LiveIterator<Arc<T>>(Graph.this.arcs);
+			}
+		};
+	}
+
 	/**
 	 * Add a new arc to this graph.
 	 * 
@@ -90,8 +260,8 @@ public class Graph<T> {
 	 *            the arc to be add.
 	 */
 	public void addArc(Arc<T> arc) {
+		arc.setId(this.arcs.size());
 		this.arcs.add(arc);
-		arc.setId(this.arcs.size() - 1);
 	}
 
 	/**
@@ -99,14 +269,16 @@ public class Graph<T> {
 	 * 
 	 * @param i
 	 *            the arc index.
-	 * @return the ith arc of this graph.
+	 * @return the ith arc of this graph or null if it was removed.
 	 */
 	public Arc<T> getArc(int i) {
 		return this.arcs.get(i);
 	}
 
 	/**
-	 * Return the number of vertices of this graph.
+	 * Return the number of vertices of this graph, counting the slots left by
+	 * removed vertices. Every vertex id is lower than this number; after
+	 * {@link #compact()} it is the same as {@link #getNumLiveVertex()}.
 	 * 
 	 * @return the number of vertices of this graph.
 	 */
@@ -114,6 +286,53 @@ public class Graph<T> {
 		return this.vertices.size();
 	}
 
+	/**
+	 * Return the number of vertices of this graph that were not removed.
+	 * 
+	 * @return the number of live vertices.
+	 */
+	public int getNumLiveVertex() {
+		return this.vertices.size() - this.numRemovedVertex;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		Vertex<T> vertex = this.vertices.get(v);
+		return vertex == null ? 0 : vertex.getOutDegree();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		return this.getVertex(v).getOutNeighborId(i);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		Vertex<T> vertex = this.vertices.get(v);
+		return vertex == null ? 0 : vertex.getInDegree();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		return this.getVertex(v).getInNeighborId(i);
+	}
+
 	/**
 	 * Check if from source is adjacent to target.
 	 * 
@@ -127,6 +346,549 @@ public class Graph<T> {
 		return source.isAdjacent(target);
 	}
 
+	/**
+	 * Enable or disable the adjacency index of this graph. While enabled,
+	 * isAdjacent runs in O(1) expected time instead of scanning the output
+	 * arcs of the source vertex. Enabling the index builds it from the
+	 * current arcs; after that it follows every change made through the
+	 * arcs' setSource, setTarget and setEndings and through the vertices'
+	 * removeInArc and removeOutArc.
+	 * 
+	 * @param enabled
+	 *            TRUE to enable the index or FALSE to drop it.
+	 */
+	public void setAdjacencyIndexEnabled(boolean enabled) {
+		if (!enabled) {
+			this.adjacencyIndex = null;
+		} else if (this.adjacencyIndex == null) {
+			this.adjacencyIndex = new AdjacencyIndex();
+			this.buildAdjacencyIndex();
+		}
+	}
+
+	/**
+	 * Fill the adjacency index with the arcs between live vertices.
+	 */
+	private void buildAdjacencyIndex() {
+		for (Vertex<T> v : this.getVertices()) {
+			for (int i = 0; i < v.getOutDegree(); i++) {
+				int target = v.getOutNeighborId(i);
+				if (target >= 0)
+					this.adjacencyIndex.add(v.getId(), target);
+			}
+		}
+	}
+
+	/**
+	 * Check if the adjacency index of this graph is enabled.
+	 * 
+	 * @return TRUE if the index is enabled or FALSE otherwise.
+	 */
+	public boolean isAdjacencyIndexEnabled() {
+		return this.adjacencyIndex != null;
+	}
+
+	/**
+	 * Enable or disable the dictionary encoding of the arc labels. While it is
+	 * enabled, every arc keeps the code of its label in the dictionary and
+	 * equal labels are shared by the arcs, so a graph with millions of arcs
+	 * labelled from a small alphabet keeps a single instance of each label.
+	 * Enabling it encodes the labels of the arcs already in the graph.
+	 * 
+	 * @param enabled
+	 *            TRUE to encode the labels or FALSE to stop encoding them.
+	 * @see Arc#getLabelCode()
+	 */
+	public void setLabelDictionaryEnabled(boolean enabled) {
+		if (!enabled) {
+			if (this.labelDictionary != null) {
+				this.labelDictionary = null;
+				for (Arc<T> arc : this.getArcs()) {
+					arc.setLabel(arc.getLabel());
+				}
+			}
+		} else if (this.labelDictionary == null) {
+			this.labelDictionary = new LabelDictionary<T>();
+			for (Arc<T> arc : this.getArcs()) {
+				arc.setLabel(arc.getLabel());
+			}
+		}
+	}
+
+	/**
+	 * Check if the arc labels of this graph are encoded in a dictionary.
+	 * 
+	 * @return TRUE if the labels are encoded or FALSE otherwise.
+	 */
+	public boolean isLabelDictionaryEnabled() {
+		return this.labelDictionary != null;
+	}
+
+	/**
+	 * Return the dictionary of the arc labels of this graph.
+	 * 
+	 * @return the dictionary, or null if label encoding is disabled.
+	 */
+	public LabelDictionary<T> getLabelDictionary() {
+		return this.labelDictionary;
+	}
+
+	/**
+	 * Record in the adjacency index that an arc now links source to target.
+	 * 
+	 * @param source
+	 *            the source vertex.
+	 * @param target
+	 *            the target vertex.
+	 */
+	void arcLinked(Vertex<T> source, Vertex<T> target) {
+		if (this.adjacencyIndex != null && !source.isRemoved()
+				&& !target.isRemoved())
+			this.adjacencyIndex.add(source.getId(), target.getId());
+	}
+
+	/**
+	 * Record in the adjacency index that an arc no longer links source to
+	 * target.
+	 * 
+	 * @param source
+	 *            the source vertex.
+	 * @param target
+	 *            the target vertex.
+	 */
+	void arcUnlinked(Vertex<T> source, Vertex<T> target) {
+		if (this.adjacencyIndex != null && !source.isRemoved()
+				&& !target.isRemoved())
+			this.adjacencyIndex.remove(source.getId(), target.getId());
+	}
+
+	/**
+	 * Start a change to the arcs of the vertices or to the ids of this graph.
+	 * Changes may nest. A {@link ConcurrentGraph} uses it to keep out
+	 * snapshots and to invalidate optimistic reads.
+	 */
+	void beginWrite() {
+		if (this.writeDepth++ == 0)
+			this.modifications++;
+	}
+
+	/**
+	 * End a change started by {@link #beginWrite()}.
+	 */
+	void endWrite() {
+		if (--this.writeDepth == 0)
+			this.modifications++;
+	}
+
+	/**
+	 * Take an immutable snapshot of this graph. Later changes are not seen by
+	 * the snapshot, yet nothing is copied when it is taken: a vertex keeps a
+	 * copy of its neighbours only when it is changed while a snapshot that
+	 * saw it is open, and the copies are dropped once no open snapshot reads
+	 * them. Close the snapshot when done, since it keeps these copies alive.
+	 * 
+	 * Each change reads the epoch when it starts and saves the neighbours of
+	 * the vertices it writes for the snapshots of earlier epochs, so the
+	 * epoch must not move while a change runs. A {@link ConcurrentGraph}
+	 * takes the snapshot under its exclusive lock, which waits for the
+	 * running changes. A Graph is not thread-safe: call this method from the
+	 * thread that changes the graph, and read the snapshot from other threads
+	 * only while the graph does not change.
+	 * 
+	 * Snapshots are read by vertex id. The graph cannot be compacted while a
+	 * snapshot is open.
+	 * 
+	 * @return the snapshot.
+	 */
+	public GraphSnapshot<T> snapshot() {
+		synchronized (this.openSnapshots) {
+			long snapshotEpoch = this.epoch;
+			Integer count = this.openSnapshots.get(snapshotEpoch);
+			this.openSnapshots.put(snapshotEpoch, count == null ? 1
+					: count + 1);
+			this.latestSnapshotEpoch = snapshotEpoch;
+			this.epoch = snapshotEpoch + 1;
+			return new GraphSnapshot<T>(this, snapshotEpoch,
+					this.vertices.size());
+		}
+	}
+
+	/**
+	 * Return the number of vertices keeping older versions of their
+	 * neighbours for open snapshots.
+	 * 
+	 * @return the number of vertices.
+	 */
+	public int getNumVersionedVertices() {
+		synchronized (this.openSnapshots) {
+			return this.versionedVertices.size();
+		}
+	}
+
+	/**
+	 * Return a number that grows whenever an arc is added, removed or gets a
+	 * new source or target, and when vertices are removed or renumbered.
+	 * Results computed from the arcs of this graph are still valid while the
+	 * number stays the same, so it must be read both before and after
+	 * computing them. Labels, properties and new vertices without arcs do not
+	 * change it.
+	 * 
+	 * @return the number of changes made to the arcs of this graph, or -1
+	 *         while a change runs.
+	 */
+	public long getModificationCount() {
+		long count = this.modifications;
+		return (count & 1) == 0 ? count : -1;
+	}
+
+	/**
+	 * Return the epoch of the changes made now.
+	 * 
+	 * @return the epoch.
+	 */
+	long getEpoch() {
+		return this.epoch;
+	}
+
+	/**
+	 * Check if a snapshot that saw the changes of an epoch is open.
+	 * 
+	 * @param epoch
+	 *            the epoch.
+	 * @return TRUE if such a snapshot is open.
+	 */
+	boolean isSnapshotOpen(long epoch) {
+		return this.latestSnapshotEpoch >= epoch;
+	}
+
+	/**
+	 * Check if an open snapshot reads a version of a vertex that was current
+	 * from one epoch to another. Must be called holding openSnapshots.
+	 * 
+	 * @param from
+	 *            the first epoch of the version.
+	 * @param to
+	 *            the last epoch of the version.
+	 * @return TRUE if the version is still needed.
+	 */
+	boolean isVersionNeeded(long from, long to) {
+		Long snapshotEpoch = this.openSnapshots.ceilingKey(from);
+		return snapshotEpoch != null && snapshotEpoch <= to;
+	}
+
+	/**
+	 * Record that a vertex kept a version of its neighbours.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 */
+	void versionSaved(Vertex<T> v) {
+		synchronized (this.openSnapshots) {
+			if (this.openSnapshots.isEmpty())
+				v.pruneVersions();
+			else
+				this.versionedVertices.add(v);
+		}
+	}
+
+	/**
+	 * Return a vertex as seen by a snapshot.
+	 * 
+	 * @param id
+	 *            the vertex id.
+	 * @param snapshotEpoch
+	 *            the epoch of the snapshot.
+	 * @return the vertex or null if it was not in the graph then.
+	 */
+	Vertex<T> getVertexAt(int id, long snapshotEpoch) {
+		if (id < 0 || id >= this.vertices.size())
+			return null;
+
+		RemovedVertex<T> removed = this.removedVertices.get(id);
+		if (removed != null && removed.epoch > snapshotEpoch)
+			return removed.vertex;
+		return this.vertices.get(id);
+	}
+
+	/**
+	 * Close a snapshot and drop the versions no open snapshot reads.
+	 * 
+	 * @param snapshotEpoch
+	 *            the epoch of the snapshot.
+	 */
+	void releaseSnapshot(long snapshotEpoch) {
+		synchronized (this.openSnapshots) {
+			int count = this.openSnapshots.get(snapshotEpoch);
+			if (count == 1)
+				this.openSnapshots.remove(snapshotEpoch);
+			else
+				this.openSnapshots.put(snapshotEpoch, count - 1);
+			this.latestSnapshotEpoch = this.openSnapshots.isEmpty() ? -1
+					: this.openSnapshots.lastKey();
+
+			for (Iterator<Vertex<T>> it = this.versionedVertices.iterator(); it
+					.hasNext();) {
+				if (!it.next().pruneVersions())
+					it.remove();
+			}
+			for (Iterator<RemovedVertex<T>> it = this.removedVertices.values()
+					.iterator(); it.hasNext();) {
+				if (!this.isVersionNeeded(0, it.next().epoch - 1))
+					it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Lock the input and output arc lists of a vertex. This graph is not
+	 * thread-safe and does nothing here; see {@link ConcurrentGraph}.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 */
+	void lockAdjacency(Vertex<T> v) {
+	}
+
+	/**
+	 * Release the lock taken by {@link #lockAdjacency(Vertex)}.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 */
+	void unlockAdjacency(Vertex<T> v) {
+	}
+
+	/**
+	 * Lock the arc lists of up to three vertices at once, in an order that
+	 * does not deadlock with other threads doing the same. Null vertices are
+	 * ignored. This graph is not thread-safe and does nothing here.
+	 * 
+	 * @param v1
+	 *            a vertex or null.
+	 * @param v2
+	 *            a vertex or null.
+	 * @param v3
+	 *            a vertex or null.
+	 */
+	void lockAdjacency(Vertex<T> v1, Vertex<T> v2, Vertex<T> v3) {
+	}
+
+	/**
+	 * Release the locks taken by
+	 * {@link #lockAdjacency(Vertex, Vertex, Vertex)} with the same vertices.
+	 * 
+	 * @param v1
+	 *            a vertex or null.
+	 * @param v2
+	 *            a vertex or null.
+	 * @param v3
+	 *            a vertex or null.
+	 */
+	void unlockAdjacency(Vertex<T> v1, Vertex<T> v2, Vertex<T> v3) {
+	}
+
+	/**
+	 * Lock an arc while its endpoints change. It is taken before the locks of
+	 * the endpoints, which are only known once the arc is locked. This graph
+	 * is not thread-safe and does nothing here.
+	 * 
+	 * @param arc
+	 *            the arc.
+	 */
+	void lockArc(Arc<T> arc) {
+	}
+
+	/**
+	 * Release the lock taken by {@link #lockArc(Arc)}.
+	 * 
+	 * @param arc
+	 *            the arc.
+	 */
+	void unlockArc(Arc<T> arc) {
+	}
+
+	/**
+	 * Check in the adjacency index if source is adjacent to target. Must be
+	 * called only while the index is enabled.
+	 * 
+	 * @param source
+	 *            the source vertex, from this graph.
+	 * @param target
+	 *            the target vertex.
+	 * @return TRUE if target is adjacent to source.
+	 */
+	boolean isIndexedAdjacent(Vertex<T> source, Vertex<T> target) {
+		return target.getGraph().equals(this) && !source.isRemoved()
+				&& !target.isRemoved()
+				&& this.adjacencyIndex.contains(source.getId(), target.getId());
+	}
+
+	/**
+	 * Return an int property column of this graph, creating it with the
+	 * default value 0 if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	public IntColumn getIntColumn(String name) {
+		return this.getColumn(name, IntColumn.class);
+	}
+
+	/**
+	 * Return a long property column of this graph, creating it with the
+	 * default value 0 if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	public LongColumn getLongColumn(String name) {
+		return this.getColumn(name, LongColumn.class);
+	}
+
+	/**
+	 * Return a double property column of this graph, creating it with the
+	 * default value 0 if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	public DoubleColumn getDoubleColumn(String name) {
+		return this.getColumn(name, DoubleColumn.class);
+	}
+
+	/**
+	 * Return a boolean property column of this graph, creating it with the
+	 * default value FALSE if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	public BooleanColumn getBooleanColumn(String name) {
+		return this.getColumn(name, BooleanColumn.class);
+	}
+
+	/**
+	 * Return an object property column of this graph, creating it with the
+	 * default value null if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> ObjectColumn<V> getObjectColumn(String name) {
+		return this.getColumn(name, ObjectColumn.class);
+	}
+
+	/**
+	 * Check if this graph has a property column.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return TRUE if the column exists or FALSE otherwise.
+	 */
+	public boolean hasColumn(String name) {
+		return this.columns != null && this.columns.containsKey(name);
+	}
+
+	/**
+	 * Remove a property column and its values from this graph.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @return TRUE if the column existed or FALSE otherwise.
+	 */
+	public boolean removeColumn(String name) {
+		return this.columns != null && this.columns.remove(name) != null;
+	}
+
+	/**
+	 * Return a property column, creating it if it does not exist.
+	 * 
+	 * @param name
+	 *            the name of the column.
+	 * @param type
+	 *            the class of the column.
+	 * @return the column.
+	 * @throws IllegalArgumentException
+	 *             if a column of another type has this name.
+	 */
+	<C extends PropertyColumn> C getColumn(String name, Class<C> type) {
+		if (this.columns == null)
+			this.columns = new LinkedHashMap<String, PropertyColumn>();
+
+		PropertyColumn column = this.columns.get(name);
+		if (column == null) {
+			if (type == IntColumn.class)
+				column = new IntColumn(name, 0);
+			else if (type == LongColumn.class)
+				column = new LongColumn(name, 0L);
+			else if (type == DoubleColumn.class)
+				column = new DoubleColumn(name, 0.0);
+			else if (type == BooleanColumn.class)
+				column = new BooleanColumn(name);
+			else
+				column = new ObjectColumn<Object>(name);
+			this.columns.put(name, column);
+		} else if (column.getClass() != type) {
+			throw new IllegalArgumentException("The column " + name
+					+ " is a " + column.getClass().getSimpleName() + ".");
+		}
+		return type.cast(column);
+	}
+
+	/**
+	 * Create a read-only CSR snapshot of this graph. Arcs without a source or
+	 * a target are left out and the slots of removed vertices become isolated
+	 * vertices, so compact the graph first for a dense snapshot. Later changes
+	 * to this graph are not seen by the snapshot.
+	 * 
+	 * @return the frozen graph.
+	 */
+	public FrozenGraph<T> freeze() {
+		int numVertex = this.vertices.size();
+		int[] outOffsets = new int[numVertex + 1];
+
+		for (int v = 0; v < numVertex; v++) {
+			int degree = 0;
+			for (int i = 0; i < this.getOutDegree(v); i++) {
+				if (this.getOutNeighbor(v, i) >= 0)
+					degree++;
+			}
+			outOffsets[v + 1] = outOffsets[v] + degree;
+		}
+
+		int[] outTargets = new int[outOffsets[numVertex]];
+		Object[] labels = new Object[outOffsets[numVertex]];
+		int p = 0;
+		for (int v = 0; v < numVertex; v++) {
+			for (int i = 0; i < this.getOutDegree(v); i++) {
+				int target = this.getOutNeighbor(v, i);
+				if (target >= 0) {
+					outTargets[p] = target;
+					labels[p] = this.vertices.get(v).getOutArc(i).getLabel();
+					p++;
+				}
+			}
+		}
+
+		return new FrozenGraph<T>(numVertex, outOffsets, outTargets, labels);
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -158,23 +920,162 @@ public class Graph<T> {
 	}
 
 	/**
-	 * Remove a set of vertices.
+	 * Remove a set of vertices. Each removal takes O(1): the slot of the
+	 * vertex is left empty so the ids of the other vertices do not change.
+	 * The removed vertex keeps its id, so the set passed in is left intact,
+	 * and {@link Vertex#isRemoved()} tells it apart. Arcs linked to a removed
+	 * vertex are kept until {@link #compact()}, but it is no longer reported
+	 * as their neighbour.
 	 * 
 	 * @param vertices
 	 *            the set of vertices to be removed.
 	 */
 	public void removeVertices(Set<Vertex<T>> vertices) {
-		this.vertices.removeAll(vertices);
+		this.beginWrite();
+		try {
+			long epoch = this.epoch;
+			if (this.isSnapshotOpen(0)) {
+				for (Vertex<T> v : vertices) {
+					int i = v.getId();
+					if (i >= 0 && i < this.vertices.size()
+							&& this.vertices.get(i) == v) {
+						v.touchNeighbors(epoch);
+						this.removedVertices.put(i, new RemovedVertex<T>(v, epoch));
+					}
+				}
+			}
+
+			for (Vertex<T> v : vertices) {
+				int i = v.getId();
+				if (i >= 0 && i < this.vertices.size()
+						&& this.vertices.get(i) == v) {
+					this.vertices.set(i, null);
+					v.markRemoved();
+					this.numRemovedVertex++;
+					if (this.columns != null) {
+						for (PropertyColumn column : this.columns.values()) {
+							column.clear(i);
+						}
+					}
+				}
+			}
+		} finally {
+			this.endWrite();
+		}
 	}
 
 	/**
-	 * Remove a set of arcs.
+	 * Remove a set of arcs. Each removal takes O(1): the slot of the arc is
+	 * left empty so the ids of the other arcs do not change. The removed arc
+	 * keeps its id and {@link Arc#isRemoved()} tells it apart.
 	 * 
 	 * @param arcsRemoved
 	 *            the set of arcs to be removed.
 	 */
 	public void removeArcs(HashSet<Arc<T>> arcsRemoved) {
-		this.arcs.removeAll(arcsRemoved);
+		this.beginWrite();
+		try {
+			for (Arc<T> arc : arcsRemoved) {
+				int i = arc.getId();
+				if (i >= 0 && i < this.arcs.size() && this.arcs.get(i) == arc) {
+					this.arcs.set(i, null);
+					arc.markRemoved();
+				}
+			}
+		} finally {
+			this.endWrite();
+		}
+	}
+
+	/**
+	 * Drop the slots left by removed vertices and arcs, renumbering the
+	 * remaining ones in a single linear pass. Their relative order is kept.
+	 * The arcs linked to removed vertices are dropped too, and unlinked from
+	 * the remaining vertices.
+	 * 
+	 * @return the new id of every vertex indexed by its old id, -1 for the
+	 *         slots of removed vertices.
+	 * @throws IllegalStateException
+	 *             if a snapshot of this graph is open, since it reads the old
+	 *             ids.
+	 */
+	public int[] compact() {
+		this.beginWrite();
+		try {
+			if (this.isSnapshotOpen(0))
+				throw new IllegalStateException(
+						"Cannot compact a graph with open snapshots.");
+			return this.compactSlots();
+		} finally {
+			this.endWrite();
+		}
+	}
+
+	/**
+	 * Drop the slots left by removed vertices and arcs, and the arcs linked to
+	 * removed vertices.
+	 * 
+	 * @return the new id of every vertex indexed by its old id.
+	 */
+	private int[] compactSlots() {
+		// drop the arcs linked to removed vertices, which keep them reachable.
+		for (int i = 0; i < this.vertices.size(); i++) {
+			Vertex<T> v = this.vertices.get(i);
+			if (v != null)
+				v.unlinkRemovedNeighbors();
+		}
+		for (int i = 0; i < this.arcs.size(); i++) {
+			Arc<T> arc = this.arcs.get(i);
+			if (arc != null && (isRemoved(arc.getSource())
+					|| isRemoved(arc.getTarget()))) {
+				this.arcs.set(i, null);
+				arc.markRemoved();
+			}
+		}
+
+		int[] newIds = new int[this.vertices.size()];
+		int live = 0;
+		for (int i = 0; i < newIds.length; i++) {
+			Vertex<T> v = this.vertices.get(i);
+			if (v == null) {
+				newIds[i] = -1;
+			} else {
+				newIds[i] = live;
+				v.setId(live);
+				this.vertices.set(live++, v);
+			}
+		}
+		this.vertices.subList(live, newIds.length).clear();
+		this.numRemovedVertex = 0;
+
+		int liveArcs = 0;
+		for (int i = 0; i < this.arcs.size(); i++) {
+			Arc<T> arc = this.arcs.get(i);
+			if (arc != null) {
+				arc.setId(liveArcs);
+				this.arcs.set(liveArcs++, arc);
+			}
+		}
+		this.arcs.subList(liveArcs, this.arcs.size()).clear();
+
+		if (this.columns != null) {
+			for (PropertyColumn column : this.columns.values()) {
+				column.compact(newIds);
+			}
+		}
+
+		if (this.adjacencyIndex != null) {
+			this.adjacencyIndex = new AdjacencyIndex();
+			this.buildAdjacencyIndex();
+		}
+		return newIds;
+	}
+
+	/**
+	 * Check if a vertex linked to an arc was removed.
+	 */
+	private static boolean isRemoved(Vertex<?> v) {
+		return v != null && v.isRemoved();
 	}
 
 	/**
@@ -196,4 +1097,63 @@ public class Graph<T> {
 	public Vertex<T> getRoot() {
 		return this.rootVertex;
 	}
+
+	/**
+	 * A vertex removed while snapshots were open.
+	 */
+	private static class RemovedVertex<T> {
+		private final Vertex<T> vertex;
+
+		/**
+		 * The epoch of the removal. Snapshots of earlier epochs still see the
+		 * vertex.
+		 */
+		private final long epoch;
+
+		public RemovedVertex(Vertex<T> vertex, long epoch) {
+			this.vertex = vertex;
+			this.epoch = epoch;
+		}
+	}
+
+	/**
+	 * Iterates over a list skipping its null slots. Elements appended while
+	 * iterating are also returned.
+	 */
+	private static class LiveIterator<E> implements Iterator<E> {
+		/**
+		 * The list being iterated.
+		 */
+		private final List<E> list;
+
+		/**
+		 * The index of the next non null slot.
+		 */
+		private int next;
+
+		public LiveIterator(List<E> list) {
+			this.list = list;
+			this.skipRemoved();
+		}
+
+		public boolean hasNext() {
+			this.skipRemoved();
+			return this.next < this.list.size();
+		}
+
+		public E next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			return this.list.get(this.next++);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private void skipRemoved() {
+			while (this.next < this.list.size() && this.list.get(this.next) == null)
+				this.next++;
+		}
+	}
 }
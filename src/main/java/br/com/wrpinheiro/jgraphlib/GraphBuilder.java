@@ -0,0 +1,373 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds a graph from batches of arcs given as arrays of source and target
+ * vertex ids. Arcs are kept in primitive arrays until the graph is built, and
+ * the graph is then created in one pass with every list already at its final
+ * size.
+ *
+ * The vertices are the ids 0 to numVertex - 1. The output arcs of a vertex
+ * keep the order they were added, unless duplicated arcs are removed, in which
+ * case they are sorted by target id. Sorting and removing duplicates is split
+ * by vertex ranges over a ForkJoinPool.
+ *
+ * @author wrp
+ */
+public class GraphBuilder<T> {
+	/**
+	 * Below this number of arcs a vertex range is sorted by a single thread.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+	/**
+	 * The number of vertices of the graph.
+	 */
+	private int numVertex;
+
+	/**
+	 * The source vertex of every arc added.
+	 */
+	private int[] sources;
+
+	/**
+	 * The target vertex of every arc added.
+	 */
+	private int[] targets;
+
+	/**
+	 * The label of every arc added.
+	 */
+	private Object[] labels;
+
+	/**
+	 * The number of arcs added.
+	 */
+	private int numArcs;
+
+	/**
+	 * Remove arcs with the same source, target and label.
+	 */
+	private boolean deduplicate;
+
+	/**
+	 * The number of threads used to sort and remove duplicated arcs.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Creates a builder for a graph with a known number of vertices.
+	 *
+	 * @param numVertex
+	 *            the number of vertices of the graph.
+	 * @param expectedArcs
+	 *            the expected number of arcs, used to size the buffers.
+	 */
+	public GraphBuilder(int numVertex, int expectedArcs) {
+		this.numVertex = numVertex;
+		this.sources = new int[Math.max(expectedArcs, 1)];
+		this.targets = new int[this.sources.length];
+		this.labels = new Object[this.sources.length];
+	}
+
+	/**
+	 * Grow the number of vertices of the graph. It is never reduced, so this
+	 * can be called whenever a larger vertex id is found.
+	 *
+	 * @param numVertex
+	 *            the minimum number of vertices of the graph.
+	 */
+	public void ensureNumVertex(int numVertex) {
+		this.numVertex = Math.max(this.numVertex, numVertex);
+	}
+
+	/**
+	 * Return the number of vertices of the graph.
+	 *
+	 * @return the number of vertices.
+	 */
+	public int getNumVertex() {
+		return this.numVertex;
+	}
+
+	/**
+	 * Set whether arcs with the same source, target and label are added only
+	 * once. Disabled by default.
+	 *
+	 * @param deduplicate
+	 *            TRUE to remove duplicated arcs.
+	 */
+	public void setDeduplicate(boolean deduplicate) {
+		this.deduplicate = deduplicate;
+	}
+
+	/**
+	 * Set the number of threads used to sort and remove duplicated arcs. The
+	 * default is the number of available processors.
+	 *
+	 * @param parallelism
+	 *            the number of threads.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Add a batch of arcs. The arrays are copied, so they can be reused.
+	 *
+	 * @param sources
+	 *            the source vertex id of every arc.
+	 * @param targets
+	 *            the target vertex id of every arc.
+	 * @param labels
+	 *            the label of every arc, or null for unlabeled arcs.
+	 * @param length
+	 *            the number of arcs in the batch.
+	 * @throws InvalidVertexException
+	 *             if an id is not a vertex of the graph.
+	 */
+	public void addArcs(int[] sources, int[] targets, T[] labels, int length) {
+		for (int i = 0; i < length; i++) {
+			if (sources[i] < 0 || sources[i] >= this.numVertex
+					|| targets[i] < 0 || targets[i] >= this.numVertex)
+				throw new InvalidVertexException();
+		}
+
+		this.ensureCapacity(this.numArcs + length);
+		System.arraycopy(sources, 0, this.sources, this.numArcs, length);
+		System.arraycopy(targets, 0, this.targets, this.numArcs, length);
+		if (labels != null)
+			System.arraycopy(labels, 0, this.labels, this.numArcs, length);
+		this.numArcs += length;
+	}
+
+	/**
+	 * Add a batch of arcs. The arrays are copied, so they can be reused.
+	 *
+	 * @param sources
+	 *            the source vertex id of every arc.
+	 * @param targets
+	 *            the target vertex id of every arc.
+	 * @param labels
+	 *            the label of every arc, or null for unlabeled arcs.
+	 * @throws InvalidVertexException
+	 *             if an id is not a vertex of the graph.
+	 */
+	public void addArcs(int[] sources, int[] targets, T[] labels) {
+		this.addArcs(sources, targets, labels, sources.length);
+	}
+
+	/**
+	 * Return the number of arcs added so far.
+	 *
+	 * @return the number of arcs added.
+	 */
+	public int getNumArc() {
+		return this.numArcs;
+	}
+
+	/**
+	 * Build a read-only CSR graph with the arcs added.
+	 *
+	 * @return the frozen graph.
+	 */
+	public FrozenGraph<T> toFrozenGraph() {
+		int[] offsets = new int[this.numVertex + 1];
+		int[] order = this.order(offsets);
+
+		int[] outTargets = new int[order.length];
+		Object[] outLabels = new Object[order.length];
+		for (int p = 0; p < order.length; p++) {
+			outTargets[p] = this.targets[order[p]];
+			outLabels[p] = this.labels[order[p]];
+		}
+
+		return new FrozenGraph<T>(this.numVertex, offsets, outTargets, outLabels);
+	}
+
+	/**
+	 * Build a graph with the arcs added. Vertex v of the graph has id v.
+	 *
+	 * @return the graph.
+	 */
+	@SuppressWarnings("unchecked")
+	public Graph<T> toGraph() {
+		int[] offsets = new int[this.numVertex + 1];
+		int[] order = this.order(offsets);
+
+		int[] inDegree = new int[this.numVertex];
+		for (int p = 0; p < order.length; p++) {
+			inDegree[this.targets[order[p]]]++;
+		}
+
+		Graph<T> g = new Graph<T>();
+		g.ensureCapacity(this.numVertex, order.length);
+		for (int v = 0; v < this.numVertex; v++) {
+			new Vertex<T>(g, inDegree[v], offsets[v + 1] - offsets[v]);
+		}
+		for (int v = 0; v < this.numVertex; v++) {
+			Vertex<T> source = g.getVertex(v);
+			for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+				new Arc<T>(g, source, g.getVertex(this.targets[order[p]]),
+						(T) this.labels[order[p]]);
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Group the arcs by source vertex, sorting and removing duplicates when
+	 * requested.
+	 *
+	 * @param offsets
+	 *            filled with where the arcs of each vertex start.
+	 * @return the index of the arcs added, in their final order.
+	 */
+	private int[] order(int[] offsets) {
+		for (int i = 0; i < this.numArcs; i++) {
+			offsets[this.sources[i] + 1]++;
+		}
+		for (int v = 0; v < this.numVertex; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		// a stable counting sort by source vertex.
+		int[] order = new int[this.numArcs];
+		int[] next = Arrays.copyOf(offsets, this.numVertex);
+		for (int i = 0; i < this.numArcs; i++) {
+			order[next[this.sources[i]]++] = i;
+		}
+
+		if (!this.deduplicate)
+			return order;
+
+		boolean[] keep = new boolean[this.numArcs];
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			pool.invoke(new DeduplicateTask(offsets, order, keep, 0,
+					this.numVertex));
+		} finally {
+			pool.shutdown();
+		}
+
+		int kept = 0;
+		for (int v = 0; v < this.numVertex; v++) {
+			int start = offsets[v];
+			offsets[v] = kept;
+			for (int p = start; p < offsets[v + 1]; p++) {
+				if (keep[p])
+					order[kept++] = order[p];
+			}
+		}
+		offsets[this.numVertex] = kept;
+		return Arrays.copyOf(order, kept);
+	}
+
+	/**
+	 * Grow the buffers to hold at least a number of arcs.
+	 *
+	 * @param capacity
+	 *            the number of arcs.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= this.sources.length)
+			return;
+
+		int newCapacity = Math.max(capacity, this.sources.length * 2);
+		this.sources = Arrays.copyOf(this.sources, newCapacity);
+		this.targets = Arrays.copyOf(this.targets, newCapacity);
+		this.labels = Arrays.copyOf(this.labels, newCapacity);
+	}
+
+	/**
+	 * Sorts the arcs of a range of vertices by target and marks the ones to
+	 * keep. Ranges with many arcs are split in two halves run in parallel.
+	 */
+	private class DeduplicateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] offsets;
+		private final int[] order;
+		private final boolean[] keep;
+		private final int from;
+		private final int to;
+
+		public DeduplicateTask(int[] offsets, int[] order, boolean[] keep,
+				int from, int to) {
+			this.offsets = offsets;
+			this.order = order;
+			this.keep = keep;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > 1
+					&& this.offsets[this.to] - this.offsets[this.from] > SEQUENTIAL_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new DeduplicateTask(this.offsets, this.order,
+						this.keep, this.from, middle), new DeduplicateTask(
+						this.offsets, this.order, this.keep, middle, this.to));
+				return;
+			}
+
+			long[] keys = new long[0];
+			for (int v = this.from; v < this.to; v++) {
+				int start = this.offsets[v];
+				int length = this.offsets[v + 1] - start;
+				if (keys.length < length)
+					keys = new long[length];
+
+				// the arc index breaks ties, so the sort is stable.
+				for (int i = 0; i < length; i++) {
+					int arc = this.order[start + i];
+					keys[i] = ((long) GraphBuilder.this.targets[arc] << 32) | arc;
+				}
+				Arrays.sort(keys, 0, length);
+
+				int run = start;
+				for (int i = 0; i < length; i++) {
+					int p = start + i;
+					this.order[p] = (int) keys[i];
+					if (i > 0 && (keys[i] >>> 32) != (keys[i - 1] >>> 32))
+						run = p;
+					this.keep[p] = !this.seenInRun(run, p);
+				}
+			}
+		}
+
+		/**
+		 * Check if the label of the arc at position p was already kept between
+		 * positions run and p - 1, which link the same vertices.
+		 */
+		private boolean seenInRun(int run, int p) {
+			Object label = GraphBuilder.this.labels[this.order[p]];
+			for (int q = run; q < p; q++) {
+				Object other = GraphBuilder.this.labels[this.order[q]];
+				if (this.keep[q]
+						&& (label == null ? other == null : label.equals(other)))
+					return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.io.Closeable;
+
+/**
+ * An immutable view of a {@link Graph} as it was when {@link Graph#snapshot()}
+ * was called. The snapshot shares the arc lists of the vertices that did not
+ * change since then with the graph, and reads the copies kept by the vertices
+ * that did.
+ *
+ * The snapshot of a {@link ConcurrentGraph} may be read by several threads
+ * while the graph changes. A plain Graph is not thread-safe, so its snapshots
+ * must be taken by the thread changing it, and read by other threads only
+ * while it does not change. Close a snapshot when done so that the graph can
+ * drop the copies kept for it.
+ *
+ * @author wrp
+ */
+public class GraphSnapshot<T> implements IndexedGraph, Closeable {
+	/**
+	 * The graph of this snapshot.
+	 */
+	private final Graph<T> graph;
+
+	/**
+	 * The epoch of the graph seen by this snapshot.
+	 */
+	private final long epoch;
+
+	/**
+	 * The number of vertices of the graph when the snapshot was taken.
+	 */
+	private final int numVertex;
+
+	/**
+	 * TRUE once the snapshot is closed.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * @param graph
+	 *            the graph of this snapshot.
+	 * @param epoch
+	 *            the epoch seen by this snapshot.
+	 * @param numVertex
+	 *            the number of vertices of the graph.
+	 */
+	GraphSnapshot(Graph<T> graph, long epoch, int numVertex) {
+		this.graph = graph;
+		this.epoch = epoch;
+		this.numVertex = numVertex;
+	}
+
+	/**
+	 * Return the graph of this snapshot.
+	 *
+	 * @return the graph.
+	 */
+	public Graph<T> getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Return the vertex with an id as seen by this snapshot. It is the vertex
+	 * of the graph, which may have changed or been removed since then.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @return the vertex.
+	 * @throws InvalidVertexException
+	 *             if there was no such vertex when the snapshot was taken.
+	 */
+	public Vertex<T> getVertex(int v) {
+		Vertex<T> vertex = this.vertex(v);
+		if (vertex == null)
+			throw new InvalidVertexException();
+		return vertex;
+	}
+
+	/**
+	 * Return the vertex with an id as seen by this snapshot.
+	 *
+	 * @return the vertex or null if it was removed.
+	 * @throws InvalidVertexException
+	 *             if the id was not used when the snapshot was taken.
+	 */
+	private Vertex<T> vertex(int v) {
+		if (this.closed)
+			throw new IllegalStateException("The snapshot is closed.");
+		if (v < 0 || v >= this.numVertex)
+			throw new InvalidVertexException();
+		return this.graph.getVertexAt(v, this.epoch);
+	}
+
+	/**
+	 * Keep only the neighbours that existed when the snapshot was taken.
+	 */
+	private int neighbor(int w) {
+		return w < this.numVertex ? w : -1;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.numVertex;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && v < this.numVertex && this.vertex(v) != null;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		Vertex<T> vertex = this.vertex(v);
+		return vertex == null ? 0 : vertex.readAt(this.epoch, true, -1);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		Vertex<T> vertex = this.vertex(v);
+		if (vertex == null)
+			throw new InvalidVertexException();
+		return this.neighbor(vertex.readAt(this.epoch, true, i));
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		Vertex<T> vertex = this.vertex(v);
+		return vertex == null ? 0 : vertex.readAt(this.epoch, false, -1);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		Vertex<T> vertex = this.vertex(v);
+		if (vertex == null)
+			throw new InvalidVertexException();
+		return this.neighbor(vertex.readAt(this.epoch, false, i));
+	}
+
+	/**
+	 * Check if this snapshot was closed.
+	 *
+	 * @return TRUE if it was closed.
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * Close this snapshot, letting the graph drop the copies kept for it.
+	 * Closing it again does nothing.
+	 */
+	public void close() {
+		synchronized (this) {
+			if (this.closed)
+				return;
+			this.closed = true;
+		}
+		this.graph.releaseSnapshot(this.epoch);
+	}
+}
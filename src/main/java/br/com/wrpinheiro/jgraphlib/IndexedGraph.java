@@ -0,0 +1,88 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+/**
+ * A directed graph seen only through the integer ids of its vertices. Ids
+ * range from 0 to getNumVertex() - 1 and the adjacency of every vertex is
+ * accessed by position, so traversals can run without creating any object.
+ * A negative neighbour id stands for an arc that does not lead to a vertex of
+ * the graph and must be skipped.
+ *
+ * @author wrp
+ */
+public interface IndexedGraph {
+	/**
+	 * Return the number of vertices of this graph. Every vertex id is lower
+	 * than this number.
+	 *
+	 * @return the number of vertices of this graph.
+	 */
+	public abstract int getNumVertex();
+
+	/**
+	 * Check if a vertex id belongs to a vertex of this graph. Some graphs have
+	 * ids lower than getNumVertex() that stand for no vertex, like the slots
+	 * of removed vertices.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @return TRUE if v is a vertex of this graph or FALSE otherwise.
+	 */
+	public abstract boolean containsVertex(int v);
+
+	/**
+	 * Return the number of output arcs of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @return the number of output arcs of v.
+	 */
+	public abstract int getOutDegree(int v);
+
+	/**
+	 * Return the id of the target vertex of the ith output arc of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc, from 0 to getOutDegree(v) - 1.
+	 * @return the id of the target vertex or a negative number if there is
+	 *         none.
+	 */
+	public abstract int getOutNeighbor(int v, int i);
+
+	/**
+	 * Return the number of input arcs of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @return the number of input arcs of v.
+	 */
+	public abstract int getInDegree(int v);
+
+	/**
+	 * Return the id of the source vertex of the ith input arc of a vertex.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc, from 0 to getInDegree(v) - 1.
+	 * @return the id of the source vertex or a negative number if there is
+	 *         none.
+	 */
+	public abstract int getInNeighbor(int v, int i);
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each distinct arc label of a graph to an int code, from 0 up in the
+ * order the labels are first seen. Arcs of a graph with a dictionary keep the
+ * code of their label and share a single instance of each label, so equal
+ * labels are compared by code.
+ *
+ * Labels are compared with equals() and hashCode(), so they must not change
+ * while in the dictionary. The null label has no code. Codes are never
+ * removed, not even when no arc uses them anymore.
+ *
+ * @author wrp
+ */
+public class LabelDictionary<T> {
+	/**
+	 * The code of each label.
+	 */
+	private final ConcurrentHashMap<T, Integer> codes = new ConcurrentHashMap<T, Integer>();
+
+	/**
+	 * The labels indexed by code.
+	 */
+	private final ConcurrentReadList<T> labels = new ConcurrentReadList<T>();
+
+	/**
+	 * Return the code of a label, giving it the next code if it has none.
+	 * 
+	 * @param label
+	 *            the label.
+	 * @return the code of the label, or -1 if it is null.
+	 */
+	public int encode(T label) {
+		if (label == null)
+			return -1;
+
+		Integer code = this.codes.get(label);
+		if (code != null)
+			return code;
+
+		synchronized (this.labels) {
+			code = this.codes.get(label);
+			if (code == null) {
+				code = this.labels.size();
+				this.labels.add(label);
+				this.codes.put(label, code);
+			}
+			return code;
+		}
+	}
+
+	/**
+	 * Return the code of a label without adding it.
+	 * 
+	 * @param label
+	 *            the label.
+	 * @return the code of the label, or -1 if it is null or has no code.
+	 */
+	public int getCode(T label) {
+		if (label == null)
+			return -1;
+		Integer code = this.codes.get(label);
+		return code == null ? -1 : code;
+	}
+
+	/**
+	 * Return the label of a code.
+	 * 
+	 * @param code
+	 *            the code.
+	 * @return the label, or null if the code is -1.
+	 * @throws IndexOutOfBoundsException
+	 *             if no label has the code.
+	 */
+	public T decode(int code) {
+		return code == -1 ? null : this.labels.get(code);
+	}
+
+	/**
+	 * Return the number of labels with a code.
+	 * 
+	 * @return the number of labels.
+	 */
+	public int size() {
+		return this.labels.size();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+import java.util.Arrays;
+
+/**
+ * A column of long vertex properties.
+ * 
+ * @author wrp
+ */
+public class LongColumn extends PropertyColumn {
+	/**
+	 * The value of the vertices without one.
+	 */
+	private final long defaultValue;
+
+	/**
+	 * The values indexed by vertex id. Ids past its end have the default value.
+	 */
+	private long[] values = new long[0];
+
+	/**
+	 * @param name
+	 *            the name of this column.
+	 * @param defaultValue
+	 *            the value of the vertices without one.
+	 */
+	LongColumn(String name, long defaultValue) {
+		super(name);
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * Return the value of the vertices without one.
+	 * 
+	 * @return the default value.
+	 */
+	public long getDefaultValue() {
+		return this.defaultValue;
+	}
+
+	/**
+	 * Return the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return the value, or the default value if none was set.
+	 * @throws InvalidVertexException
+	 *             if the id is negative.
+	 */
+	public long get(int v) {
+		checkId(v);
+		return v < this.values.length ? this.values[v] : this.defaultValue;
+	}
+
+	/**
+	 * Return the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 * @return the value, or the default value if none was set.
+	 * @throws InvalidVertexException
+	 *             if the vertex was removed.
+	 */
+	public long get(Vertex<?> v) {
+		return this.get(idOf(v));
+	}
+
+	/**
+	 * Set the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @param value
+	 *            the new value.
+	 * @throws InvalidVertexException
+	 *             if the id is negative.
+	 */
+	public void set(int v, long value) {
+		checkId(v);
+		if (v >= this.values.length) {
+			int length = this.values.length;
+			this.values = Arrays.copyOf(this.values, grow(length, v));
+			Arrays.fill(this.values, length, this.values.length,
+					this.defaultValue);
+		}
+		this.values[v] = value;
+	}
+
+	/**
+	 * Set the value of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 * @param value
+	 *            the new value.
+	 * @throws InvalidVertexException
+	 *             if the vertex was removed.
+	 */
+	public void set(Vertex<?> v, long value) {
+		this.set(idOf(v), value);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.PropertyColumn#clear(int)
+	 */
+	@Override
+	void clear(int v) {
+		if (v >= 0 && v < this.values.length)
+			this.values[v] = this.defaultValue;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.PropertyColumn#compact(int[])
+	 */
+	@Override
+	void compact(int[] newIds) {
+		int n = Math.min(newIds.length, this.values.length);
+		int length = 0;
+		for (int i = 0; i < n; i++) {
+			if (newIds[i] >= 0)
+				length = newIds[i] + 1;
+		}
+
+		long[] moved = new long[length];
+		for (int i = 0; i < n; i++) {
+			if (newIds[i] >= 0)
+				moved[newIds[i]] = this.values[i];
+		}
+		this.values = moved;
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+/**
+ * A vertex property stored for all the vertices of a graph at once, indexed
+ * by vertex id. Columns are created by the graph, e.g. with
+ * {@link Graph#getIntColumn(String)}, and keep their values in a single array
+ * so reading a property costs an array access instead of a map lookup.
+ * Vertices that never had a value read the default value of the column.
+ *
+ * The values follow the vertices when the graph is compacted, and the value
+ * of a removed vertex is cleared. Columns are not guarded, not even in a
+ * {@link ConcurrentGraph}.
+ *
+ * @author wrp
+ */
+public abstract class PropertyColumn {
+	/**
+	 * The name of this column.
+	 */
+	private final String name;
+
+	/**
+	 * @param name
+	 *            the name of this column.
+	 */
+	PropertyColumn(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Return the name of this column.
+	 * 
+	 * @return the name.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Check a vertex id used to read or write a value.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @throws InvalidVertexException
+	 *             if the id is negative.
+	 */
+	static void checkId(int v) {
+		if (v < 0)
+			throw new InvalidVertexException();
+	}
+
+	/**
+	 * Return the id of a vertex used to read or write a value.
+	 * 
+	 * @param v
+	 *            the vertex.
+	 * @return the id of the vertex.
+	 * @throws InvalidVertexException
+	 *             if the vertex was removed.
+	 */
+	static int idOf(Vertex<?> v) {
+		if (v.isRemoved())
+			throw new InvalidVertexException();
+		return v.getId();
+	}
+
+	/**
+	 * Return the new length of an array that must hold an id.
+	 * 
+	 * @param length
+	 *            the current length.
+	 * @param v
+	 *            the id.
+	 * @return the new length, doubling the current one when possible.
+	 */
+	static int grow(int length, int v) {
+		return Math.max(v + 1, Math.max(4, length * 2));
+	}
+
+	/**
+	 * Set the value of a vertex back to the default one.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 */
+	abstract void clear(int v);
+
+	/**
+	 * Move the values along with the vertices renumbered by a compaction.
+	 * 
+	 * @param newIds
+	 *            the new id of every vertex indexed by its old id, -1 for
+	 *            the removed ones.
+	 */
+	abstract void compact(int[] newIds);
+}
@@ -16,6 +16,7 @@
 package br.com.wrpinheiro.jgraphlib;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -37,12 +38,12 @@ public class Vertex<T> {
 	/**
 	 * A list of input arcs.
 	 */
-	private List<Arc<T>> inArcs = new ArrayList<Arc<T>>();
+	private final List<Arc<T>> inArcs;
 
 	/**
 	 * A list of output arcs.
 	 */
-	private List<Arc<T>> outArcs = new ArrayList<Arc<T>>();
+	private final List<Arc<T>> outArcs;
 
 	/**
 	 * This is a set of label on the arcs from a root vertex until this vertex.
@@ -60,12 +61,30 @@ public class Vertex<T> {
 	 * The id of this vertex. Every vertex must have an unique id for graph, set
 	 * when this vertex is added to a graph.
 	 */
-	private int id;
+	private volatile int id;
 
 	/**
-	 * A map of properties for this node.
+	 * Set when this vertex is removed from its graph. The id is kept, so a
+	 * removed vertex is still found in the sets holding it.
 	 */
-	private Map<String, Object> property = new HashMap<String, Object>();
+	private volatile boolean removed;
+
+	/**
+	 * The epoch of the graph in which the arcs of this vertex were last
+	 * written.
+	 */
+	private volatile long modifiedEpoch;
+
+	/**
+	 * Older versions of the neighbours of this vertex kept for open
+	 * snapshots, from the newest to the oldest.
+	 */
+	private volatile VertexVersion versions;
+
+	/**
+	 * A map of properties for this node. It is null until a property is set.
+	 */
+	private Map<String, Object> property;
 
 	/**
 	 * Creates vertex and add it to the graph G.
@@ -74,7 +93,25 @@ public class Vertex<T> {
 	 *            the graph of this vertex.
 	 */
 	public Vertex(Graph<T> g) {
+		this(g, 0, 0);
+	}
+
+	/**
+	 * Creates vertex with room for a known number of arcs and add it to the
+	 * graph G.
+	 * 
+	 * @param g
+	 *            the graph of this vertex.
+	 * @param inCapacity
+	 *            the expected number of input arcs.
+	 * @param outCapacity
+	 *            the expected number of output arcs.
+	 */
+	Vertex(Graph<T> g, int inCapacity, int outCapacity) {
 		this.graph = g;
+		this.inArcs = g.newArcList(inCapacity);
+		this.outArcs = g.newArcList(outCapacity);
+		this.modifiedEpoch = g.getEpoch();
 		g.addVertex(this);
 	}
 
@@ -87,6 +124,25 @@ public class Vertex<T> {
 		return id;
 	}
 
+	/**
+	 * Check if this vertex was removed from its graph. A removed vertex keeps
+	 * its id until the graph is compacted, but it is no longer reported as a
+	 * neighbour.
+	 * 
+	 * @return TRUE if this vertex was removed.
+	 * @see Graph#removeVertices(java.util.Set)
+	 */
+	public boolean isRemoved() {
+		return this.removed;
+	}
+
+	/**
+	 * Mark this vertex as removed from its graph.
+	 */
+	void markRemoved() {
+		this.removed = true;
+	}
+
 	/**
 	 * Return the label of this vertex.
 	 * 
@@ -113,7 +169,15 @@ public class Vertex<T> {
 	 *            the input arc.
 	 */
 	public void addInArc(Arc<T> arc) {
-		this.inArcs.add(arc);
+		this.graph.beginWrite();
+		this.graph.lockAdjacency(this);
+		try {
+			this.beginWrite(this.graph.getEpoch());
+			this.inArcs.add(arc);
+		} finally {
+			this.graph.unlockAdjacency(this);
+			this.graph.endWrite();
+		}
 	}
 
 	/**
@@ -123,7 +187,15 @@ public class Vertex<T> {
 	 *            the output arc.
 	 */
 	public void addOutArc(Arc<T> arc) {
-		this.outArcs.add(arc);
+		this.graph.beginWrite();
+		this.graph.lockAdjacency(this);
+		try {
+			this.beginWrite(this.graph.getEpoch());
+			this.outArcs.add(arc);
+		} finally {
+			this.graph.unlockAdjacency(this);
+			this.graph.endWrite();
+		}
 	}
 
 	/**
@@ -132,7 +204,12 @@ public class Vertex<T> {
 	 * @return the list of input arcs of this vertex.
 	 */
 	public List<Arc<T>> getInArcs() {
-		return new ArrayList<Arc<T>>(this.inArcs);
+		this.graph.lockAdjacency(this);
+		try {
+			return new ArrayList<Arc<T>>(this.inArcs);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
 	}
 
 	/**
@@ -141,7 +218,161 @@ public class Vertex<T> {
 	 * @return the list of output arcs of this vertex.
 	 */
 	public List<Arc<T>> getOutArcs() {
-		return new ArrayList<Arc<T>>(this.outArcs);
+		this.graph.lockAdjacency(this);
+		try {
+			return new ArrayList<Arc<T>>(this.outArcs);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Get an unmodifiable live view of the input arcs of this vertex. Unlike
+	 * {@link #getInArcs()} nothing is copied, and later changes to the arcs
+	 * of this vertex are seen through the view. The view is not guarded by
+	 * the locks of a {@link ConcurrentGraph}; use getInArcs() there.
+	 * 
+	 * @return a view of the input arcs of this vertex.
+	 */
+	public List<Arc<T>> getInArcsView() {
+		return Collections.unmodifiableList(this.inArcs);
+	}
+
+	/**
+	 * Get an unmodifiable live view of the output arcs of this vertex. Unlike
+	 * {@link #getOutArcs()} nothing is copied, and later changes to the arcs
+	 * of this vertex are seen through the view. The view is not guarded by
+	 * the locks of a {@link ConcurrentGraph}; use getOutArcs() there.
+	 * 
+	 * @return a view of the output arcs of this vertex.
+	 */
+	public List<Arc<T>> getOutArcsView() {
+		return Collections.unmodifiableList(this.outArcs);
+	}
+
+	/**
+	 * Return the number of input arcs of this vertex.
+	 * 
+	 * @return the number of input arcs.
+	 */
+	public int getInDegree() {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.inArcs.size();
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the number of output arcs of this vertex.
+	 * 
+	 * @return the number of output arcs.
+	 */
+	public int getOutDegree() {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.outArcs.size();
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the ith input arc of this vertex.
+	 * 
+	 * @param i
+	 *            the arc position, from 0 to getInDegree() - 1.
+	 * @return the ith input arc.
+	 */
+	public Arc<T> getInArc(int i) {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.inArcs.get(i);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the ith output arc of this vertex.
+	 * 
+	 * @param i
+	 *            the arc position, from 0 to getOutDegree() - 1.
+	 * @return the ith output arc.
+	 */
+	public Arc<T> getOutArc(int i) {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.outArcs.get(i);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the id of the source vertex of the ith input arc.
+	 * 
+	 * @param i
+	 *            the arc position, from 0 to getInDegree() - 1.
+	 * @return the id of the source vertex or -1 if the arc has no source or
+	 *         it was removed.
+	 */
+	public int getInNeighborId(int i) {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.readNeighborId(false, i);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the id of the target vertex of the ith output arc.
+	 * 
+	 * @param i
+	 *            the arc position, from 0 to getOutDegree() - 1.
+	 * @return the id of the target vertex or -1 if the arc has no target or
+	 *         it was removed.
+	 */
+	public int getOutNeighborId(int i) {
+		this.graph.lockAdjacency(this);
+		try {
+			return this.readNeighborId(true, i);
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Return the number of input or output arcs of this vertex without taking
+	 * its lock. Readers of a {@link ConcurrentGraph} calling it must validate
+	 * what they read.
+	 * 
+	 * @param out
+	 *            TRUE for the output arcs or FALSE for the input ones.
+	 * @return the number of arcs.
+	 */
+	int readDegree(boolean out) {
+		return out ? this.outArcs.size() : this.inArcs.size();
+	}
+
+	/**
+	 * Return the id of the vertex at the other end of an input or output arc
+	 * of this vertex without taking its lock. Readers of a
+	 * {@link ConcurrentGraph} calling it must validate what they read.
+	 * 
+	 * @param out
+	 *            TRUE for the output arcs or FALSE for the input ones.
+	 * @param i
+	 *            the arc position.
+	 * @return the id of the vertex or -1 if the arc has no such vertex or it
+	 *         was removed.
+	 */
+	int readNeighborId(boolean out, int i) {
+		Vertex<T> w = out ? this.outArcs.get(i).getTarget() : this.inArcs.get(
+				i).getSource();
+		return w == null || w.removed ? -1 : w.id;
 	}
 
 	/**
@@ -151,7 +382,8 @@ public class Vertex<T> {
 	 *            the input arc to be removed.
 	 */
 	public void removeInArc(Arc<T> arc) {
-		this.inArcs.remove(arc);
+		if (arc.getTarget() != this)
+			this.internalRemoveInArc(arc);
 		arc.setTarget(null);
 	}
 	
@@ -163,7 +395,15 @@ public class Vertex<T> {
 	 *            the output arc to be removed
 	 */
 	void internalRemoveInArc(Arc<T> arc) {
-		this.inArcs.remove(arc);
+		this.graph.beginWrite();
+		this.graph.lockAdjacency(this);
+		try {
+			this.beginWrite(this.graph.getEpoch());
+			this.inArcs.remove(arc);
+		} finally {
+			this.graph.unlockAdjacency(this);
+			this.graph.endWrite();
+		}
 	}
 
 	/**
@@ -173,7 +413,8 @@ public class Vertex<T> {
 	 *            the output arc to be removed.
 	 */
 	public void removeOutArc(Arc<T> arc) {
-		this.outArcs.remove(arc);
+		if (arc.getSource() != this)
+			this.internalRemoveOutArc(arc);
 		arc.setSource(null);
 	}
 
@@ -185,7 +426,166 @@ public class Vertex<T> {
 	 *            the output arc to be removed
 	 */
 	void internalRemoveOutArc(Arc<T> arc) {
-		this.outArcs.remove(arc);
+		this.graph.beginWrite();
+		this.graph.lockAdjacency(this);
+		try {
+			this.beginWrite(this.graph.getEpoch());
+			this.outArcs.remove(arc);
+		} finally {
+			this.graph.unlockAdjacency(this);
+			this.graph.endWrite();
+		}
+	}
+
+	/**
+	 * Start a write to the arcs of this vertex as part of a change made in an
+	 * epoch of the graph. The first write in an epoch keeps a copy of the
+	 * current neighbours if an open snapshot may read them. Must be called
+	 * inside {@link Graph#beginWrite()} holding the lock of this vertex, with
+	 * the epoch read after Graph#beginWrite(), so that no snapshot is taken
+	 * between reading the epoch and changing the arcs.
+	 * 
+	 * @param epoch
+	 *            the epoch of the change.
+	 */
+	void beginWrite(long epoch) {
+		if (this.modifiedEpoch < epoch) {
+			if (this.graph.isSnapshotOpen(this.modifiedEpoch))
+				this.saveVersion(epoch);
+			else
+				this.modifiedEpoch = epoch;
+		}
+	}
+
+	/**
+	 * Keep a copy of the current neighbours for the open snapshots.
+	 * 
+	 * @param epoch
+	 *            the epoch of the change about to be made.
+	 */
+	private void saveVersion(long epoch) {
+		int[] out = new int[this.getOutDegree()];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = this.getOutNeighborId(i);
+		}
+		int[] in = new int[this.getInDegree()];
+		for (int i = 0; i < in.length; i++) {
+			in[i] = this.getInNeighborId(i);
+		}
+
+		synchronized (this) {
+			this.versions = new VertexVersion(this.modifiedEpoch, out, in,
+					this.versions);
+			this.modifiedEpoch = epoch;
+		}
+		this.graph.versionSaved(this);
+	}
+
+	/**
+	 * Drop the versions no open snapshot reads.
+	 * 
+	 * @return TRUE if some version is still kept.
+	 */
+	boolean pruneVersions() {
+		synchronized (this) {
+			long to = this.modifiedEpoch - 1;
+			VertexVersion last = null;
+			for (VertexVersion v = this.versions; v != null; v = v.next) {
+				if (this.graph.isVersionNeeded(v.epoch, to)) {
+					if (last == null)
+						this.versions = v;
+					else
+						last.next = v;
+					last = v;
+				}
+				to = v.epoch - 1;
+			}
+
+			if (last == null)
+				this.versions = null;
+			else
+				last.next = null;
+			return last != null;
+		}
+	}
+
+	/**
+	 * Mark the neighbours of this vertex as written, so that the open
+	 * snapshots keep their current ids. Called before this vertex is removed.
+	 * 
+	 * @param epoch
+	 *            the epoch of the removal.
+	 */
+	void touchNeighbors(long epoch) {
+		for (Arc<T> arc : this.getOutArcs()) {
+			touch(arc.getTarget(), epoch);
+		}
+		for (Arc<T> arc : this.getInArcs()) {
+			touch(arc.getSource(), epoch);
+		}
+	}
+
+	private static <T> void touch(Vertex<T> v, long epoch) {
+		if (v == null)
+			return;
+
+		v.graph.lockAdjacency(v);
+		try {
+			v.beginWrite(epoch);
+		} finally {
+			v.graph.unlockAdjacency(v);
+		}
+	}
+
+	/**
+	 * Read the degree or a neighbour of this vertex as seen at an epoch of
+	 * the graph, from the current arcs if they did not change since then or
+	 * from the kept versions otherwise.
+	 * 
+	 * @param epoch
+	 *            the epoch of a snapshot.
+	 * @param out
+	 *            TRUE to read the output arcs or FALSE for the input arcs.
+	 * @param i
+	 *            the position of the neighbour, or -1 to read the degree.
+	 * @return the degree or the id of the neighbour.
+	 */
+	int readAt(long epoch, boolean out, int i) {
+		for (;;) {
+			if (this.modifiedEpoch > epoch) {
+				int[] ids = out ? this.versionAt(epoch).outNeighbors : this
+						.versionAt(epoch).inNeighbors;
+				return i < 0 ? ids.length : ids[i];
+			}
+
+			// a write in a later epoch keeps a copy of the current neighbours
+			// and moves modifiedEpoch before changing them, so what was read
+			// is valid while modifiedEpoch did not move.
+			try {
+				int value;
+				if (out)
+					value = i < 0 ? this.getOutDegree() : this.getOutNeighborId(i);
+				else
+					value = i < 0 ? this.getInDegree() : this.getInNeighborId(i);
+				if (this.modifiedEpoch <= epoch)
+					return value;
+			} catch (RuntimeException e) {
+				if (this.modifiedEpoch <= epoch)
+					throw e;
+			}
+		}
+	}
+
+	/**
+	 * Return the version of the neighbours seen at an epoch.
+	 */
+	private VertexVersion versionAt(long epoch) {
+		for (VertexVersion v = this.versions; v != null; v = v.next) {
+			if (v.epoch <= epoch)
+				return v;
+		}
+		throw new IllegalStateException("No version of vertex " + this.id
+				+ " at epoch " + epoch + ".");
 	}
 
 	/**
@@ -199,18 +599,52 @@ public class Vertex<T> {
 
 	/**
 	 * Test if a vertex is adjacent of this vertex. An adjacent vertex is a
-	 * vertex linked by an output arc of this vertex.
+	 * vertex linked by an output arc of this vertex. When the graph has its
+	 * adjacency index enabled the test does not scan the output arcs.
 	 * 
 	 * @param other
 	 *            the vertex tested for adjacency.
 	 * @return TRUE if other is adjacent to this vertex or FALSE, otherwise.
 	 */
 	public boolean isAdjacent(Vertex<T> other) {
-		for (Iterator<Arc<T>> it = this.outArcs.iterator(); it.hasNext();) {
-			if (it.next().getTarget().equals(other))
-				return true;
+		if (this.graph.isAdjacencyIndexEnabled())
+			return this.graph.isIndexedAdjacent(this, other);
+
+		this.graph.lockAdjacency(this);
+		try {
+			for (Iterator<Arc<T>> it = this.outArcs.iterator(); it.hasNext();) {
+				Vertex<T> target = it.next().getTarget();
+				// arcs to removed vertices are kept until the graph is
+				// compacted, but no longer make them adjacent.
+				if (target != null && !target.removed && target.equals(other))
+					return true;
+			}
+			return false;
+		} finally {
+			this.graph.unlockAdjacency(this);
+		}
+	}
+
+	/**
+	 * Unlink the arcs from or to removed vertices, so that they can be
+	 * garbage collected. Used only when the graph is compacted.
+	 */
+	void unlinkRemovedNeighbors() {
+		unlinkRemoved(this.outArcs, true);
+		unlinkRemoved(this.inArcs, false);
+	}
+
+	private static <T> void unlinkRemoved(List<Arc<T>> arcs, boolean out) {
+		int kept = 0;
+		for (int i = 0; i < arcs.size(); i++) {
+			Arc<T> arc = arcs.get(i);
+			Vertex<T> w = out ? arc.getTarget() : arc.getSource();
+			if (w == null || !w.removed)
+				arcs.set(kept++, arc);
 		}
-		return false;
+		// removed from the end, so nothing is shifted.
+		for (int i = arcs.size() - 1; i >= kept; i--)
+			arcs.remove(i);
 	}
 
 	/**
@@ -256,7 +690,9 @@ public class Vertex<T> {
 		final Vertex<T> other = (Vertex<T>) obj;
 		if (!graph.equals(other.graph))
 			return false;
-		return this.id == other.id;
+		// a removed vertex keeps its id, which compact() may give to a live
+		// vertex.
+		return this.id == other.id && this.removed == other.removed;
 	}
 
 	/**
@@ -291,7 +727,8 @@ public class Vertex<T> {
 	}
 
 	/**
-	 * Set a property in this vertex.
+	 * Set a property in this vertex. A property set on many vertices is better
+	 * kept in a column of the graph, see {@link Graph#getIntColumn(String)}.
 	 * 
 	 * @param key
 	 *            the key for the property.
@@ -299,6 +736,8 @@ public class Vertex<T> {
 	 *            the value forthe property.
 	 */
 	public void setProperty(String key, Object value) {
+		if (this.property == null)
+			this.property = new HashMap<String, Object>();
 		this.property.put(key, value);
 	}
 
@@ -311,7 +750,7 @@ public class Vertex<T> {
 	 *         exist.
 	 */
 	public Object getProperty(String key) {
-		return this.property.get(key);
+		return this.property == null ? null : this.property.get(key);
 	}
 
 	/**
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib;
+
+/**
+ * A copy of the neighbours of a vertex, kept for the snapshots that saw them
+ * before the vertex changed. The versions of a vertex form a list from the
+ * newest to the oldest.
+ *
+ * @author wrp
+ */
+class VertexVersion {
+	/**
+	 * The epoch from which this version was the current one. It stopped being
+	 * current at the epoch of the next newer version.
+	 */
+	final long epoch;
+
+	/**
+	 * The ids of the output neighbours, -1 for arcs without a target.
+	 */
+	final int[] outNeighbors;
+
+	/**
+	 * The ids of the input neighbours, -1 for arcs without a source.
+	 */
+	final int[] inNeighbors;
+
+	/**
+	 * The next older version. Changed only to drop versions no snapshot
+	 * reads.
+	 */
+	volatile VertexVersion next;
+
+	/**
+	 * @param epoch
+	 *            the epoch from which this version was the current one.
+	 * @param outNeighbors
+	 *            the ids of the output neighbours.
+	 * @param inNeighbors
+	 *            the ids of the input neighbours.
+	 * @param next
+	 *            the next older version.
+	 */
+	VertexVersion(long epoch, int[] outNeighbors, int[] inNeighbors,
+			VertexVersion next) {
+		this.epoch = epoch;
+		this.outNeighbors = outNeighbors;
+		this.inNeighbors = inNeighbors;
+		this.next = next;
+	}
+}
@@ -16,6 +16,7 @@
 package br.com.wrpinheiro.jgraphlib.hittingset;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -23,6 +24,7 @@ import java.util.List;
 import java.util.Queue;
 
 import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.BooleanColumn;
 import br.com.wrpinheiro.jgraphlib.Graph;
 import br.com.wrpinheiro.jgraphlib.Vertex;
 import br.com.wrpinheiro.jgraphlib.familyset.ArrayFamilySet;
@@ -37,6 +39,11 @@ import br.com.wrpinheiro.jgraphlib.familyset.SetMaintainer;
  * @author wrp 02/02/2008
  */
 public class MinimalHittingSet<T> {
+	/**
+	 * The name of the column marking the nodes with an @ (AT).
+	 */
+	private static final String AT = "at";
+
 	/**
 	 * Find all the minimal hitting sets for the fs's family of sets.
 	 * 
@@ -50,6 +57,7 @@ public class MinimalHittingSet<T> {
 		SetMaintainer<T> Hs;
 
 		Graph<T> g = new Graph<T>();
+		BooleanColumn at = g.getBooleanColumn(AT);
 
 		Vertex<T> root = new Vertex<T>(g);
 		SetMaintainer<T> rootLabel = fs
@@ -89,7 +97,7 @@ public class MinimalHittingSet<T> {
 					SetMaintainer<T> SLinha = fs.findEmptyIntersection(Hs);
 
 					if (SLinha.size() == 0) {
-						this.markNodeWithAt(m);
+						this.markNodeWithAt(at, m);
 					} else {
 						m.setLabel(SLinha);
 						HashSet<Vertex<T>> vertexRemoved = new HashSet<Vertex<T>>();
@@ -108,13 +116,11 @@ public class MinimalHittingSet<T> {
 			}
 		}
 
-		Vertex<T> v;
 		FamilySet<T> result = new ArrayFamilySet<T>();
 
-		for (int i = 0; i < g.getNumVertex(); i++) {
-			v = g.getVertex(i);
+		for (Vertex<T> v : g.getVertices()) {
 			// if (v.getLabel().equals(AT))
-			if (this.checkMarkedWithAt(v))
+			if (this.checkMarkedWithAt(at, v))
 				result.add(v.getLabelsOnArcsFromRoot());
 		}
 
@@ -139,10 +145,13 @@ public class MinimalHittingSet<T> {
 		// setp P4'
 
 		boolean found = false;
+		BooleanColumn at = g.getBooleanColumn(AT);
 
-		for (int i = 0; !found && i < g.getNumVertex(); i++) {
-			Vertex<T> nDuasLinhas = g.getVertex(i);
-			if (!nDuasLinhas.equals(m) && !this.checkMarkedWithAt(nDuasLinhas)) {
+		for (Iterator<Vertex<T>> it = g.getVertices().iterator(); !found
+				&& it.hasNext();) {
+			Vertex<T> nDuasLinhas = it.next();
+			if (!nDuasLinhas.equals(m)
+					&& !this.checkMarkedWithAt(at, nDuasLinhas)) {
 				SetMaintainer<T> S1 = nDuasLinhas.getLabel();
 
 				if (S1.strictlyContains(m.getLabel())) {
@@ -159,17 +168,19 @@ public class MinimalHittingSet<T> {
 	private boolean findReusableVertex(Graph<T> g, SetMaintainer<T> Hs,
 			Queue<Vertex<T>> q, Arc<T> s_arco) {
 		boolean found = false;
+		BooleanColumn at = g.getBooleanColumn(AT);
 		Vertex<T> nLinha;
-		for (int i = 0; i < g.getNumVertex() && !found; i++) {
-			nLinha = g.getVertex(i);
+		for (Iterator<Vertex<T>> it = g.getVertices().iterator(); it.hasNext()
+				&& !found;) {
+			nLinha = it.next();
 			if (nLinha.getLabelsOnArcsFromRoot().equals(Hs)) { // step P1
 				s_arco.setTarget(nLinha);
 				found = true;
-			} else if (this.checkMarkedWithAt(nLinha) // step P2
+			} else if (this.checkMarkedWithAt(at, nLinha) // step P2
 					&& Hs.containsAll(nLinha.getLabelsOnArcsFromRoot())) {
 				s_arco.setTarget(null);
 				found = true;
-			} else if (!this.checkMarkedWithAt(nLinha)
+			} else if (!this.checkMarkedWithAt(at, nLinha)
 					&& nLinha.getLabel().isEmptyIntersection(Hs)) { // step P3
 				Vertex<T> newV = new Vertex<T>(g);
 				newV.setLabel(nLinha.getLabel().clone());
@@ -236,7 +247,7 @@ public class MinimalHittingSet<T> {
 	 * @param vertexRemoved
 	 * @param arcsRemoved
 	 */
-	private void removeArcsAndOrphanVertex(HashSet<Arc<T>> arcsToBeRemoved,
+	private void removeArcsAndOrphanVertex(Collection<Arc<T>> arcsToBeRemoved,
 			HashSet<Vertex<T>> vertexRemoved, HashSet<Arc<T>> arcsRemoved) {
 
 		Vertex<T> v;
@@ -249,10 +260,10 @@ public class MinimalHittingSet<T> {
 			if (v != null) {
 				v.removeInArc(arc);
 
-				if (v.getInArcs().size() == 0) {
+				if (v.getInDegree() == 0) {
 					vertexRemoved.add(v);
-					removeArcsAndOrphanVertex(new HashSet<Arc<T>>(v
-							.getOutArcs()), vertexRemoved, arcsRemoved);
+					removeArcsAndOrphanVertex(v.getOutArcsView(),
+							vertexRemoved, arcsRemoved);
 				}
 			}
 		}
@@ -261,21 +272,25 @@ public class MinimalHittingSet<T> {
 	/**
 	 * Check if a node (a vertex) is marked with an @ (AT).
 	 * 
+	 * @param at
+	 *            the column of the marks.
 	 * @param v
 	 *            the node.
 	 * @return true if the node is marked with an At or false, otherwise.
 	 */
-	private boolean checkMarkedWithAt(Vertex<?> v) {
-		return v.getProperty("at") == Boolean.TRUE;
+	private boolean checkMarkedWithAt(BooleanColumn at, Vertex<?> v) {
+		return at.get(v);
 	}
 
 	/**
 	 * Mark the node with an At.
 	 * 
+	 * @param at
+	 *            the column of the marks.
 	 * @param v
 	 *            the node to be marked.
 	 */
-	private void markNodeWithAt(Vertex<?> v) {
-		v.setProperty("at", Boolean.TRUE);
+	private void markNodeWithAt(BooleanColumn at, Vertex<?> v) {
+		at.set(v, true);
 	}
 }
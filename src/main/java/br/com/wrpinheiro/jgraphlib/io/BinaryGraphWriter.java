@@ -0,0 +1,209 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+
+/**
+ * Writes a frozen graph in the binary format read by {@link MappedGraph}.
+ *
+ * @author wrp
+ */
+public class BinaryGraphWriter<T> {
+	/**
+	 * The size of the write buffer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The codec of the labels, null to write no labels.
+	 */
+	private final LabelCodec<T> codec;
+
+	/**
+	 * The channel being written.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Buffers the bytes not yet written to the channel.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Creates a writer that does not write labels.
+	 */
+	public BinaryGraphWriter() {
+		this(null);
+	}
+
+	/**
+	 * Creates a writer that writes labels with a codec.
+	 *
+	 * @param codec
+	 *            the codec of the labels or null to write no labels.
+	 */
+	public BinaryGraphWriter(LabelCodec<T> codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Write a graph to a file, replacing its content.
+	 *
+	 * @param g
+	 *            the graph.
+	 * @param file
+	 *            the file.
+	 * @throws IOException
+	 *             if the file could not be written.
+	 */
+	public void write(FrozenGraph<T> g, File file) throws IOException {
+		int n = g.getNumVertex();
+		int m = g.getNumArc();
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			this.channel = raf.getChannel();
+			this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+			this.writeInt(MappedGraph.MAGIC);
+			this.writeInt(MappedGraph.VERSION);
+			this.writeInt(n);
+			this.writeInt(m);
+			this.writeInt(this.codec != null ? MappedGraph.FLAG_LABELS : 0);
+
+			int[] inOffsets = new int[n + 1];
+			this.writeInt(0);
+			for (int v = 0, p = 0; v < n; v++) {
+				p += g.getOutDegree(v);
+				this.writeInt(p);
+			}
+			for (int v = 0; v < n; v++) {
+				for (int i = 0; i < g.getOutDegree(v); i++) {
+					int w = g.getOutNeighbor(v, i);
+					inOffsets[w + 1]++;
+					this.writeInt(w);
+				}
+			}
+
+			for (int v = 0; v < n; v++) {
+				inOffsets[v + 1] += inOffsets[v];
+			}
+			for (int v = 0; v <= n; v++) {
+				this.writeInt(inOffsets[v]);
+			}
+
+			int[] inSources = new int[m];
+			int[] inArcs = new int[m];
+			for (int v = 0, p = 0; v < n; v++) {
+				for (int i = 0; i < g.getOutDegree(v); i++, p++) {
+					int q = inOffsets[g.getOutNeighbor(v, i)]++;
+					inSources[q] = v;
+					inArcs[q] = p;
+				}
+			}
+			for (int q = 0; q < m; q++) {
+				this.writeInt(inSources[q]);
+			}
+			for (int q = 0; q < m; q++) {
+				this.writeInt(inArcs[q]);
+			}
+
+			if (this.codec != null)
+				this.writeLabels(g, m);
+
+			this.flush();
+		} finally {
+			this.channel = null;
+			this.buffer = null;
+			raf.close();
+		}
+	}
+
+	/**
+	 * Write the label offsets and the label data. The offsets are only known
+	 * after the data is written, so their place is skipped and filled at the
+	 * end.
+	 *
+	 * @param g
+	 *            the graph.
+	 * @param m
+	 *            the number of arcs.
+	 */
+	private void writeLabels(FrozenGraph<T> g, int m) throws IOException {
+		this.flush();
+		long offsetsPosition = this.channel.position();
+		long dataPosition = offsetsPosition + 4L * m;
+		this.channel.position(dataPosition);
+
+		int[] labelOffsets = new int[m];
+		int offset = 0;
+		for (int v = 0, p = 0; v < g.getNumVertex(); v++) {
+			for (int i = 0; i < g.getOutDegree(v); i++, p++) {
+				labelOffsets[p] = offset;
+				T label = g.getOutArcLabel(v, i);
+				if (label == null) {
+					this.writeInt(-1);
+					offset += 4;
+				} else {
+					byte[] bytes = this.codec.encode(label);
+					this.writeInt(bytes.length);
+					this.writeBytes(bytes);
+					offset += 4 + bytes.length;
+				}
+			}
+		}
+		this.flush();
+
+		long end = this.channel.position();
+		this.channel.position(offsetsPosition);
+		for (int p = 0; p < m; p++) {
+			this.writeInt(labelOffsets[p]);
+		}
+		this.flush();
+		this.channel.position(end);
+	}
+
+	private void writeInt(int value) throws IOException {
+		if (this.buffer.remaining() < 4)
+			this.flush();
+		this.buffer.putInt(value);
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		for (int i = 0; i < bytes.length;) {
+			if (!this.buffer.hasRemaining())
+				this.flush();
+			int length = Math.min(this.buffer.remaining(), bytes.length - i);
+			this.buffer.put(bytes, i, length);
+			i += length;
+		}
+	}
+
+	private void flush() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining())
+			this.channel.write(this.buffer);
+		this.buffer.clear();
+	}
+}
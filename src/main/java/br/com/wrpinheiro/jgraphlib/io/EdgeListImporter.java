@@ -0,0 +1,398 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads arcs from text files. The file is split in chunks at line boundaries
+ * and the chunks are parsed in parallel into primitive arrays, which are handed
+ * to an {@link EdgeSink} in file order. Only a few chunks are kept in memory
+ * at a time, so files larger than the heap can be read as long as the sink
+ * does not keep everything.
+ *
+ * Two formats are read:
+ * <ul>
+ * <li>EDGE_LIST: one arc per line, "source target [weight]", with vertex ids
+ * starting at 0. Lines starting with '#' or '%' are comments.</li>
+ * <li>DIMACS: "p &lt;type&gt; &lt;vertices&gt; &lt;arcs&gt;" declares the
+ * size of the graph, "a source target [weight]" (or "e" for edges) is an arc
+ * with vertex ids starting at 1, and lines starting with 'c' are comments.</li>
+ * </ul>
+ * Arcs without a weight get weight 1 when other arcs of the same batch have
+ * one.
+ *
+ * @author wrp
+ */
+public class EdgeListImporter {
+	/**
+	 * The formats read by the importer.
+	 */
+	public enum Format {
+		EDGE_LIST, DIMACS
+	}
+
+	/**
+	 * The default number of bytes in a chunk.
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+	/**
+	 * The format of the files.
+	 */
+	private final Format format;
+
+	/**
+	 * The number of bytes in a chunk.
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * The number of threads parsing chunks.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param format
+	 *            the format of the files.
+	 */
+	public EdgeListImporter(Format format) {
+		this.format = format;
+	}
+
+	/**
+	 * Set the number of bytes read for each chunk. Lines longer than a chunk
+	 * are still read whole.
+	 *
+	 * @param chunkSize
+	 *            the number of bytes.
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Set the number of threads parsing chunks. At most twice this number of
+	 * chunks are in memory at a time. The default is the number of available
+	 * processors.
+	 *
+	 * @param parallelism
+	 *            the number of threads.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Read the arcs of a file.
+	 *
+	 * @param file
+	 *            the file.
+	 * @param sink
+	 *            receives the arcs.
+	 * @return what was read and how long it took.
+	 * @throws IOException
+	 *             if the file could not be read or has a malformed line.
+	 */
+	public ImportStatistics importFile(File file, EdgeSink sink)
+			throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return this.importStream(in, sink);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Read the arcs of a stream. The stream is not closed.
+	 *
+	 * @param in
+	 *            the stream.
+	 * @param sink
+	 *            receives the arcs.
+	 * @return what was read and how long it took.
+	 * @throws IOException
+	 *             if the stream could not be read or has a malformed line.
+	 */
+	public ImportStatistics importStream(InputStream in, EdgeSink sink)
+			throws IOException {
+		long start = System.nanoTime();
+		long numArcs = 0;
+		long offset = 0;
+		byte[] carry = new byte[0];
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+		Deque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+		try {
+			boolean eof = false;
+			while (!eof) {
+				byte[] bytes = Arrays.copyOf(carry, carry.length + this.chunkSize);
+				int length = carry.length;
+				while (length < bytes.length) {
+					int read = in.read(bytes, length, bytes.length - length);
+					if (read < 0) {
+						eof = true;
+						break;
+					}
+					length += read;
+				}
+
+				int end = length;
+				if (!eof) {
+					while (end > 0 && bytes[end - 1] != '\n')
+						end--;
+					if (end == 0) {
+						// no line break yet: keep the whole chunk for the next read.
+						carry = Arrays.copyOf(bytes, length);
+						continue;
+					}
+				}
+				carry = Arrays.copyOfRange(bytes, end, length);
+
+				pending.addLast(executor.submit(new ChunkParser(bytes, end, offset)));
+				offset += end;
+				while (pending.size() >= 2 * this.parallelism)
+					numArcs += deliver(pending.removeFirst(), sink);
+			}
+			while (!pending.isEmpty())
+				numArcs += deliver(pending.removeFirst(), sink);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return new ImportStatistics(numArcs, offset, System.nanoTime() - start);
+	}
+
+	/**
+	 * Wait for a chunk to be parsed and hand it to the sink.
+	 *
+	 * @return the number of arcs of the chunk.
+	 */
+	private static int deliver(Future<Chunk> future, EdgeSink sink)
+			throws IOException {
+		Chunk chunk;
+		try {
+			chunk = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while importing.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+
+		if (chunk.numVertex >= 0)
+			sink.setNumVertex(chunk.numVertex);
+		if (chunk.length > 0)
+			sink.addArcs(chunk.sources, chunk.targets, chunk.weights,
+					chunk.length);
+		return chunk.length;
+	}
+
+	/**
+	 * The arcs parsed from a chunk.
+	 */
+	private static class Chunk {
+		private int[] sources = new int[16];
+		private int[] targets = new int[16];
+		private double[] weights;
+		private int length;
+		private int numVertex = -1;
+
+		private void add(int source, int target) {
+			if (this.length == this.sources.length) {
+				this.sources = Arrays.copyOf(this.sources, this.length * 2);
+				this.targets = Arrays.copyOf(this.targets, this.length * 2);
+				if (this.weights != null)
+					this.weights = Arrays.copyOf(this.weights, this.length * 2);
+			}
+			this.sources[this.length] = source;
+			this.targets[this.length] = target;
+			if (this.weights != null)
+				this.weights[this.length] = 1;
+			this.length++;
+		}
+
+		private void setLastWeight(double weight) {
+			if (this.weights == null) {
+				this.weights = new double[this.sources.length];
+				Arrays.fill(this.weights, 0, this.length, 1);
+			}
+			this.weights[this.length - 1] = weight;
+		}
+	}
+
+	/**
+	 * Parses the lines of a chunk.
+	 */
+	private class ChunkParser implements Callable<Chunk> {
+		private final byte[] bytes;
+		private final int end;
+		private final long offset;
+		private final Chunk chunk = new Chunk();
+
+		/**
+		 * The position being parsed.
+		 */
+		private int pos;
+
+		/**
+		 * Where the current line starts.
+		 */
+		private int lineStart;
+
+		/**
+		 * Where the current line ends.
+		 */
+		private int lineEnd;
+
+		/**
+		 * @param bytes
+		 *            the bytes of the chunk.
+		 * @param end
+		 *            the number of bytes to parse.
+		 * @param offset
+		 *            the position of the chunk in the file.
+		 */
+		public ChunkParser(byte[] bytes, int end, long offset) {
+			this.bytes = bytes;
+			this.end = end;
+			this.offset = offset;
+		}
+
+		public Chunk call() throws IOException {
+			while (this.pos < this.end) {
+				this.lineStart = this.pos;
+				this.lineEnd = this.pos;
+				while (this.lineEnd < this.end && this.bytes[this.lineEnd] != '\n')
+					this.lineEnd++;
+
+				this.skipBlanks();
+				if (this.pos < this.lineEnd) {
+					if (EdgeListImporter.this.format == Format.DIMACS)
+						this.parseDimacsLine();
+					else
+						this.parseEdgeListLine();
+				}
+				this.pos = this.lineEnd + 1;
+			}
+			return this.chunk;
+		}
+
+		private void parseEdgeListLine() throws IOException {
+			byte first = this.bytes[this.pos];
+			if (first == '#' || first == '%')
+				return;
+
+			this.parseArc(0);
+		}
+
+		private void parseDimacsLine() throws IOException {
+			byte first = this.bytes[this.pos++];
+			switch (first) {
+			case 'c':
+				return;
+			case 'p':
+				this.skipToken();
+				this.chunk.numVertex = this.parseInt();
+				return;
+			case 'a':
+			case 'e':
+				this.parseArc(1);
+				return;
+			default:
+				throw this.malformed();
+			}
+		}
+
+		/**
+		 * Parse "source target [weight]".
+		 *
+		 * @param base
+		 *            the id of the first vertex in the file.
+		 */
+		private void parseArc(int base) throws IOException {
+			int source = this.parseInt() - base;
+			int target = this.parseInt() - base;
+			if (source < 0 || target < 0)
+				throw this.malformed();
+			this.chunk.add(source, target);
+
+			this.skipBlanks();
+			if (this.pos < this.lineEnd)
+				this.chunk.setLastWeight(this.parseDouble());
+		}
+
+		private int parseInt() throws IOException {
+			this.skipBlanks();
+			long value = 0;
+			int start = this.pos;
+			while (this.pos < this.lineEnd && this.bytes[this.pos] >= '0'
+					&& this.bytes[this.pos] <= '9') {
+				value = value * 10 + (this.bytes[this.pos++] - '0');
+				if (value > Integer.MAX_VALUE)
+					throw this.malformed();
+			}
+			if (this.pos == start)
+				throw this.malformed();
+			return (int) value;
+		}
+
+		private double parseDouble() throws IOException {
+			int start = this.pos;
+			this.skipToken();
+			try {
+				return Double.parseDouble(new String(this.bytes, start, this.pos
+						- start, "US-ASCII"));
+			} catch (NumberFormatException e) {
+				throw this.malformed();
+			}
+		}
+
+		private void skipToken() {
+			this.skipBlanks();
+			while (this.pos < this.lineEnd && !this.isBlank(this.bytes[this.pos]))
+				this.pos++;
+		}
+
+		private void skipBlanks() {
+			while (this.pos < this.lineEnd && this.isBlank(this.bytes[this.pos]))
+				this.pos++;
+		}
+
+		private boolean isBlank(byte b) {
+			return b == ' ' || b == '\t' || b == '\r';
+		}
+
+		private IOException malformed() {
+			return new IOException("Malformed line at byte "
+					+ (this.offset + this.lineStart) + ".");
+		}
+	}
+}
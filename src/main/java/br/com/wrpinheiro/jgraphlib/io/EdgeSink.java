@@ -0,0 +1,48 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+/**
+ * Receives the arcs read by an {@link EdgeListImporter}, in batches and in
+ * file order. The methods are called by a single thread at a time.
+ * 
+ * @author wrp
+ */
+public interface EdgeSink {
+	/**
+	 * Called when the file declares its number of vertices.
+	 * 
+	 * @param numVertex
+	 *            the number of vertices.
+	 */
+	public abstract void setNumVertex(int numVertex);
+
+	/**
+	 * Receive a batch of arcs. The arrays are reused after this method
+	 * returns, so they must be copied to be kept.
+	 * 
+	 * @param sources
+	 *            the source vertex id of every arc, starting at 0.
+	 * @param targets
+	 *            the target vertex id of every arc, starting at 0.
+	 * @param weights
+	 *            the weight of every arc, or null if the batch has no weights.
+	 * @param length
+	 *            the number of arcs in the batch.
+	 */
+	public abstract void addArcs(int[] sources, int[] targets,
+			double[] weights, int length);
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+
+/**
+ * Feeds imported arcs into a {@link GraphBuilder}, growing its number of
+ * vertices to cover every id read. Weights are dropped.
+ * 
+ * @author wrp
+ */
+public class GraphBuilderSink<T> implements EdgeSink {
+	/**
+	 * The builder receiving the arcs.
+	 */
+	private final GraphBuilder<T> builder;
+
+	/**
+	 * @param builder
+	 *            the builder receiving the arcs.
+	 */
+	public GraphBuilderSink(GraphBuilder<T> builder) {
+		this.builder = builder;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.io.EdgeSink#setNumVertex(int)
+	 */
+	public void setNumVertex(int numVertex) {
+		this.builder.ensureNumVertex(numVertex);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.io.EdgeSink#addArcs(int[], int[],
+	 *      double[], int)
+	 */
+	public void addArcs(int[] sources, int[] targets, double[] weights,
+			int length) {
+		int max = -1;
+		for (int i = 0; i < length; i++) {
+			max = Math.max(max, Math.max(sources[i], targets[i]));
+		}
+		this.builder.ensureNumVertex(max + 1);
+		this.builder.addArcs(sources, targets, null, length);
+	}
+}
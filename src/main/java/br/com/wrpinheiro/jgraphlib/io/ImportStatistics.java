@@ -0,0 +1,82 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+/**
+ * What an {@link EdgeListImporter} read and how long it took.
+ *
+ * @author wrp
+ */
+public class ImportStatistics {
+	private final long numArcs;
+	private final long numBytes;
+	private final long elapsedNanos;
+
+	/**
+	 * @param numArcs
+	 *            the number of arcs read.
+	 * @param numBytes
+	 *            the number of bytes read.
+	 * @param elapsedNanos
+	 *            the time taken, in nanoseconds.
+	 */
+	public ImportStatistics(long numArcs, long numBytes, long elapsedNanos) {
+		this.numArcs = numArcs;
+		this.numBytes = numBytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of arcs read.
+	 */
+	public long getNumArcs() {
+		return this.numArcs;
+	}
+
+	/**
+	 * @return the number of bytes read.
+	 */
+	public long getNumBytes() {
+		return this.numBytes;
+	}
+
+	/**
+	 * @return the time taken, in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * @return the number of arcs read per second.
+	 */
+	public double getArcsPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.numArcs * 1e9
+				/ this.elapsedNanos;
+	}
+
+	/**
+	 * (non-Javadoc).
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.numArcs + " arcs, " + this.numBytes + " bytes in "
+				+ (this.elapsedNanos / 1000000) + " ms ("
+				+ (long) this.getArcsPerSecond() + " arcs/s)";
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores Integer labels as 4 big-endian bytes.
+ * 
+ * @author wrp
+ */
+public class IntegerLabelCodec implements LabelCodec<Integer> {
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.io.LabelCodec#encode(java.lang.Object)
+	 */
+	public byte[] encode(Integer label) {
+		return ByteBuffer.allocate(4).putInt(label).array();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.io.LabelCodec#decode(java.nio.ByteBuffer,
+	 *      int, int)
+	 */
+	public Integer decode(ByteBuffer buffer, int offset, int length) {
+		return buffer.getInt(offset);
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts arc labels to and from bytes for the binary graph format. Null
+ * labels are handled by the format, so a codec never sees them.
+ * 
+ * @author wrp
+ */
+public interface LabelCodec<T> {
+	/**
+	 * Convert a label to bytes.
+	 * 
+	 * @param label
+	 *            a label, never null.
+	 * @return the bytes of the label.
+	 */
+	public abstract byte[] encode(T label);
+
+	/**
+	 * Read a label back from its bytes.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the bytes. Its position and limit must not
+	 *            be changed.
+	 * @param offset
+	 *            where the bytes of the label start in buffer.
+	 * @param length
+	 *            the number of bytes of the label.
+	 * @return the label.
+	 */
+	public abstract T decode(ByteBuffer buffer, int offset, int length);
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+
+/**
+ * A read-only graph read straight from a memory-mapped file written by
+ * {@link BinaryGraphWriter}. Opening the file only checks its header, so the
+ * time to open does not depend on the size of the graph; adjacency and labels
+ * are read from the mapped pages when they are accessed.
+ *
+ * The file holds big-endian 32 bit integers, in this order:
+ *
+ * <pre>
+ * magic            0x4A474C42 ("JGLB")
+ * version          1
+ * numVertex        n
+ * numArcs          m
+ * flags            bit 0 set if the file has labels
+ * outOffsets[n + 1] where the output arcs of each vertex start
+ * outTargets[m]     the target vertex of every output arc
+ * inOffsets[n + 1]  where the input arcs of each vertex start
+ * inSources[m]      the source vertex of every input arc
+ * inArcs[m]         the position in outTargets of every input arc
+ * labelOffsets[m]   (with labels) where the label of every output arc
+ *                   starts, relative to the label data
+ * label data        (with labels) for every label, its length in bytes, or
+ *                   -1 for a null label, followed by the bytes given by the
+ *                   LabelCodec
+ * </pre>
+ *
+ * The whole file is mapped at once, so it must be smaller than 2GB.
+ *
+ * @author wrp
+ */
+public class MappedGraph<T> implements IndexedGraph {
+	/**
+	 * The first integer of every file.
+	 */
+	static final int MAGIC = 0x4A474C42;
+
+	/**
+	 * The version of the format.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The flag set when the file has labels.
+	 */
+	static final int FLAG_LABELS = 1;
+
+	/**
+	 * The number of integers in the header.
+	 */
+	static final int HEADER_INTS = 5;
+
+	private final int numVertex;
+	private final int numArcs;
+	private final IntBuffer outOffsets;
+	private final IntBuffer outTargets;
+	private final IntBuffer inOffsets;
+	private final IntBuffer inSources;
+	private final IntBuffer inArcs;
+	private final IntBuffer labelOffsets;
+
+	/**
+	 * The mapped file.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Where the label data starts in the buffer.
+	 */
+	private final int labelData;
+
+	/**
+	 * The codec of the labels, null if labels are not read.
+	 */
+	private final LabelCodec<T> codec;
+
+	/**
+	 * Creates a graph over a mapped file.
+	 *
+	 * @param buffer
+	 *            the mapped file, positioned at its start.
+	 * @param codec
+	 *            the codec of the labels or null.
+	 * @throws IOException
+	 *             if the file is not in the binary graph format.
+	 */
+	private MappedGraph(ByteBuffer buffer, LabelCodec<T> codec)
+			throws IOException {
+		this.buffer = buffer;
+		this.codec = codec;
+
+		if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a binary graph file.");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported binary graph version "
+					+ buffer.getInt(4) + ".");
+
+		this.numVertex = buffer.getInt(8);
+		this.numArcs = buffer.getInt(12);
+		boolean hasLabels = (buffer.getInt(16) & FLAG_LABELS) != 0;
+
+		long ints = HEADER_INTS + 2L * (this.numVertex + 1) + 3L * this.numArcs
+				+ (hasLabels ? this.numArcs : 0);
+		if (this.numVertex < 0 || this.numArcs < 0
+				|| ints * 4 > buffer.capacity())
+			throw new IOException("Truncated binary graph file.");
+
+		int position = HEADER_INTS;
+		this.outOffsets = this.slice(position, this.numVertex + 1);
+		position += this.numVertex + 1;
+		this.outTargets = this.slice(position, this.numArcs);
+		position += this.numArcs;
+		this.inOffsets = this.slice(position, this.numVertex + 1);
+		position += this.numVertex + 1;
+		this.inSources = this.slice(position, this.numArcs);
+		position += this.numArcs;
+		this.inArcs = this.slice(position, this.numArcs);
+		position += this.numArcs;
+		if (hasLabels) {
+			this.labelOffsets = this.slice(position, this.numArcs);
+			position += this.numArcs;
+		} else {
+			this.labelOffsets = null;
+		}
+		this.labelData = position * 4;
+	}
+
+	/**
+	 * Open a binary graph file without reading its labels.
+	 *
+	 * @param file
+	 *            the file.
+	 * @return the graph.
+	 * @throws IOException
+	 *             if the file could not be mapped or is not a binary graph.
+	 */
+	public static <T> MappedGraph<T> open(File file) throws IOException {
+		return open(file, null);
+	}
+
+	/**
+	 * Open a binary graph file.
+	 *
+	 * @param file
+	 *            the file.
+	 * @param codec
+	 *            the codec of the labels, or null to not read them.
+	 * @return the graph.
+	 * @throws IOException
+	 *             if the file could not be mapped or is not a binary graph.
+	 */
+	public static <T> MappedGraph<T> open(File file, LabelCodec<T> codec)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Binary graph file larger than 2GB.");
+
+			// the mapping stays valid after the channel is closed.
+			MappedByteBuffer buffer = channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new MappedGraph<T>(buffer, codec);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.numVertex;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && v < this.numVertex;
+	}
+
+	/**
+	 * Return the number of arcs of this graph.
+	 *
+	 * @return the number of arcs of this graph.
+	 */
+	public int getNumArc() {
+		return this.numArcs;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		return this.outOffsets.get(v + 1) - this.outOffsets.get(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		return this.outTargets.get(this.outOffsets.get(v) + i);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		return this.inOffsets.get(v + 1) - this.inOffsets.get(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		return this.inSources.get(this.inOffsets.get(v) + i);
+	}
+
+	/**
+	 * Check if labels can be read from this graph: the file has labels and a
+	 * codec was given when it was opened.
+	 *
+	 * @return TRUE if labels can be read.
+	 */
+	public boolean hasLabels() {
+		return this.labelOffsets != null && this.codec != null;
+	}
+
+	/**
+	 * Return the label of the ith output arc of a vertex. The label is
+	 * decoded on every call.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc.
+	 * @return the label of the arc.
+	 * @throws IllegalStateException
+	 *             if labels can not be read from this graph.
+	 */
+	public T getOutArcLabel(int v, int i) {
+		return this.getLabel(this.outOffsets.get(v) + i);
+	}
+
+	/**
+	 * Return the label of the ith input arc of a vertex. The label is decoded
+	 * on every call.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc.
+	 * @return the label of the arc.
+	 * @throws IllegalStateException
+	 *             if labels can not be read from this graph.
+	 */
+	public T getInArcLabel(int v, int i) {
+		return this.getLabel(this.inArcs.get(this.inOffsets.get(v) + i));
+	}
+
+	/**
+	 * Decode the label of an output arc.
+	 *
+	 * @param p
+	 *            the position of the arc in outTargets.
+	 * @return the label.
+	 */
+	private T getLabel(int p) {
+		if (!this.hasLabels())
+			throw new IllegalStateException("No labels to read.");
+
+		int offset = this.labelData + this.labelOffsets.get(p);
+		int length = this.buffer.getInt(offset);
+		if (length < 0)
+			return null;
+		return this.codec.decode(this.buffer, offset + 4, length);
+	}
+
+	/**
+	 * Create a view of a range of integers of the mapped file.
+	 *
+	 * @param position
+	 *            the index of the first integer.
+	 * @param length
+	 *            the number of integers.
+	 * @return the view.
+	 */
+	private IntBuffer slice(int position, int length) {
+		ByteBuffer b = this.buffer.duplicate();
+		b.position(position * 4);
+		b.limit(position * 4 + length * 4);
+		return b.slice().asIntBuffer();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import br.com.wrpinheiro.jgraphlib.Graph;
+
+/**
+ * The A* search: a {@link DijkstraSearch} that settles the vertices in order
+ * of their distance from the source plus a {@link Heuristic} estimate of their
+ * distance to the target. A good estimate settles far fewer vertices than
+ * Dijkstra does before reaching the target, and finds the same shortest
+ * paths as long as it is consistent. A {@link LandmarkHeuristic} is a
+ * consistent estimate for any graph (ALT).
+ * 
+ * The heuristic is used only by the searches with a target; the distances
+ * from a vertex to all the others are computed as by Dijkstra.
+ * 
+ * @author wrp
+ */
+public class AStarSearch<T> extends DijkstraSearch<T> {
+	/**
+	 * The estimate of the distances to the target.
+	 */
+	private final Heuristic heuristic;
+
+	/**
+	 * @param g
+	 *            the graph.
+	 * @param weight
+	 *            the cost of the arcs.
+	 * @param heuristic
+	 *            the estimate of the distances to the target.
+	 */
+	public AStarSearch(Graph<T> g, ArcWeight<T> weight, Heuristic heuristic) {
+		super(g, weight);
+		if (heuristic == null)
+			throw new NullPointerException();
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * @param g
+	 *            the graph.
+	 * @param weights
+	 *            the cost of the arcs indexed by arc id. The array is not
+	 *            copied.
+	 * @param heuristic
+	 *            the estimate of the distances to the target.
+	 */
+	public AStarSearch(Graph<T> g, double[] weights, Heuristic heuristic) {
+		super(g, weights);
+		if (heuristic == null)
+			throw new NullPointerException();
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Return the estimate of the distances to the target.
+	 * 
+	 * @return the heuristic.
+	 */
+	public Heuristic getHeuristic() {
+		return this.heuristic;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.search.DijkstraSearch#estimate(int, int)
+	 */
+	@Override
+	double estimate(int v, int target) {
+		return this.heuristic.estimate(v, target);
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+
+/**
+ * Gives the cost of following an arc in a weighted search.
+ * 
+ * @author wrp
+ */
+public interface ArcWeight<T> {
+	/**
+	 * Return the cost of an arc.
+	 * 
+	 * @param arc
+	 *            the arc.
+	 * @return the cost, neither negative nor NaN.
+	 */
+	public abstract double getWeight(Arc<T> arc);
+}
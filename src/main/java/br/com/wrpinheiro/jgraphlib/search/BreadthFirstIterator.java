@@ -0,0 +1,289 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * Returns the vertices reachable from a source in breadth first order, one at
+ * a time. The traversal is lazy: the arcs of a vertex are followed only when
+ * the vertices returned so far were not enough to answer
+ * {@link #hasNext()}, so stopping early leaves the rest of the graph
+ * untouched. The traversal stops at a maximum depth, when a
+ * {@link BreadthFirstVisitor} prunes it, or when it is cancelled, possibly by
+ * another thread.
+ * 
+ * The visited vertices are kept in a bit set over vertex ids and the queue
+ * grows with the vertices reached, so a traversal that returns few vertices
+ * stays cheap on a large graph.
+ * 
+ * The graph must not change during a traversal. Traverse a
+ * {@link br.com.wrpinheiro.jgraphlib.Graph#snapshot()} or a
+ * {@link br.com.wrpinheiro.jgraphlib.FrozenGraph} of a graph being changed,
+ * and a {@link br.com.wrpinheiro.jgraphlib.view.ReversedGraph} to follow the
+ * input arcs.
+ * 
+ * @author wrp
+ */
+public class BreadthFirstIterator implements Iterator<Integer> {
+	/**
+	 * The graph traversed.
+	 */
+	private final IndexedGraph g;
+
+	/**
+	 * The vertices visited, including the ones still in the queue.
+	 */
+	private final long[] visited;
+
+	/**
+	 * The vertices reached in the order they were reached.
+	 */
+	private int[] queue = new int[16];
+
+	/**
+	 * The depth of each vertex in the queue.
+	 */
+	private int[] depths = new int[16];
+
+	/**
+	 * The position in the queue of the next vertex to return.
+	 */
+	private int head;
+
+	/**
+	 * The position in the queue of the next vertex whose arcs are followed.
+	 */
+	private int expanded;
+
+	/**
+	 * The number of vertices in the queue.
+	 */
+	private int tail;
+
+	/**
+	 * The depth of the last vertex returned, -1 before the first one.
+	 */
+	private int depth = -1;
+
+	/**
+	 * The arcs of the vertices at this depth are not followed.
+	 */
+	private int maxDepth = Integer.MAX_VALUE;
+
+	/**
+	 * Called for each vertex returned, or null.
+	 */
+	private BreadthFirstVisitor visitor;
+
+	/**
+	 * TRUE once the vertices returned by the visitor must not be expanded,
+	 * indexed by position in the queue.
+	 */
+	private long[] pruned = new long[1];
+
+	/**
+	 * TRUE once the traversal is cancelled.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * @param g
+	 *            the graph.
+	 * @param source
+	 *            the id of the first vertex returned.
+	 */
+	public BreadthFirstIterator(IndexedGraph g, int source) {
+		if (!g.containsVertex(source))
+			throw new InvalidVertexException();
+		this.g = g;
+		this.visited = new long[(g.getNumVertex() + 63) >>> 6];
+		this.visited[source >>> 6] |= 1L << source;
+		this.queue[this.tail++] = source;
+	}
+
+	/**
+	 * Set the depth of the last vertices returned. The source has depth 0.
+	 * 
+	 * @param maxDepth
+	 *            the maximum depth, not negative.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 0)
+			throw new IllegalArgumentException("Negative depth: " + maxDepth);
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Set the visitor called for each vertex returned, before it is returned.
+	 * 
+	 * @param visitor
+	 *            the visitor or null for none.
+	 */
+	public void setVisitor(BreadthFirstVisitor visitor) {
+		this.visitor = visitor;
+	}
+
+	/**
+	 * Stop the traversal. No vertex is returned after it, and a traversal
+	 * running in {@link #traverse()} returns once it is done with the vertex
+	 * it is at. It may be called by any thread.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * Check if the traversal was cancelled.
+	 * 
+	 * @return TRUE if it was cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Iterator#hasNext()
+	 */
+	public boolean hasNext() {
+		if (this.cancelled)
+			return false;
+		while (this.head == this.tail && this.expanded < this.head) {
+			this.expand(this.expanded++);
+		}
+		return this.head < this.tail;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Iterator#next()
+	 */
+	public Integer next() {
+		return this.nextVertex();
+	}
+
+	/**
+	 * Return the next vertex without boxing it.
+	 * 
+	 * @return the id of the next vertex.
+	 * @throws NoSuchElementException
+	 *             if there are no more vertices.
+	 */
+	public int nextVertex() {
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		int i = this.head++;
+		int v = this.queue[i];
+		this.depth = this.depths[i];
+		if (this.visitor != null && !this.visitor.visit(v, this.depth))
+			this.prune(i);
+		return v;
+	}
+
+	/**
+	 * Return the depth of the last vertex returned.
+	 * 
+	 * @return the number of arcs from the source to the vertex, or -1 if no
+	 *         vertex was returned.
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Return the remaining vertices to the visitor, until the traversal ends
+	 * or is cancelled.
+	 * 
+	 * @return the number of vertices returned.
+	 */
+	public int traverse() {
+		int count = 0;
+		while (this.hasNext()) {
+			this.nextVertex();
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Not supported.
+	 * 
+	 * @see java.util.Iterator#remove()
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Add the unvisited output neighbours of a returned vertex to the queue.
+	 * 
+	 * @param i
+	 *            the position of the vertex in the queue.
+	 */
+	private void expand(int i) {
+		int d = this.depths[i];
+		if (d >= this.maxDepth || this.isPruned(i))
+			return;
+
+		int v = this.queue[i];
+		int degree = this.g.getOutDegree(v);
+		for (int j = 0; j < degree; j++) {
+			int w = this.g.getOutNeighbor(v, j);
+			if (w < 0 || (this.visited[w >>> 6] & (1L << w)) != 0)
+				continue;
+			this.visited[w >>> 6] |= 1L << w;
+			if (this.tail == this.queue.length) {
+				int length = 2 * this.tail;
+				int[] queue = new int[length];
+				int[] depths = new int[length];
+				System.arraycopy(this.queue, 0, queue, 0, this.tail);
+				System.arraycopy(this.depths, 0, depths, 0, this.tail);
+				this.queue = queue;
+				this.depths = depths;
+			}
+			this.queue[this.tail] = w;
+			this.depths[this.tail++] = d + 1;
+		}
+	}
+
+	/**
+	 * Mark the vertex at a position of the queue to not be expanded.
+	 */
+	private void prune(int i) {
+		if ((i >>> 6) >= this.pruned.length) {
+			long[] pruned = new long[Math.max(2 * this.pruned.length,
+					(i >>> 6) + 1)];
+			System.arraycopy(this.pruned, 0, pruned, 0, this.pruned.length);
+			this.pruned = pruned;
+		}
+		this.pruned[i >>> 6] |= 1L << i;
+	}
+
+	/**
+	 * Check if the vertex at a position of the queue must not be expanded.
+	 */
+	private boolean isPruned(int i) {
+		return (i >>> 6) < this.pruned.length
+				&& (this.pruned[i >>> 6] & (1L << i)) != 0;
+	}
+}
@@ -15,13 +15,11 @@
  */
 package br.com.wrpinheiro.jgraphlib.search;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
 import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphSnapshot;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
 import br.com.wrpinheiro.jgraphlib.Vertex;
 
 
@@ -29,109 +27,512 @@ import br.com.wrpinheiro.jgraphlib.Vertex;
 /**
  * A BreadthFirst search implementation.
  * 
+ * The arrays indexed by vertex id are kept between the searches run by each
+ * thread, so after the first search a search allocates only its result. A
+ * search object may be shared by several threads.
+ * 
  * @author wrp 27/01/2008
  */
 public class BreadthFirstSearch<T> {
-  /**
-   * Possible visitation status for vertices.
-   * @author wrp
-   */
-  private enum VertexVisitationStatus {
-    NotVisited, /* the vertex hasn't been visited */ 
-    Visited,    /* the vertex has already been visited */
-    Expanded;   /* the vertex has already been visited and expanded */
-  }
+	/**
+	 * The result of the searches without a path.
+	 */
+	private static final int[] EMPTY_PATH = new int[0];
+
+	/**
+	 * The number of searches over a {@link ConcurrentGraph} read without locks
+	 * before falling back to a snapshot.
+	 */
+	private static final int OPTIMISTIC_ATTEMPTS = 3;
 
 	/**
 	 * The graph where the search is being executed. 
 	 */
 	private Graph<T> g;
 
+	/**
+	 * The graph searched by vertex ids. It is the same as g when the search
+	 * was created with a graph.
+	 */
+	private IndexedGraph ig;
+
+	/**
+	 * TRUE to search from both ends of the path at once.
+	 */
+	private boolean bidirectional;
+
+	/**
+	 * The workspace of the searches run by each thread.
+	 */
+	private final ThreadLocal<SearchWorkspace> workspaces = new ThreadLocal<SearchWorkspace>();
+
+	/**
+	 * The paths found, or null if they are not cached.
+	 */
+	private volatile PathCache cache;
+
 	/**
 	 * @param g
 	 */
 	public BreadthFirstSearch(Graph<T> g) {
 		this.g = g;
+		this.ig = g;
+	}
+
+	/**
+	 * Creates a search over a graph accessed by vertex ids. Only
+	 * {@link #search(int, int)} can be used with this search.
+	 * 
+	 * @param ig
+	 *            the graph, like a {@link br.com.wrpinheiro.jgraphlib.FrozenGraph}
+	 *            or a view like
+	 *            {@link br.com.wrpinheiro.jgraphlib.view.InducedSubgraph}.
+	 */
+	public BreadthFirstSearch(IndexedGraph ig) {
+		this.ig = ig;
+	}
+
+	/**
+	 * Set if the searches run from both ends of the path at once. A
+	 * bidirectional search follows the output arcs from the source and the
+	 * input arcs from the target, always expanding the side with the smaller
+	 * frontier, and stops when the two sides meet. It still finds a shortest
+	 * path, usually visiting far fewer vertices when the path is short.
+	 * 
+	 * @param bidirectional
+	 *            TRUE to search from both ends or FALSE to search only from
+	 *            the source, the default.
+	 */
+	public void setBidirectional(boolean bidirectional) {
+		this.bidirectional = bidirectional;
+	}
+
+	/**
+	 * Check if the searches run from both ends of the path at once.
+	 * 
+	 * @return TRUE if the searches are bidirectional or FALSE otherwise.
+	 */
+	public boolean isBidirectional() {
+		return this.bidirectional;
+	}
+
+	/**
+	 * Keep the paths found in a cache, so that asking again for a path
+	 * returns it without a search while the arcs of the graph do not change.
+	 * For a search created with a Graph, any change to the arcs drops the
+	 * cached paths. A search created with an IndexedGraph has no
+	 * modification count to check, so it does not see changes to that graph,
+	 * to the mask of a view like InducedSubgraph or to the graph under a
+	 * view, and keeps returning the old paths: cache only over a graph that
+	 * does not change, like a FrozenGraph, or call {@link PathCache#clear()}
+	 * after each change. Setting the capacity replaces the cache and its
+	 * counters.
+	 * 
+	 * @param capacity
+	 *            the maximum number of paths kept, or 0 to not cache them,
+	 *            the default.
+	 */
+	public void setCacheCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		this.cache = capacity == 0 ? null : new PathCache(capacity);
+	}
+
+	/**
+	 * Return the cache of the paths found, with its hit, miss and eviction
+	 * counts.
+	 * 
+	 * @return the cache or null if the paths are not cached.
+	 */
+	public PathCache getCache() {
+		return this.cache;
 	}
 
 	/**
-	 * Searches a path from u to v.
+	 * Searches a path from u to v. The search follows the output arcs of
+	 * each vertex and keeps its state in arrays indexed by vertex id.
+	 * 
+	 * A {@link ConcurrentGraph} is read without locks, so other threads may
+	 * change it meanwhile. The whole search is checked against a stamp of the
+	 * graph and run again if anything changed while it ran; after a few
+	 * failed attempts it runs on a snapshot of the graph instead. Vertices
+	 * added during the search are not reached. Any other graph must not
+	 * change during the search.
 	 * 
 	 * @param u the source vertex.
 	 * @param v the target vertex.
 	 * @return a path o vertex from u to v.
 	 */
 	@SuppressWarnings("unchecked")
-  public Vertex<T>[] search(Vertex<T> u, Vertex<T> v) {
-		HashMap<Vertex<T>, NodeInfo> nodes = new HashMap<Vertex<T>, NodeInfo>();
-		for (int i = 0; i < g.getNumVertex(); i++) {
-			NodeInfo ni = new NodeInfo(g.getVertex(i));
-			nodes.put(ni.v, ni);
+	public Vertex<T>[] search(Vertex<T> u, Vertex<T> v) {
+		if (!u.getGraph().equals(this.g))
+			throw new InvalidVertexException();
+		if (!v.getGraph().equals(this.g))
+			return new Vertex[0];
+
+		if (!(this.g instanceof ConcurrentGraph))
+			return this.toVertices(this.findPath(this.g,
+					this.getModificationCount(), u.getId(), v.getId()));
+
+		ConcurrentGraph<T> cg = (ConcurrentGraph<T>) this.g;
+		for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+			long stamp = cg.tryOptimisticRead();
+			if (stamp == 0) {
+				Thread.yield();
+				continue;
+			}
+			try {
+				Vertex<T>[] path = this.toVertices(this.findPath(
+						cg.getOptimisticView(), stamp, u.getId(), v.getId()));
+				if (cg.validate(stamp))
+					return path;
+			} catch (RuntimeException e) {
+				if (cg.validate(stamp))
+					throw e;
+			}
+		}
+
+		// read before the snapshot, so that a change made meanwhile keeps
+		// the path out of the cache.
+		long version = cg.getModificationCount();
+		GraphSnapshot<T> snapshot = cg.snapshot();
+		try {
+			int[] ids = this.findPath(snapshot, version, u.getId(), v.getId());
+			Vertex<T>[] path = new Vertex[ids.length];
+			for (int i = 0; i < path.length; i++) {
+				path[i] = snapshot.getVertex(ids[i]);
+			}
+			return path;
+		} finally {
+			snapshot.close();
+		}
+	}
+
+	/**
+	 * Searches a path from u to v by vertex ids. A {@link ConcurrentGraph} is
+	 * read without locks, as in {@link #search(Vertex, Vertex)}.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	public int[] search(int u, int v) {
+		if (!(this.g instanceof ConcurrentGraph))
+			return this.findPath(this.ig, this.getModificationCount(), u, v);
+
+		ConcurrentGraph<T> cg = (ConcurrentGraph<T>) this.g;
+		for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+			long stamp = cg.tryOptimisticRead();
+			if (stamp == 0) {
+				Thread.yield();
+				continue;
+			}
+			try {
+				int[] path = this.findPath(cg.getOptimisticView(), stamp, u, v);
+				if (cg.validate(stamp))
+					return path;
+			} catch (RuntimeException e) {
+				if (cg.validate(stamp))
+					throw e;
+			}
+		}
+
+		// read before the snapshot, as above.
+		long version = cg.getModificationCount();
+		GraphSnapshot<T> snapshot = cg.snapshot();
+		try {
+			return this.findPath(snapshot, version, u, v);
+		} finally {
+			snapshot.close();
 		}
+	}
+
+	/**
+	 * Return the modification count of the graph, or 0 for an IndexedGraph,
+	 * which has none.
+	 */
+	private long getModificationCount() {
+		return this.g == null ? 0 : this.g.getModificationCount();
+	}
+
+	/**
+	 * Return the path from u to v from the cache, or search it and cache it.
+	 * The path is cached only if the graph did not change since the version
+	 * was read.
+	 * 
+	 * @param graph
+	 *            the graph read by the search.
+	 * @param version
+	 *            the modification count of the graph, read before the graph
+	 *            or its snapshot, or -1 to skip the cache.
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	private int[] findPath(IndexedGraph graph, long version, int u, int v) {
+		PathCache cache = this.cache;
+		if (cache == null || version < 0)
+			return this.searchIds(graph, u, v);
+
+		int[] path = cache.get(u, v, version);
+		if (path == null) {
+			path = this.searchIds(graph, u, v);
+			// the search may have seen a change in part.
+			if (this.getModificationCount() == version)
+				cache.put(u, v, version, path);
+		}
+		return path;
+	}
+
+	/**
+	 * Searches a path from u to v by vertex ids, in a single attempt.
+	 * 
+	 * @param graph
+	 *            the graph read by the search.
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	private int[] searchIds(IndexedGraph graph, int u, int v) {
+		if (!graph.containsVertex(u) || !graph.containsVertex(v))
+			throw new InvalidVertexException();
+
+		if (this.bidirectional)
+			return this.searchBothEnds(graph, u, v);
+
+		int n = graph.getNumVertex();
+		SearchWorkspace workspace = this.workspace(n);
+		int[] parent = workspace.parent;
+		int[] queue = workspace.queue;
+		int head = 0;
+		int tail = 0;
 
-		Queue<Vertex<T>> q = new LinkedList<Vertex<T>>();
-		q.offer(u);
-		while (!q.isEmpty()) {
-			Vertex<T> current = q.poll();
-			if (current.equals(v)) {
-				return this.extractPath(v, nodes);
+		int[] neighbors = workspace.neighbors;
+
+		parent[u] = -1;
+		workspace.visit(u);
+		queue[tail++] = u;
+		while (head < tail) {
+			int current = queue[head++];
+			if (current == v) {
+				return extractPath(v, parent);
+			}
+			int degree = readNeighbors(graph, current, true, neighbors);
+			if (degree > neighbors.length) {
+				neighbors = workspace.neighbors(degree);
+				degree = readNeighbors(graph, current, true, neighbors);
 			}
-			for (int i = 0; i < this.g.getNumVertex(); i++) {
-				NodeInfo temp;
-				if (g.isAdjacent(current, g.getVertex(i))
-						&& (temp = nodes.get(g.getVertex(i))).searchState == VertexVisitationStatus.NotVisited) {
-					temp.parent = current;
-					temp.searchState = VertexVisitationStatus.Expanded;
-					q.offer(g.getVertex(i));
+			for (int i = 0; i < degree; i++) {
+				int w = neighbors[i];
+				// vertices added after the search started are not searched.
+				if (w >= 0 && w < n && !workspace.isVisited(w)) {
+					workspace.visit(w);
+					parent[w] = current;
+					queue[tail++] = w;
 				}
 			}
-			nodes.get(current).searchState = VertexVisitationStatus.Visited;
 		}
 
-		return new Vertex[0];
+		return EMPTY_PATH;
 	}
 
 	/**
-	 * Extract a path.
+	 * Searches a path from u to v expanding a level from the side with the
+	 * smaller frontier each time, until the two sides meet.
+	 * 
+	 * @param graph
+	 *            the graph read by the search.
+	 * @param u
+	 *            the id of the source vertex.
 	 * @param v
-	 * @param nodes
-	 * @return
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
 	 */
-	@SuppressWarnings("unchecked")
-	private Vertex<T>[] extractPath(Vertex<T> v,
-			HashMap<Vertex<T>, NodeInfo> nodes) {
-		List<Vertex<T>> path = new ArrayList<Vertex<T>>();
-		Vertex<T> parent;
-
-		path.add(0, v);
-		parent = nodes.get(v).parent;
-		while (parent != null) {
-			path.add(0, parent);
-			parent = nodes.get(parent).parent;
+	private int[] searchBothEnds(IndexedGraph graph, int u, int v) {
+		if (u == v)
+			return new int[] { u };
+
+		int n = graph.getNumVertex();
+		SearchWorkspace workspace = this.workspace(n);
+
+		// the next vertex towards u for the forward side and towards v for
+		// the backward side.
+		int[] link = workspace.parent;
+		// the distance from u, or from v as a negative number minus 1.
+		int[] distance = workspace.distance;
+		int[] forward = workspace.queue;
+		int[] backward = workspace.otherQueue;
+		int forwardHead = 0;
+		int forwardTail = 0;
+		int backwardHead = 0;
+		int backwardTail = 0;
+
+		int[] neighbors = workspace.neighbors;
+
+		link[u] = -1;
+		distance[u] = 0;
+		workspace.visit(u);
+		forward[forwardTail++] = u;
+		link[v] = -1;
+		distance[v] = -1;
+		workspace.visit(v);
+		backward[backwardTail++] = v;
+
+		while (forwardHead < forwardTail && backwardHead < backwardTail) {
+			boolean out = forwardTail - forwardHead <= backwardTail
+					- backwardHead;
+			int[] queue = out ? forward : backward;
+			int head = out ? forwardHead : backwardHead;
+			int tail = out ? forwardTail : backwardTail;
+			int end = tail;
+
+			// the meeting with the shortest path found in this level.
+			int bestLength = Integer.MAX_VALUE;
+			int bestFrom = -1;
+			int bestTo = -1;
+
+			for (; head < end; head++) {
+				int current = queue[head];
+				int degree = readNeighbors(graph, current, out, neighbors);
+				if (degree > neighbors.length) {
+					neighbors = workspace.neighbors(degree);
+					degree = readNeighbors(graph, current, out, neighbors);
+				}
+				for (int i = 0; i < degree; i++) {
+					int w = neighbors[i];
+					// vertices added after the search started are not searched.
+					if (w < 0 || w >= n)
+						continue;
+
+					if (!workspace.isVisited(w)) {
+						workspace.visit(w);
+						link[w] = current;
+						distance[w] = out ? distance[current] + 1
+								: distance[current] - 1;
+						queue[tail++] = w;
+						continue;
+					}
+
+					int d = distance[w];
+					if (out ? d < 0 : d >= 0) {
+						int length = out ? distance[current] - d : d
+								- distance[current];
+						if (length < bestLength) {
+							bestLength = length;
+							bestFrom = out ? current : w;
+							bestTo = out ? w : current;
+						}
+					}
+				}
+			}
+
+			if (out) {
+				forwardHead = head;
+				forwardTail = tail;
+			} else {
+				backwardHead = head;
+				backwardTail = tail;
+			}
+
+			if (bestFrom != -1) {
+				int[] path = new int[bestLength + 1];
+				int p = distance[bestFrom];
+				for (int w = bestFrom; w != -1; w = link[w])
+					path[p--] = w;
+				p = distance[bestFrom] + 1;
+				for (int w = bestTo; w != -1; w = link[w])
+					path[p++] = w;
+				return path;
+			}
 		}
 
-		Vertex<T>[] l = new Vertex[path.size()];
-		for (int i = 0; i < l.length; i++) {
-			l[i] = path.get(i);
+		return EMPTY_PATH;
+	}
+
+	/**
+	 * Return the workspace of the calling thread, ready for a new search.
+	 * 
+	 * @param n
+	 *            the number of vertices of the graph.
+	 * @return the workspace.
+	 */
+	private SearchWorkspace workspace(int n) {
+		SearchWorkspace workspace = this.workspaces.get();
+		if (workspace == null) {
+			workspace = new SearchWorkspace();
+			this.workspaces.set(workspace);
 		}
-		return l;
+		workspace.start(n);
+		return workspace;
+	}
+
+	/**
+	 * Copy the output or input neighbours of a vertex.
+	 * 
+	 * @param graph
+	 *            the graph.
+	 * @param v
+	 *            the vertex id.
+	 * @param out
+	 *            TRUE for the output neighbours or FALSE for the input ones.
+	 * @param neighbors
+	 *            filled with the neighbour ids, if they fit.
+	 * @return the number of neighbours; when it is larger than the array
+	 *         nothing was copied.
+	 */
+	private static int readNeighbors(IndexedGraph graph, int v, boolean out,
+			int[] neighbors) {
+		int degree = out ? graph.getOutDegree(v) : graph.getInDegree(v);
+		for (int i = 0; i < degree && i < neighbors.length; i++) {
+			neighbors[i] = out ? graph.getOutNeighbor(v, i) : graph
+					.getInNeighbor(v, i);
+		}
+		return degree;
 	}
 
 	/**
-	 * An information class.
-	 * @author wrp
-	 * 15/03/2008
-	 *
+	 * Extract a path of vertex ids following the parents from v.
+	 * 
+	 * @param v
+	 *            the last vertex of the path.
+	 * @param parent
+	 *            the parent of each reached vertex, -1 for the source.
+	 * @return the ids of the vertices in the path.
 	 */
-	private class NodeInfo {
-		private Vertex<T> parent;
-		private Vertex<T> v;
-		private VertexVisitationStatus searchState;
+	private int[] extractPath(int v, int[] parent) {
+		int length = 0;
+		for (int w = v; w != -1; w = parent[w])
+			length++;
 
-		public NodeInfo(Vertex<T> v) {
-			this.v = v;
-			this.searchState = VertexVisitationStatus.NotVisited;
-			this.parent = null;
+		int[] path = new int[length];
+		for (int w = v; w != -1; w = parent[w])
+			path[--length] = w;
+		return path;
+	}
+
+	/**
+	 * Map a path of vertex ids to the vertices of the graph.
+	 * 
+	 * @param path
+	 *            the ids of the vertices in the path.
+	 * @return the vertices in the path.
+	 */
+	@SuppressWarnings("unchecked")
+	private Vertex<T>[] toVertices(int[] path) {
+		Vertex<T>[] l = new Vertex[path.length];
+		for (int i = 0; i < l.length; i++) {
+			l[i] = this.g.getVertex(path[i]);
 		}
+		return l;
 	}
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+/**
+ * Called by a {@link BreadthFirstIterator} for each vertex it returns.
+ * 
+ * @author wrp
+ */
+public interface BreadthFirstVisitor {
+	/**
+	 * Visit a vertex reached by the traversal.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @param depth
+	 *            the number of arcs from the source to the vertex.
+	 * @return TRUE to follow the output arcs of the vertex or FALSE to leave
+	 *         the vertices reached only through it out of the traversal.
+	 */
+	public abstract boolean visit(int v, int depth);
+}
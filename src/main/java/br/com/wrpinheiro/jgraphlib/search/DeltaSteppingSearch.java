@@ -0,0 +1,572 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * The delta-stepping single source shortest path search of Meyer and Sanders,
+ * run by several threads. The vertices are kept in buckets of distances
+ * delta wide and the buckets are settled in order. The arcs cheaper than delta
+ * (light) of the vertices in the current bucket are relaxed in parallel,
+ * repeatedly, until the bucket stays empty; then the other arcs (heavy) of
+ * the vertices removed from it are relaxed once, also in parallel.
+ * 
+ * The distances are updated with a compare-and-set, so threads relaxing arcs
+ * to the same vertex keep the smallest distance. Each search first copies the
+ * arcs and their costs to arrays with the light arcs of each vertex before the
+ * heavy ones. The distances found are the ones {@link DijkstraSearch} finds.
+ * 
+ * A small delta settles few vertices at a time, like Dijkstra, leaving little
+ * work for the threads; a large one relaxes arcs many times, like
+ * Bellman-Ford. By default delta is the largest arc cost divided by the
+ * average output degree.
+ * 
+ * The graph must not change during a search.
+ * 
+ * @author wrp
+ */
+public class DeltaSteppingSearch<T> {
+	/**
+	 * Below this number of vertices a range of a bucket is relaxed by a
+	 * single thread.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 256;
+
+	/**
+	 * The number of vertices a thread keeps before copying them to the
+	 * updated ones.
+	 */
+	private static final int BUFFER_SIZE = 512;
+
+	/**
+	 * The distance of the vertices not reached, as stored.
+	 */
+	private static final long UNREACHED = Double
+			.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+	/**
+	 * The graph where the search is being executed.
+	 */
+	private final Graph<T> g;
+
+	/**
+	 * The cost of the arcs, or null if they are in weights.
+	 */
+	private final ArcWeight<T> weight;
+
+	/**
+	 * The cost of the arcs indexed by arc id, or null if they come from
+	 * weight.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The pool running the searches, or null to create one for each search.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of threads of the pools created for each search.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The width of the buckets, or NaN to choose it for each search.
+	 */
+	private double delta = Double.NaN;
+
+	/**
+	 * Creates a search that runs each search on a pool of its own.
+	 * 
+	 * @param g
+	 *            the graph.
+	 * @param weight
+	 *            the cost of the arcs.
+	 */
+	public DeltaSteppingSearch(Graph<T> g, ArcWeight<T> weight) {
+		this(g, weight, null, null);
+	}
+
+	/**
+	 * Creates a search that runs each search on a pool of its own.
+	 * 
+	 * @param g
+	 *            the graph.
+	 * @param weights
+	 *            the cost of the arcs indexed by arc id. The array is not
+	 *            copied.
+	 */
+	public DeltaSteppingSearch(Graph<T> g, double[] weights) {
+		this(g, null, weights, null);
+	}
+
+	/**
+	 * Creates a search that runs on a shared pool. The pool is not shut down
+	 * by the search.
+	 * 
+	 * @param g
+	 *            the graph.
+	 * @param weight
+	 *            the cost of the arcs.
+	 * @param pool
+	 *            the pool running the searches.
+	 */
+	public DeltaSteppingSearch(Graph<T> g, ArcWeight<T> weight,
+			ForkJoinPool pool) {
+		this(g, weight, null, pool);
+	}
+
+	/**
+	 * Creates a search that runs on a shared pool. The pool is not shut down
+	 * by the search.
+	 * 
+	 * @param g
+	 *            the graph.
+	 * @param weights
+	 *            the cost of the arcs indexed by arc id. The array is not
+	 *            copied.
+	 * @param pool
+	 *            the pool running the searches.
+	 */
+	public DeltaSteppingSearch(Graph<T> g, double[] weights, ForkJoinPool pool) {
+		this(g, null, weights, pool);
+	}
+
+	private DeltaSteppingSearch(Graph<T> g, ArcWeight<T> weight,
+			double[] weights, ForkJoinPool pool) {
+		if (weight == null && weights == null)
+			throw new NullPointerException();
+		this.g = g;
+		this.weight = weight;
+		this.weights = weights;
+		this.pool = pool;
+	}
+
+	/**
+	 * Set the number of threads of the pool created for each search. It is
+	 * not used when the search was created with a pool.
+	 * 
+	 * @param parallelism
+	 *            the number of threads, by default the number of processors.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the width of the buckets.
+	 * 
+	 * @param delta
+	 *            the width, larger than 0, or NaN to choose it for each
+	 *            search.
+	 */
+	public void setDelta(double delta) {
+		if (delta <= 0 || delta == Double.POSITIVE_INFINITY)
+			throw new IllegalArgumentException("Invalid delta: " + delta);
+		this.delta = delta;
+	}
+
+	/**
+	 * Return the width of the buckets.
+	 * 
+	 * @return the width or NaN if it is chosen for each search.
+	 */
+	public double getDelta() {
+		return this.delta;
+	}
+
+	/**
+	 * Return the cost of a shortest path from u to every vertex.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @return the costs indexed by vertex id, {@link Double#POSITIVE_INFINITY}
+	 *         for the vertices not reached.
+	 */
+	public double[] getDistances(int u) {
+		if (!this.g.containsVertex(u))
+			throw new InvalidVertexException();
+
+		Run run = this.prepare();
+		ForkJoinPool pool = this.pool != null ? this.pool : new ForkJoinPool(
+				this.parallelism);
+		try {
+			run.settle(u, pool);
+		} finally {
+			if (this.pool == null)
+				pool.shutdown();
+		}
+
+		double[] distances = new double[run.n];
+		for (int v = 0; v < distances.length; v++) {
+			distances[v] = Double.longBitsToDouble(run.distance.get(v));
+		}
+		return distances;
+	}
+
+	/**
+	 * Copy the arcs of the graph and their costs, the light ones of each
+	 * vertex first.
+	 * 
+	 * @return the state of a new search.
+	 */
+	private Run prepare() {
+		int n = this.g.getNumVertex();
+		int m = 0;
+		for (int v = 0; v < n; v++) {
+			if (this.g.containsVertex(v))
+				m += this.g.getVertex(v).getOutDegree();
+		}
+
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[m];
+		double[] costs = new double[m];
+		double maxCost = 0;
+		int p = 0;
+		for (int v = 0; v < n; v++) {
+			offsets[v] = p;
+			if (!this.g.containsVertex(v))
+				continue;
+			Vertex<T> vertex = this.g.getVertex(v);
+			int degree = vertex.getOutDegree();
+			for (int i = 0; i < degree; i++) {
+				Arc<T> arc = vertex.getOutArc(i);
+				Vertex<T> target = arc.getTarget();
+				int w = target == null || target.isRemoved() ? -1 : target
+						.getId();
+				// arcs without a target or to a removed vertex are skipped.
+				if (w < 0)
+					continue;
+				targets[p] = w;
+				costs[p] = this.weight(arc);
+				maxCost = Math.max(maxCost, costs[p]);
+				p++;
+			}
+		}
+		offsets[n] = p;
+
+		double delta = this.delta;
+		if (Double.isNaN(delta)) {
+			delta = p == 0 || maxCost == 0 ? 1 : maxCost * n / p;
+		}
+
+		// move the light arcs of each vertex before its heavy ones.
+		int[] lightEnd = new int[n];
+		for (int v = 0; v < n; v++) {
+			int light = offsets[v];
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (costs[i] < delta) {
+					int t = targets[i];
+					targets[i] = targets[light];
+					targets[light] = t;
+					double c = costs[i];
+					costs[i] = costs[light];
+					costs[light] = c;
+					light++;
+				}
+			}
+			lightEnd[v] = light;
+		}
+		return new Run(n, delta, offsets, lightEnd, targets, costs);
+	}
+
+	/**
+	 * Return the cost of an arc.
+	 * 
+	 * @param arc
+	 *            the arc.
+	 * @return the cost.
+	 * @throws IllegalArgumentException
+	 *             if the cost is negative or NaN.
+	 */
+	private double weight(Arc<T> arc) {
+		double w = this.weights != null ? this.weights[arc.getId()]
+				: this.weight.getWeight(arc);
+		if (!(w >= 0))
+			throw new IllegalArgumentException("Invalid weight " + w
+					+ " of arc " + arc.getId());
+		return w;
+	}
+
+	/**
+	 * The state of a search.
+	 */
+	private static class Run {
+		final int n;
+		final double delta;
+		final int[] offsets;
+		final int[] lightEnd;
+		final int[] targets;
+		final double[] costs;
+
+		/**
+		 * The raw bits of the distance of each vertex. The bits of
+		 * non-negative doubles are ordered as the doubles are.
+		 */
+		final AtomicLongArray distance;
+
+		/**
+		 * The last relaxation that added each vertex to the updated ones.
+		 */
+		final AtomicIntegerArray claimed;
+
+		/**
+		 * The number of the running relaxation.
+		 */
+		int relaxation;
+
+		/**
+		 * The vertices whose distance decreased in the running relaxation.
+		 */
+		final int[] updated;
+		final AtomicInteger updatedSize = new AtomicInteger();
+
+		/**
+		 * The vertices in the non-empty buckets, by bucket number, so the
+		 * search jumps over the empty ones. A vertex stays in the buckets it
+		 * left when its distance decreases, and is skipped there.
+		 */
+		final TreeMap<Long, IntList> buckets = new TreeMap<Long, IntList>();
+
+		/**
+		 * The number of buckets taken so far.
+		 */
+		int round;
+
+		/**
+		 * The round in which each vertex was last taken into a frontier, and
+		 * in which it was last removed.
+		 */
+		final int[] inFrontier;
+		final int[] removed;
+
+		Run(int n, double delta, int[] offsets, int[] lightEnd,
+				int[] targets, double[] costs) {
+			this.n = n;
+			this.delta = delta;
+			this.offsets = offsets;
+			this.lightEnd = lightEnd;
+			this.targets = targets;
+			this.costs = costs;
+			this.distance = new AtomicLongArray(n);
+			for (int v = 0; v < n; v++) {
+				this.distance.lazySet(v, UNREACHED);
+			}
+			this.claimed = new AtomicIntegerArray(n);
+			this.updated = new int[n];
+			this.inFrontier = new int[n];
+			this.removed = new int[n];
+		}
+
+		/**
+		 * Settle every vertex reachable from a source.
+		 */
+		void settle(int source, ForkJoinPool pool) {
+			this.distance.set(source, 0);
+			this.add(source);
+
+			int[] frontier = new int[this.n];
+			IntList settled = new IntList();
+			Map.Entry<Long, IntList> first;
+			while ((first = this.buckets.pollFirstEntry()) != null) {
+				// rounding may put a vertex reached by a heavy arc back in
+				// this bucket; the bucket is then taken again.
+				long b = first.getKey();
+				int round = ++this.round;
+				settled.size = 0;
+				IntList bucket = first.getValue();
+				do {
+					// the vertices still in this bucket, once each.
+					int size = 0;
+					for (int i = 0; i < bucket.size; i++) {
+						int v = bucket.items[i];
+						if (this.bucket(v) == b && this.inFrontier[v] != round) {
+							this.inFrontier[v] = round;
+							frontier[size++] = v;
+							if (this.removed[v] != round) {
+								this.removed[v] = round;
+								settled.add(v);
+							}
+						}
+					}
+					this.relax(frontier, size, true, pool);
+					// a vertex may come back to this bucket with a smaller
+					// distance; it is taken again then.
+					for (int i = 0; i < size; i++)
+						this.inFrontier[frontier[i]] = 0;
+				} while ((bucket = this.buckets.remove(b)) != null);
+				this.relax(settled.items, settled.size, false, pool);
+			}
+		}
+
+		/**
+		 * Relax the light or heavy arcs of some vertices and move the vertices
+		 * whose distance decreased to their buckets.
+		 */
+		private void relax(int[] vertices, int size, boolean light,
+				ForkJoinPool pool) {
+			if (size == 0)
+				return;
+			this.relaxation++;
+			this.updatedSize.set(0);
+			RelaxTask task = new RelaxTask(this, vertices, 0, size, light);
+			if (size <= SEQUENTIAL_THRESHOLD)
+				task.compute();
+			else
+				pool.invoke(task);
+
+			int updatedSize = this.updatedSize.get();
+			for (int i = 0; i < updatedSize; i++) {
+				this.add(this.updated[i]);
+			}
+		}
+
+		/**
+		 * Return the bucket of a vertex, from its distance.
+		 */
+		private long bucket(int v) {
+			double d = Double.longBitsToDouble(this.distance.get(v));
+			return (long) (d / this.delta);
+		}
+
+		/**
+		 * Add a vertex to the bucket of its distance.
+		 */
+		private void add(int v) {
+			Long b = this.bucket(v);
+			IntList bucket = this.buckets.get(b);
+			if (bucket == null) {
+				bucket = new IntList();
+				this.buckets.put(b, bucket);
+			}
+			bucket.add(v);
+		}
+
+		/**
+		 * Lower the distance of a vertex if it is larger, and add the vertex
+		 * to the updated ones the first time it is lowered in the running
+		 * relaxation.
+		 * 
+		 * @return TRUE if the vertex must be added to the updated ones.
+		 */
+		boolean lower(int v, double d) {
+			long bits = Double.doubleToRawLongBits(d);
+			for (;;) {
+				long current = this.distance.get(v);
+				if (bits >= current)
+					return false;
+				if (this.distance.compareAndSet(v, current, bits))
+					break;
+			}
+			int claimed = this.claimed.get(v);
+			return claimed != this.relaxation
+					&& this.claimed.compareAndSet(v, claimed, this.relaxation);
+		}
+	}
+
+	/**
+	 * Relaxes the light or heavy arcs of a range of vertices.
+	 */
+	private static class RelaxTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Run run;
+		private final int[] vertices;
+		private final int from;
+		private final int to;
+		private final boolean light;
+
+		public RelaxTask(Run run, int[] vertices, int from, int to,
+				boolean light) {
+			this.run = run;
+			this.vertices = vertices;
+			this.from = from;
+			this.to = to;
+			this.light = light;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > SEQUENTIAL_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new RelaxTask(this.run, this.vertices, this.from,
+						middle, this.light), new RelaxTask(this.run,
+						this.vertices, middle, this.to, this.light));
+				return;
+			}
+
+			Run run = this.run;
+			int[] buffer = new int[BUFFER_SIZE];
+			int buffered = 0;
+			for (int p = this.from; p < this.to; p++) {
+				int v = this.vertices[p];
+				double d = Double.longBitsToDouble(run.distance.get(v));
+				int start = this.light ? run.offsets[v] : run.lightEnd[v];
+				int end = this.light ? run.lightEnd[v] : run.offsets[v + 1];
+				for (int i = start; i < end; i++) {
+					int w = run.targets[i];
+					if (run.lower(w, d + run.costs[i])) {
+						if (buffered == buffer.length) {
+							this.flush(buffer, buffered);
+							buffered = 0;
+						}
+						buffer[buffered++] = w;
+					}
+				}
+			}
+			this.flush(buffer, buffered);
+		}
+
+		/**
+		 * Copy the vertices updated by this task to the updated ones.
+		 */
+		private void flush(int[] buffer, int length) {
+			if (length > 0) {
+				int start = this.run.updatedSize.getAndAdd(length);
+				System.arraycopy(buffer, 0, this.run.updated, start, length);
+			}
+		}
+	}
+
+	/**
+	 * A growable list of ints.
+	 */
+	private static class IntList {
+		int[] items = new int[16];
+		int size;
+
+		void add(int v) {
+			if (this.size == this.items.length) {
+				int[] items = new int[2 * this.size];
+				System.arraycopy(this.items, 0, items, 0, this.size);
+				this.items = items;
+			}
+			this.items[this.size++] = v;
+		}
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * Dijkstra's shortest path search over a graph whose arcs have non-negative
+ * costs. The costs come from an {@link ArcWeight} or from an array indexed by
+ * arc id.
+ * 
+ * The vertices to settle are kept in a binary heap of vertex ids that
+ * decreases keys in place. The heap and the arrays indexed by vertex id are
+ * kept between the searches run by each thread, so after the first search a
+ * search allocates only its result. A search object may be shared by several
+ * threads.
+ * 
+ * The graph must not change during a search.
+ * 
+ * @author wrp
+ */
+public class DijkstraSearch<T> {
+	/**
+	 * The graph where the search is being executed.
+	 */
+	private final Graph<T> g;
+
+	/**
+	 * The cost of the arcs, or null if they are in weights.
+	 */
+	private final ArcWeight<T> weight;
+
+	/**
+	 * The cost of the arcs indexed by arc id, or null if they come from
+	 * weight.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The workspace of the searches run by each thread.
+	 */
+	private final ThreadLocal<ShortestPathWorkspace> workspaces = new ThreadLocal<ShortestPathWorkspace>();
+
+	/**
+	 * @param g
+	 *            the graph.
+	 * @param weight
+	 *            the cost of the arcs.
+	 */
+	public DijkstraSearch(Graph<T> g, ArcWeight<T> weight) {
+		if (weight == null)
+			throw new NullPointerException();
+		this.g = g;
+		this.weight = weight;
+		this.weights = null;
+	}
+
+	/**
+	 * @param g
+	 *            the graph.
+	 * @param weights
+	 *            the cost of the arcs indexed by arc id. The array is not
+	 *            copied.
+	 */
+	public DijkstraSearch(Graph<T> g, double[] weights) {
+		if (weights == null)
+			throw new NullPointerException();
+		this.g = g;
+		this.weight = null;
+		this.weights = weights;
+	}
+
+	/**
+	 * Searches a shortest path from u to v.
+	 * 
+	 * @param u
+	 *            the source vertex.
+	 * @param v
+	 *            the target vertex.
+	 * @return the vertices in the path from u to v or an empty array if there
+	 *         is no such path.
+	 */
+	@SuppressWarnings("unchecked")
+	public Vertex<T>[] search(Vertex<T> u, Vertex<T> v) {
+		if (!u.getGraph().equals(this.g))
+			throw new InvalidVertexException();
+		if (!v.getGraph().equals(this.g))
+			return new Vertex[0];
+
+		int[] path = this.search(u.getId(), v.getId());
+		Vertex<T>[] l = new Vertex[path.length];
+		for (int i = 0; i < l.length; i++) {
+			l[i] = this.g.getVertex(path[i]);
+		}
+		return l;
+	}
+
+	/**
+	 * Searches a shortest path from u to v by vertex ids.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	public int[] search(int u, int v) {
+		ShortestPathWorkspace workspace = this.run(u, v, true);
+		if (!workspace.isReached(v) || workspace.isQueued(v))
+			return new int[0];
+
+		int[] parent = workspace.parent;
+		int length = 0;
+		for (int w = v; w != -1; w = parent[w])
+			length++;
+
+		int[] path = new int[length];
+		for (int w = v; w != -1; w = parent[w])
+			path[--length] = w;
+		return path;
+	}
+
+	/**
+	 * Return the cost of a shortest path from u to v.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the sum of the costs of the arcs in the path or
+	 *         {@link Double#POSITIVE_INFINITY} if there is no such path.
+	 */
+	public double getDistance(int u, int v) {
+		ShortestPathWorkspace workspace = this.run(u, v, true);
+		if (!workspace.isReached(v) || workspace.isQueued(v))
+			return Double.POSITIVE_INFINITY;
+		return workspace.distance[v];
+	}
+
+	/**
+	 * Return the cost of a shortest path from u to every vertex.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @return the costs indexed by vertex id, {@link Double#POSITIVE_INFINITY}
+	 *         for the vertices not reached.
+	 */
+	public double[] getDistances(int u) {
+		return this.distances(u, true);
+	}
+
+	/**
+	 * Return the cost of a shortest path from every vertex to v, following
+	 * the input arcs from v.
+	 * 
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the costs indexed by vertex id, {@link Double#POSITIVE_INFINITY}
+	 *         for the vertices that do not reach v.
+	 */
+	public double[] getDistancesTo(int v) {
+		return this.distances(v, false);
+	}
+
+	/**
+	 * Return the cost of a shortest path from or to u for every vertex.
+	 * 
+	 * @param u
+	 *            the id of the vertex.
+	 * @param out
+	 *            TRUE to follow the output arcs from u or FALSE to follow the
+	 *            input ones.
+	 * @return the costs indexed by vertex id.
+	 */
+	private double[] distances(int u, boolean out) {
+		ShortestPathWorkspace workspace = this.run(u, -1, out);
+		double[] distances = new double[this.g.getNumVertex()];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		for (int v = 0; v < distances.length; v++) {
+			if (workspace.isReached(v))
+				distances[v] = workspace.distance[v];
+		}
+		return distances;
+	}
+
+	/**
+	 * Settle the vertices from u in order of distance until v is settled.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex or -1 to settle every reachable
+	 *            vertex.
+	 * @param out
+	 *            TRUE to follow the output arcs or FALSE to follow the input
+	 *            ones.
+	 * @return the workspace with the distances and parents of the vertices
+	 *         reached.
+	 */
+	private ShortestPathWorkspace run(int u, int v, boolean out) {
+		if (!this.g.containsVertex(u) || (v != -1 && !this.g.containsVertex(v)))
+			throw new InvalidVertexException();
+
+		int n = this.g.getNumVertex();
+		ShortestPathWorkspace workspace = this.workspaces.get();
+		if (workspace == null) {
+			workspace = new ShortestPathWorkspace();
+			this.workspaces.set(workspace);
+		}
+		workspace.start(n);
+		double[] distance = workspace.distance;
+		int[] parent = workspace.parent;
+
+		workspace.reach(u);
+		distance[u] = 0;
+		parent[u] = -1;
+		workspace.enqueue(u, v == -1 ? 0 : this.estimate(u, v));
+		while (!workspace.isEmpty()) {
+			int current = workspace.poll();
+			if (current == v)
+				break;
+
+			Vertex<T> vertex = this.g.getVertex(current);
+			double d = distance[current];
+			int degree = out ? vertex.getOutDegree() : vertex.getInDegree();
+			for (int i = 0; i < degree; i++) {
+				Arc<T> arc = out ? vertex.getOutArc(i) : vertex.getInArc(i);
+				Vertex<T> neighbor = out ? arc.getTarget() : arc.getSource();
+				int w = neighbor == null || neighbor.isRemoved() ? -1 : neighbor
+						.getId();
+				// arcs without an ending or to a removed vertex are skipped.
+				if (w < 0)
+					continue;
+				double nd = d + this.weight(arc);
+				if (!workspace.isReached(w)) {
+					workspace.reach(w);
+				} else if (!workspace.isQueued(w) || nd >= distance[w]) {
+					continue;
+				}
+				distance[w] = nd;
+				parent[w] = current;
+				double key = v == -1 ? nd : nd + this.estimate(w, v);
+				// the vertices that cannot reach the target are not expanded.
+				if (key < Double.POSITIVE_INFINITY)
+					workspace.enqueue(w, key);
+			}
+		}
+		return workspace;
+	}
+
+	/**
+	 * Return a lower bound of the cost of a path from a vertex to the target,
+	 * added to the keys of the vertices to settle the ones towards the target
+	 * first. It is 0 here, for plain Dijkstra.
+	 * 
+	 * @param v
+	 *            the id of the vertex.
+	 * @param target
+	 *            the id of the target vertex.
+	 * @return the lower bound.
+	 */
+	double estimate(int v, int target) {
+		return 0;
+	}
+
+	/**
+	 * Return the graph searched.
+	 * 
+	 * @return the graph.
+	 */
+	public Graph<T> getGraph() {
+		return this.g;
+	}
+
+	/**
+	 * Return the cost of an arc.
+	 * 
+	 * @param arc
+	 *            the arc.
+	 * @return the cost.
+	 * @throws IllegalArgumentException
+	 *             if the cost is negative or NaN.
+	 */
+	private double weight(Arc<T> arc) {
+		double w = this.weights != null ? this.weights[arc.getId()]
+				: this.weight.getWeight(arc);
+		if (!(w >= 0))
+			throw new IllegalArgumentException("Invalid weight " + w
+					+ " of arc " + arc.getId());
+		return w;
+	}
+}
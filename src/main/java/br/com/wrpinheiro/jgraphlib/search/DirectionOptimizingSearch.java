@@ -0,0 +1,282 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * A direction-optimizing breadth first search (Beamer, Asanovic and
+ * Patterson). Levels with a small frontier are expanded top-down, following
+ * the output arcs of the frontier. When the arcs leaving the frontier
+ * outnumber a fraction of the arcs still unexplored, the search turns
+ * bottom-up: every unvisited vertex looks for a parent among its input
+ * neighbours and stops at the first one in the frontier. It turns back
+ * top-down when the frontier becomes small again.
+ * 
+ * On low-diameter graphs, like scale-free ones, most vertices are reached in
+ * a few large levels, and checking them bottom-up skips most of their arcs.
+ * The visited set and the bottom-up frontiers are bit sets over vertex ids.
+ * 
+ * The graph must not change during a search. Search a
+ * {@link br.com.wrpinheiro.jgraphlib.Graph#snapshot()} or a
+ * {@link br.com.wrpinheiro.jgraphlib.FrozenGraph} of a graph being changed.
+ * 
+ * @author wrp
+ */
+public class DirectionOptimizingSearch {
+	/**
+	 * The default alpha, from the paper.
+	 */
+	private static final int DEFAULT_ALPHA = 15;
+
+	/**
+	 * The default beta, from the paper.
+	 */
+	private static final int DEFAULT_BETA = 18;
+
+	/**
+	 * The graph where the search is being executed.
+	 */
+	private final IndexedGraph g;
+
+	/**
+	 * The search turns bottom-up when the arcs leaving the frontier are more
+	 * than 1/alpha of the arcs still unexplored.
+	 */
+	private int alpha = DEFAULT_ALPHA;
+
+	/**
+	 * The search turns back top-down when the frontier shrinks below 1/beta
+	 * of the vertices.
+	 */
+	private int beta = DEFAULT_BETA;
+
+	/**
+	 * @param g
+	 *            the graph, which must have its input arcs.
+	 */
+	public DirectionOptimizingSearch(IndexedGraph g) {
+		this.g = g;
+	}
+
+	/**
+	 * Set when the search turns bottom-up. Larger values turn it sooner.
+	 * 
+	 * @param alpha
+	 *            the search turns bottom-up when the arcs leaving the frontier
+	 *            are more than 1/alpha of the arcs still unexplored.
+	 */
+	public void setAlpha(int alpha) {
+		this.alpha = alpha;
+	}
+
+	/**
+	 * Set when the search turns back top-down. Larger values keep it
+	 * bottom-up longer.
+	 * 
+	 * @param beta
+	 *            the search turns top-down when the frontier shrinks below
+	 *            1/beta of the vertices.
+	 */
+	public void setBeta(int beta) {
+		this.beta = beta;
+	}
+
+	/**
+	 * Searches a shortest path from u to v.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	public int[] search(int u, int v) {
+		if (!this.g.containsVertex(u) || !this.g.containsVertex(v))
+			throw new InvalidVertexException();
+
+		int[] parent = this.traverse(u, v);
+		if (parent[v] == -1)
+			return new int[0];
+
+		int length = 1;
+		for (int w = v; w != u; w = parent[w])
+			length++;
+
+		int[] path = new int[length];
+		for (int w = v; w != u; w = parent[w])
+			path[--length] = w;
+		path[0] = u;
+		return path;
+	}
+
+	/**
+	 * Searches every vertex reachable from u.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @return the parent of every vertex in a shortest path from u, indexed
+	 *         by vertex id: u for u itself and -1 for the vertices not
+	 *         reached.
+	 */
+	public int[] getParents(int u) {
+		if (!this.g.containsVertex(u))
+			throw new InvalidVertexException();
+		return this.traverse(u, -1);
+	}
+
+	/**
+	 * Run the search from a source until a target is reached.
+	 * 
+	 * @param source
+	 *            the id of the source vertex.
+	 * @param target
+	 *            the id of the target vertex, or -1 to reach every vertex.
+	 * @return the parent of every reached vertex, -1 for the others.
+	 */
+	private int[] traverse(int source, int target) {
+		int n = this.g.getNumVertex();
+		int[] parent = new int[n];
+		Arrays.fill(parent, -1);
+		long[] visited = new long[(n + 63) >>> 6];
+
+		long unexplored = 0;
+		for (int v = 0; v < n; v++) {
+			unexplored += this.g.getOutDegree(v);
+		}
+
+		int[] queue = new int[n];
+		int head = 0;
+		int tail = 0;
+		long[] frontier = null;
+		long[] next = null;
+
+		parent[source] = source;
+		set(visited, source);
+		queue[tail++] = source;
+		long scout = this.g.getOutDegree(source);
+
+		while (head < tail && (target < 0 || parent[target] == -1)) {
+			if (scout > unexplored / this.alpha) {
+				if (frontier == null) {
+					frontier = new long[visited.length];
+					next = new long[visited.length];
+				} else {
+					Arrays.fill(frontier, 0);
+				}
+				for (int q = head; q < tail; q++) {
+					set(frontier, queue[q]);
+				}
+
+				int awake = tail - head;
+				int old;
+				do {
+					old = awake;
+					Arrays.fill(next, 0);
+					awake = this.bottomUpStep(frontier, next, visited, parent);
+					long[] swap = frontier;
+					frontier = next;
+					next = swap;
+				} while (awake > 0 && (target < 0 || parent[target] == -1)
+						&& (awake >= old || awake > n / this.beta));
+
+				head = 0;
+				tail = 0;
+				for (int k = 0; k < frontier.length; k++) {
+					long word = frontier[k];
+					while (word != 0) {
+						queue[tail++] = (k << 6) + Long.numberOfTrailingZeros(word);
+						word &= word - 1;
+					}
+				}
+				scout = 1;
+			} else {
+				unexplored -= scout;
+				scout = 0;
+				int end = tail;
+				for (; head < end; head++) {
+					int current = queue[head];
+					int degree = this.g.getOutDegree(current);
+					for (int i = 0; i < degree; i++) {
+						int w = this.g.getOutNeighbor(current, i);
+						if (w >= 0 && w < n && !get(visited, w)) {
+							set(visited, w);
+							parent[w] = current;
+							queue[tail++] = w;
+							scout += this.g.getOutDegree(w);
+							if (w == target)
+								return parent;
+						}
+					}
+				}
+			}
+		}
+		return parent;
+	}
+
+	/**
+	 * Expand a level bottom-up: every unvisited vertex with an input
+	 * neighbour in the frontier joins the next frontier.
+	 * 
+	 * @return the number of vertices in the next frontier.
+	 */
+	private int bottomUpStep(long[] frontier, long[] next, long[] visited,
+			int[] parent) {
+		int n = parent.length;
+		int awake = 0;
+		for (int k = 0; k < visited.length; k++) {
+			long unvisited = ~visited[k];
+			if (k == visited.length - 1 && (n & 63) != 0)
+				unvisited &= (1L << (n & 63)) - 1;
+
+			while (unvisited != 0) {
+				int v = (k << 6) + Long.numberOfTrailingZeros(unvisited);
+				unvisited &= unvisited - 1;
+
+				int degree = this.g.getInDegree(v);
+				for (int i = 0; i < degree; i++) {
+					int w = this.g.getInNeighbor(v, i);
+					if (w >= 0 && w < n && get(frontier, w)) {
+						parent[v] = w;
+						set(next, v);
+						visited[k] |= 1L << v;
+						awake++;
+						break;
+					}
+				}
+			}
+		}
+		return awake;
+	}
+
+	/**
+	 * Check if a bit set has a vertex.
+	 */
+	private static boolean get(long[] bits, int v) {
+		return (bits[v >>> 6] & (1L << v)) != 0;
+	}
+
+	/**
+	 * Add a vertex to a bit set.
+	 */
+	private static void set(long[] bits, int v) {
+		bits[v >>> 6] |= 1L << v;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+/**
+ * Estimates the cost of a shortest path between two vertices for an
+ * {@link AStarSearch}. The estimate must be consistent: never larger than the
+ * cost of an arc from v to w plus the estimate from w, and 0 from the target
+ * to itself. A consistent estimate never exceeds the real cost.
+ * 
+ * @author wrp
+ */
+public interface Heuristic {
+	/**
+	 * Return a lower bound of the cost of a path from v to a target.
+	 * 
+	 * @param v
+	 *            the id of the vertex.
+	 * @param target
+	 *            the id of the target vertex.
+	 * @return the lower bound, not negative, or
+	 *         {@link Double#POSITIVE_INFINITY} if v does not reach the target.
+	 */
+	public abstract double estimate(int v, int target);
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import br.com.wrpinheiro.jgraphlib.Graph;
+
+/**
+ * The ALT estimate (A*, landmarks and the triangle inequality) of Goldberg and
+ * Harrelson. The distances from and to a few landmark vertices are computed
+ * once; then for any landmark L the distance from v to t is at least
+ * d(L, t) - d(L, v) and d(v, L) - d(t, L), and the estimate is the largest of
+ * these bounds. It is consistent, so an {@link AStarSearch} using it finds
+ * shortest paths.
+ * 
+ * The distances are kept in two arrays ordered by vertex and then by
+ * landmark, so an estimate reads two short runs of each array. They take
+ * 16 bytes per vertex and landmark. An instance does not change after it is
+ * built and may be shared by several searches and threads, but it must be
+ * built again when the graph or the arc costs change.
+ * 
+ * @author wrp
+ */
+public class LandmarkHeuristic implements Heuristic {
+	/**
+	 * The landmark vertex ids.
+	 */
+	private final int[] landmarks;
+
+	/**
+	 * The distance from landmark i to vertex v at v * landmarks.length + i.
+	 */
+	private final double[] from;
+
+	/**
+	 * The distance from vertex v to landmark i at v * landmarks.length + i.
+	 */
+	private final double[] to;
+
+	/**
+	 * Compute the distances from and to the given landmarks.
+	 * 
+	 * @param search
+	 *            the search over the graph and arc costs to estimate.
+	 * @param landmarks
+	 *            the landmark vertex ids.
+	 */
+	public LandmarkHeuristic(DijkstraSearch<?> search, int[] landmarks) {
+		int n = search.getGraph().getNumVertex();
+		int k = landmarks.length;
+		this.landmarks = landmarks.clone();
+		this.from = new double[n * k];
+		this.to = new double[n * k];
+		for (int i = 0; i < k; i++) {
+			this.store(this.from, i, search.getDistances(landmarks[i]));
+			this.store(this.to, i, search.getDistancesTo(landmarks[i]));
+		}
+	}
+
+	/**
+	 * Choose landmarks far from each other and compute the distances from
+	 * and to them. The first landmark is the vertex farthest from the first
+	 * vertex of the graph; each next one is the vertex farthest from the
+	 * landmarks already chosen, preferring the ones they do not reach.
+	 * 
+	 * @param search
+	 *            the search over the graph and arc costs to estimate.
+	 * @param numLandmarks
+	 *            the number of landmarks, at most the number of vertices.
+	 */
+	public LandmarkHeuristic(DijkstraSearch<?> search, int numLandmarks) {
+		this(search, chooseLandmarks(search, numLandmarks));
+	}
+
+	/**
+	 * Choose landmarks far from each other.
+	 * 
+	 * @param search
+	 *            the search over the graph.
+	 * @param numLandmarks
+	 *            the number of landmarks.
+	 * @return the landmark vertex ids.
+	 */
+	private static int[] chooseLandmarks(DijkstraSearch<?> search,
+			int numLandmarks) {
+		Graph<?> g = search.getGraph();
+		int n = g.getNumVertex();
+		if (numLandmarks < 0 || numLandmarks > g.getNumLiveVertex())
+			throw new IllegalArgumentException("Invalid number of landmarks: "
+					+ numLandmarks);
+
+		int[] landmarks = new int[numLandmarks];
+		if (numLandmarks == 0)
+			return landmarks;
+
+		int start = 0;
+		while (!g.containsVertex(start))
+			start++;
+
+		// the smallest distance from the landmarks chosen to each vertex.
+		double[] nearest = search.getDistances(start);
+		for (int i = 0; i < numLandmarks; i++) {
+			int farthest = -1;
+			for (int v = 0; v < n; v++) {
+				if (g.containsVertex(v) && nearest[v] > 0
+						&& (farthest == -1 || nearest[v] > nearest[farthest]))
+					farthest = v;
+			}
+			if (farthest == -1) {
+				// every vertex is at distance 0: take any vertex not chosen.
+				farthest = start;
+				while (!g.containsVertex(farthest) || nearest[farthest] < 0)
+					farthest++;
+			}
+			landmarks[i] = farthest;
+
+			if (i == 0) {
+				nearest = search.getDistances(farthest);
+			} else {
+				double[] distances = search.getDistances(farthest);
+				for (int v = 0; v < n; v++) {
+					nearest[v] = Math.min(nearest[v], distances[v]);
+				}
+			}
+			nearest[farthest] = -1;
+			for (int j = 0; j < i; j++)
+				nearest[landmarks[j]] = -1;
+		}
+		return landmarks;
+	}
+
+	/**
+	 * Store the distances of a landmark.
+	 */
+	private void store(double[] table, int i, double[] distances) {
+		int k = this.landmarks.length;
+		for (int v = 0; v < distances.length; v++) {
+			table[v * k + i] = distances[v];
+		}
+	}
+
+	/**
+	 * Return the landmarks.
+	 * 
+	 * @return the landmark vertex ids.
+	 */
+	public int[] getLandmarks() {
+		return this.landmarks.clone();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see br.com.wrpinheiro.jgraphlib.search.Heuristic#estimate(int, int)
+	 */
+	public double estimate(int v, int target) {
+		int k = this.landmarks.length;
+		int vi = v * k;
+		int ti = target * k;
+		double best = 0;
+		for (int i = 0; i < k; i++) {
+			// a landmark that reaches neither vertex, or that neither reaches,
+			// gives NaN and no bound.
+			double d = this.from[ti + i] - this.from[vi + i];
+			if (d > best)
+				best = d;
+			d = this.to[vi + i] - this.to[ti + i];
+			if (d > best)
+				best = d;
+		}
+		return best;
+	}
+}
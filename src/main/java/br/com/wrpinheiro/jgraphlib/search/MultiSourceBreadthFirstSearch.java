@@ -0,0 +1,243 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * A breadth first search from many sources at once (MS-BFS, Then et al.).
+ * Up to 64 sources share a single traversal: each vertex keeps a 64-bit mask
+ * of the sources that reached it, and a level expands the masks of all the
+ * sources with a few bitwise operations per arc instead of one search per
+ * source. Larger batches are split in groups of 64 sources.
+ * 
+ * Paths are rebuilt from the distances, following the input arcs back from
+ * the target, so the graph must have its input arcs. The graph must not
+ * change during a search. Search a
+ * {@link br.com.wrpinheiro.jgraphlib.Graph#snapshot()} or a
+ * {@link br.com.wrpinheiro.jgraphlib.FrozenGraph} of a graph being changed.
+ * 
+ * @author wrp
+ */
+public class MultiSourceBreadthFirstSearch {
+	/**
+	 * The number of sources sharing a traversal, one per bit of the masks.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	/**
+	 * The graph where the search is being executed.
+	 */
+	private final IndexedGraph g;
+
+	/**
+	 * @param g
+	 *            the graph.
+	 */
+	public MultiSourceBreadthFirstSearch(IndexedGraph g) {
+		this.g = g;
+	}
+
+	/**
+	 * Searches the distances from each source to every vertex.
+	 * 
+	 * @param sources
+	 *            the ids of the source vertices.
+	 * @return the distances from the ith source indexed by vertex id, -1 for
+	 *         the vertices not reached.
+	 */
+	public int[][] getDistances(int[] sources) {
+		this.checkVertices(sources);
+
+		int[][] distances = new int[sources.length][];
+		for (int from = 0; from < sources.length; from += BATCH_SIZE) {
+			int k = Math.min(BATCH_SIZE, sources.length - from);
+			int[][] batch = this.traverse(sources, null, from, k);
+			System.arraycopy(batch, 0, distances, from, k);
+		}
+		return distances;
+	}
+
+	/**
+	 * Searches a shortest path for each pair of source and target. The search
+	 * of a group of sources stops when all of their targets are reached.
+	 * 
+	 * @param sources
+	 *            the ids of the source vertices.
+	 * @param targets
+	 *            the ids of the target vertices, one for each source.
+	 * @return the ids of the vertices in the path from the ith source to the
+	 *         ith target, or an empty array if there is no such path.
+	 * @throws IllegalArgumentException
+	 *             if there are not as many targets as sources.
+	 */
+	public int[][] search(int[] sources, int[] targets) {
+		if (sources.length != targets.length)
+			throw new IllegalArgumentException(
+					"There must be a target for each source.");
+		this.checkVertices(sources);
+		this.checkVertices(targets);
+
+		int[][] paths = new int[sources.length][];
+		for (int from = 0; from < sources.length; from += BATCH_SIZE) {
+			int k = Math.min(BATCH_SIZE, sources.length - from);
+			int[][] distances = this.traverse(sources, targets, from, k);
+			for (int i = 0; i < k; i++) {
+				paths[from + i] = this.extractPath(distances[i],
+						targets[from + i]);
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Check that every id is a vertex of the graph.
+	 */
+	private void checkVertices(int[] ids) {
+		for (int v : ids) {
+			if (!this.g.containsVertex(v))
+				throw new InvalidVertexException();
+		}
+	}
+
+	/**
+	 * Run a group of up to 64 sources in a single traversal.
+	 * 
+	 * @param sources
+	 *            the ids of the source vertices.
+	 * @param targets
+	 *            the ids of the target vertices, or null to reach every
+	 *            vertex.
+	 * @param from
+	 *            the position of the first source of the group.
+	 * @param k
+	 *            the number of sources of the group.
+	 * @return the distances from each source of the group, -1 for the
+	 *         vertices not reached.
+	 */
+	private int[][] traverse(int[] sources, int[] targets, int from, int k) {
+		int n = this.g.getNumVertex();
+		int[][] distances = new int[k][n];
+		long[] seen = new long[n];
+		long[] visit = new long[n];
+		long[] visitNext = new long[n];
+		int[] active = new int[n];
+		int[] nextActive = new int[n];
+		int size = 0;
+
+		for (int i = 0; i < k; i++) {
+			Arrays.fill(distances[i], -1);
+			int s = sources[from + i];
+			if (visit[s] == 0)
+				active[size++] = s;
+			visit[s] |= 1L << i;
+			seen[s] |= 1L << i;
+			distances[i][s] = 0;
+		}
+		long pending = targets == null ? 0 : this.pending(targets, from, k,
+				seen, -1L >>> (BATCH_SIZE - k));
+
+		for (int level = 1; size > 0 && (targets == null || pending != 0); level++) {
+			int nextSize = 0;
+			for (int a = 0; a < size; a++) {
+				int v = active[a];
+				long bits = visit[v];
+				visit[v] = 0;
+
+				int degree = this.g.getOutDegree(v);
+				for (int i = 0; i < degree; i++) {
+					int w = this.g.getOutNeighbor(v, i);
+					if (w < 0 || w >= n)
+						continue;
+
+					long reached = bits & ~seen[w];
+					if (reached != 0) {
+						if (visitNext[w] == 0)
+							nextActive[nextSize++] = w;
+						visitNext[w] |= reached;
+						seen[w] |= reached;
+						do {
+							distances[Long.numberOfTrailingZeros(reached)][w] = level;
+							reached &= reached - 1;
+						} while (reached != 0);
+					}
+				}
+			}
+
+			long[] swapBits = visit;
+			visit = visitNext;
+			visitNext = swapBits;
+			int[] swapActive = active;
+			active = nextActive;
+			nextActive = swapActive;
+			size = nextSize;
+
+			if (targets != null)
+				pending = this.pending(targets, from, k, seen, pending);
+		}
+		return distances;
+	}
+
+	/**
+	 * Return the sources of a group whose targets were not reached yet.
+	 */
+	private long pending(int[] targets, int from, int k, long[] seen,
+			long pending) {
+		for (int i = 0; i < k; i++) {
+			long bit = 1L << i;
+			if ((pending & bit) != 0 && (seen[targets[from + i]] & bit) != 0)
+				pending &= ~bit;
+		}
+		return pending;
+	}
+
+	/**
+	 * Rebuild a shortest path to a target, going back through input
+	 * neighbours one level closer to the source each time.
+	 * 
+	 * @param distance
+	 *            the distances from the source.
+	 * @param target
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path, or an empty array if the
+	 *         target was not reached.
+	 */
+	private int[] extractPath(int[] distance, int target) {
+		int d = distance[target];
+		if (d < 0)
+			return new int[0];
+
+		int[] path = new int[d + 1];
+		int current = target;
+		path[d] = target;
+		while (d > 0) {
+			d--;
+			int degree = this.g.getInDegree(current);
+			for (int i = 0; i < degree; i++) {
+				int w = this.g.getInNeighbor(current, i);
+				if (w >= 0 && w < distance.length && distance[w] == d) {
+					current = w;
+					break;
+				}
+			}
+			path[d] = current;
+		}
+		return path;
+	}
+}
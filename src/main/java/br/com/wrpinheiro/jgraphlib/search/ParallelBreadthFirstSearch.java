@@ -0,0 +1,268 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * A level-synchronous breadth first search run by several threads. Each level
+ * of the frontier is split in ranges expanded over a ForkJoinPool. A thread
+ * claims a vertex by setting its parent with a compare-and-set, so each
+ * vertex is reached once, and keeps the vertices it claims in a buffer of its
+ * own, copied to the next frontier when full.
+ * 
+ * The paths found are shortest paths, like the ones of
+ * {@link BreadthFirstSearch#search(int, int)}, but when there are several the
+ * one returned depends on the order the threads claim the vertices.
+ * 
+ * The graph must not change during a search. Search a
+ * {@link br.com.wrpinheiro.jgraphlib.Graph#snapshot()} or a
+ * {@link br.com.wrpinheiro.jgraphlib.FrozenGraph} of a graph being changed.
+ * 
+ * @author wrp
+ */
+public class ParallelBreadthFirstSearch {
+	/**
+	 * Below this number of vertices a range of the frontier is expanded by a
+	 * single thread.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 256;
+
+	/**
+	 * The number of vertices a thread keeps before copying them to the next
+	 * frontier.
+	 */
+	private static final int BUFFER_SIZE = 512;
+
+	/**
+	 * The graph where the search is being executed.
+	 */
+	private final IndexedGraph g;
+
+	/**
+	 * The pool running the searches, or null to create one for each search.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of threads of the pools created for each search.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Creates a search that runs each search on a pool of its own.
+	 * 
+	 * @param g
+	 *            the graph.
+	 */
+	public ParallelBreadthFirstSearch(IndexedGraph g) {
+		this(g, null);
+	}
+
+	/**
+	 * Creates a search that runs on a shared pool. The pool is not shut down
+	 * by the search.
+	 * 
+	 * @param g
+	 *            the graph.
+	 * @param pool
+	 *            the pool running the searches.
+	 */
+	public ParallelBreadthFirstSearch(IndexedGraph g, ForkJoinPool pool) {
+		this.g = g;
+		this.pool = pool;
+	}
+
+	/**
+	 * Set the number of threads of the pool created for each search. It is
+	 * not used when the search was created with a pool.
+	 * 
+	 * @param parallelism
+	 *            the number of threads, by default the number of processors.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Searches a shortest path from u to v.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return the ids of the vertices in the path from u to v or an empty
+	 *         array if there is no such path.
+	 */
+	public int[] search(int u, int v) {
+		if (!this.g.containsVertex(u) || !this.g.containsVertex(v))
+			throw new InvalidVertexException();
+
+		AtomicIntegerArray parent = this.traverse(u, v);
+		if (parent.get(v) == -1)
+			return new int[0];
+
+		int length = 1;
+		for (int w = v; w != u; w = parent.get(w))
+			length++;
+
+		int[] path = new int[length];
+		for (int w = v; w != u; w = parent.get(w))
+			path[--length] = w;
+		path[0] = u;
+		return path;
+	}
+
+	/**
+	 * Searches every vertex reachable from u.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @return the parent of every vertex in a shortest path from u, indexed
+	 *         by vertex id: u for u itself and -1 for the vertices not
+	 *         reached.
+	 */
+	public int[] getParents(int u) {
+		if (!this.g.containsVertex(u))
+			throw new InvalidVertexException();
+
+		AtomicIntegerArray parent = this.traverse(u, -1);
+		int[] parents = new int[parent.length()];
+		for (int v = 0; v < parents.length; v++) {
+			parents[v] = parent.get(v);
+		}
+		return parents;
+	}
+
+	/**
+	 * Run the search from a source until a target is reached.
+	 * 
+	 * @param source
+	 *            the id of the source vertex.
+	 * @param target
+	 *            the id of the target vertex, or -1 to reach every vertex.
+	 * @return the parent of every reached vertex, -1 for the others.
+	 */
+	private AtomicIntegerArray traverse(int source, int target) {
+		int n = this.g.getNumVertex();
+		AtomicIntegerArray parent = new AtomicIntegerArray(n);
+		for (int v = 0; v < n; v++) {
+			parent.lazySet(v, -1);
+		}
+		parent.set(source, source);
+
+		int[] frontier = new int[n];
+		int[] next = new int[n];
+		frontier[0] = source;
+		int size = 1;
+
+		ForkJoinPool pool = this.pool != null ? this.pool : new ForkJoinPool(
+				this.parallelism);
+		try {
+			while (size > 0 && (target < 0 || parent.get(target) == -1)) {
+				AtomicInteger nextSize = new AtomicInteger();
+				ExpandTask task = new ExpandTask(parent, frontier, 0, size,
+						next, nextSize);
+				if (size <= SEQUENTIAL_THRESHOLD)
+					task.compute();
+				else
+					pool.invoke(task);
+
+				int[] swap = frontier;
+				frontier = next;
+				next = swap;
+				size = nextSize.get();
+			}
+		} finally {
+			if (this.pool == null)
+				pool.shutdown();
+		}
+		return parent;
+	}
+
+	/**
+	 * Expands a range of the frontier into the next frontier.
+	 */
+	private class ExpandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final AtomicIntegerArray parent;
+		private final int[] frontier;
+		private final int from;
+		private final int to;
+		private final int[] next;
+		private final AtomicInteger nextSize;
+
+		public ExpandTask(AtomicIntegerArray parent, int[] frontier, int from,
+				int to, int[] next, AtomicInteger nextSize) {
+			this.parent = parent;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.next = next;
+			this.nextSize = nextSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > SEQUENTIAL_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ExpandTask(this.parent, this.frontier,
+						this.from, middle, this.next, this.nextSize),
+						new ExpandTask(this.parent, this.frontier, middle,
+								this.to, this.next, this.nextSize));
+				return;
+			}
+
+			IndexedGraph g = ParallelBreadthFirstSearch.this.g;
+			int n = this.parent.length();
+			int[] buffer = new int[BUFFER_SIZE];
+			int buffered = 0;
+			for (int p = this.from; p < this.to; p++) {
+				int current = this.frontier[p];
+				int degree = g.getOutDegree(current);
+				for (int i = 0; i < degree; i++) {
+					int w = g.getOutNeighbor(current, i);
+					if (w >= 0 && w < n && this.parent.get(w) == -1
+							&& this.parent.compareAndSet(w, -1, current)) {
+						if (buffered == buffer.length) {
+							this.flush(buffer, buffered);
+							buffered = 0;
+						}
+						buffer[buffered++] = w;
+					}
+				}
+			}
+			this.flush(buffer, buffered);
+		}
+
+		/**
+		 * Copy the vertices claimed by this task to the next frontier.
+		 */
+		private void flush(int[] buffer, int length) {
+			if (length > 0) {
+				int start = this.nextSize.getAndAdd(length);
+				System.arraycopy(buffer, 0, this.next, start, length);
+			}
+		}
+	}
+}
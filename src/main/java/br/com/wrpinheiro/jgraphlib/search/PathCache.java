@@ -0,0 +1,206 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the paths found by a {@link BreadthFirstSearch}, by
+ * source and target, that drops the least recently used path when full.
+ * 
+ * Each path is stored with the modification count of the graph when the
+ * search started (see
+ * {@link br.com.wrpinheiro.jgraphlib.Graph#getModificationCount()}), and only
+ * if the count was the same when the search ended. Any change to the arcs
+ * may make a shorter path appear or a cached one disappear, so the first
+ * lookup after a change drops every path. Lookups with an older count, from
+ * searches that started before the change, miss without dropping them. The
+ * searches over an {@link br.com.wrpinheiro.jgraphlib.IndexedGraph} have no
+ * modification count: clear the cache if such a graph changes.
+ * 
+ * The cache may be used by several threads.
+ * 
+ * @author wrp
+ */
+public class PathCache {
+	/**
+	 * The maximum number of paths kept.
+	 */
+	private final int capacity;
+
+	/**
+	 * The paths by source and target, from the least to the most recently
+	 * used.
+	 */
+	private final LinkedHashMap<Long, int[]> paths;
+
+	/**
+	 * The modification count of the graph when the paths kept were found.
+	 */
+	private long version;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * @param capacity
+	 *            the maximum number of paths kept, larger than 0.
+	 */
+	PathCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		this.capacity = capacity;
+		this.paths = new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+				if (this.size() <= PathCache.this.capacity)
+					return false;
+				PathCache.this.evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Return the key of a source and a target.
+	 */
+	private static Long key(int u, int v) {
+		return Long.valueOf(((long) u << 32) | (v & 0xffffffffL));
+	}
+
+	/**
+	 * Drop every path if the graph changed since they were found.
+	 * 
+	 * @param version
+	 *            the current modification count of the graph.
+	 */
+	private void validate(long version) {
+		if (version > this.version) {
+			this.invalidations += this.paths.size();
+			this.paths.clear();
+			this.version = version;
+		}
+	}
+
+	/**
+	 * Return the path from u to v, if kept.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @param version
+	 *            the current modification count of the graph.
+	 * @return a copy of the path or null if it is not kept.
+	 */
+	synchronized int[] get(int u, int v, long version) {
+		this.validate(version);
+		int[] path = version == this.version ? this.paths.get(key(u, v))
+				: null;
+		if (path == null) {
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		return path.clone();
+	}
+
+	/**
+	 * Keep the path from u to v, unless the graph changed since the search
+	 * started.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @param version
+	 *            the modification count of the graph when the search started.
+	 * @param path
+	 *            the path found, copied.
+	 */
+	synchronized void put(int u, int v, long version, int[] path) {
+		if (version == this.version)
+			this.paths.put(key(u, v), path.clone());
+	}
+
+	/**
+	 * Return the maximum number of paths kept.
+	 * 
+	 * @return the capacity.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Return the number of paths kept.
+	 * 
+	 * @return the number of paths.
+	 */
+	public synchronized int size() {
+		return this.paths.size();
+	}
+
+	/**
+	 * Drop every path.
+	 */
+	public synchronized void clear() {
+		this.invalidations += this.paths.size();
+		this.paths.clear();
+	}
+
+	/**
+	 * Return the number of lookups that found a path.
+	 * 
+	 * @return the number of hits.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Return the number of lookups that did not find a path.
+	 * 
+	 * @return the number of misses.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Return the number of paths dropped to make room for others.
+	 * 
+	 * @return the number of evictions.
+	 */
+	public synchronized long getEvictions() {
+		return this.evictions;
+	}
+
+	/**
+	 * Return the number of paths dropped because the graph changed or the
+	 * cache was cleared.
+	 * 
+	 * @return the number of paths invalidated.
+	 */
+	public synchronized long getInvalidations() {
+		return this.invalidations;
+	}
+}
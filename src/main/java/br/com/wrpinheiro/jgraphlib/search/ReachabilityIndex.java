@@ -0,0 +1,454 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Random;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * An index answering if a vertex reaches another without searching the graph
+ * in most cases. It is built once for a graph that does not change, like a
+ * {@link br.com.wrpinheiro.jgraphlib.FrozenGraph}.
+ * 
+ * The strongly connected components of the graph are condensed into a DAG,
+ * numbered so that a component only reaches components with smaller numbers.
+ * Each component gets a few interval labels (GRAIL, by Yildirim, Chaoji and
+ * Zaki): the post-order rank of the component in a randomized depth first
+ * traversal of the DAG, and the smallest rank below it. When u reaches v the
+ * intervals of v lie inside the ones of u. A query is answered at once when
+ * both vertices are in the same component, when the numbers of the
+ * components are in the wrong order, or when an interval is not contained;
+ * otherwise a depth first search over the DAG checks it, skipping the
+ * components those same tests rule out.
+ * 
+ * The searches keep their arrays per thread, like {@link BreadthFirstSearch},
+ * so an index may be queried by several threads.
+ * 
+ * @author wrp
+ */
+public class ReachabilityIndex {
+	/**
+	 * The default number of interval labels of each component.
+	 */
+	private static final int DEFAULT_LABELS = 3;
+
+	/**
+	 * The number of vertices of the graph indexed.
+	 */
+	private final int numVertex;
+
+	/**
+	 * The component of each vertex, -1 for the vertices not in the graph.
+	 */
+	private final int[] component;
+
+	/**
+	 * The number of components.
+	 */
+	private final int numComponents;
+
+	/**
+	 * The arcs of the DAG of components, by source component, without
+	 * repetitions.
+	 */
+	private final int[] dagOffsets;
+	private final int[] dagTargets;
+
+	/**
+	 * The number of interval labels of each component.
+	 */
+	private final int numLabels;
+
+	/**
+	 * The interval i of component c is [low[c * numLabels + i], rank[c *
+	 * numLabels + i]].
+	 */
+	private final int[] low;
+	private final int[] rank;
+
+	/**
+	 * The workspace of the searches run by each thread.
+	 */
+	private final ThreadLocal<SearchWorkspace> workspaces = new ThreadLocal<SearchWorkspace>();
+
+	/**
+	 * Build an index with the default number of labels.
+	 * 
+	 * @param g
+	 *            the graph, which must not change afterwards.
+	 */
+	public ReachabilityIndex(IndexedGraph g) {
+		this(g, DEFAULT_LABELS, 0);
+	}
+
+	/**
+	 * Build an index.
+	 * 
+	 * @param g
+	 *            the graph, which must not change afterwards.
+	 * @param numLabels
+	 *            the number of interval labels of each component. More labels
+	 *            answer more queries without a search but take more memory.
+	 * @param seed
+	 *            the seed of the randomized traversals.
+	 */
+	public ReachabilityIndex(IndexedGraph g, int numLabels, long seed) {
+		if (numLabels < 0)
+			throw new IllegalArgumentException("Negative number of labels: "
+					+ numLabels);
+		this.numVertex = g.getNumVertex();
+		this.component = new int[this.numVertex];
+		this.numComponents = this.findComponents(g);
+
+		int c = this.numComponents;
+		this.dagOffsets = new int[c + 1];
+		this.dagTargets = this.condense(g);
+
+		this.numLabels = numLabels;
+		this.low = new int[c * numLabels];
+		this.rank = new int[c * numLabels];
+		Random random = new Random(seed);
+		for (int i = 0; i < numLabels; i++) {
+			this.label(i, random);
+		}
+	}
+
+	/**
+	 * Number the strongly connected components with Tarjan's algorithm, run
+	 * without recursion. A component is numbered after every component it
+	 * reaches.
+	 * 
+	 * @return the number of components.
+	 */
+	private int findComponents(IndexedGraph g) {
+		int n = this.numVertex;
+		int[] index = new int[n];
+		int[] lowLink = new int[n];
+		int[] stack = new int[n];
+		int[] callVertex = new int[n];
+		int[] callArc = new int[n];
+		int stackSize = 0;
+		int next = 1;
+		int count = 0;
+
+		for (int root = 0; root < n; root++) {
+			if (!g.containsVertex(root)) {
+				this.component[root] = -1;
+				continue;
+			}
+			if (index[root] != 0)
+				continue;
+
+			int depth = 0;
+			callVertex[0] = root;
+			callArc[0] = 0;
+			index[root] = lowLink[root] = next++;
+			stack[stackSize++] = root;
+			// -2 marks the vertices on the stack.
+			this.component[root] = -2;
+
+			while (depth >= 0) {
+				int v = callVertex[depth];
+				if (callArc[depth] < g.getOutDegree(v)) {
+					int w = g.getOutNeighbor(v, callArc[depth]++);
+					if (w < 0)
+						continue;
+					if (index[w] == 0) {
+						index[w] = lowLink[w] = next++;
+						stack[stackSize++] = w;
+						this.component[w] = -2;
+						depth++;
+						callVertex[depth] = w;
+						callArc[depth] = 0;
+					} else if (this.component[w] == -2) {
+						lowLink[v] = Math.min(lowLink[v], index[w]);
+					}
+					continue;
+				}
+
+				if (lowLink[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--stackSize];
+						this.component[w] = count;
+					} while (w != v);
+					count++;
+				}
+				depth--;
+				if (depth >= 0) {
+					int parent = callVertex[depth];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Collect the arcs between components.
+	 * 
+	 * @return the targets of the arcs of the DAG, by source component.
+	 */
+	private int[] condense(IndexedGraph g) {
+		int n = this.numVertex;
+		int c = this.numComponents;
+
+		// the vertices of each component.
+		int[] memberOffsets = new int[c + 1];
+		for (int v = 0; v < n; v++) {
+			if (this.component[v] >= 0)
+				memberOffsets[this.component[v] + 1]++;
+		}
+		for (int i = 0; i < c; i++)
+			memberOffsets[i + 1] += memberOffsets[i];
+		int[] members = new int[memberOffsets[c]];
+		int[] fill = memberOffsets.clone();
+		for (int v = 0; v < n; v++) {
+			if (this.component[v] >= 0)
+				members[fill[this.component[v]]++] = v;
+		}
+
+		int[] targets = new int[16];
+		int size = 0;
+		// the last source component that got an arc to each component.
+		int[] seen = new int[c];
+		for (int i = 0; i < c; i++) {
+			this.dagOffsets[i] = size;
+			for (int p = memberOffsets[i]; p < memberOffsets[i + 1]; p++) {
+				int v = members[p];
+				int degree = g.getOutDegree(v);
+				for (int j = 0; j < degree; j++) {
+					int w = g.getOutNeighbor(v, j);
+					if (w < 0)
+						continue;
+					int cw = this.component[w];
+					if (cw == i || seen[cw] == i + 1)
+						continue;
+					seen[cw] = i + 1;
+					if (size == targets.length) {
+						int[] grown = new int[2 * size];
+						System.arraycopy(targets, 0, grown, 0, size);
+						targets = grown;
+					}
+					targets[size++] = cw;
+				}
+			}
+		}
+		this.dagOffsets[c] = size;
+
+		int[] dagTargets = new int[size];
+		System.arraycopy(targets, 0, dagTargets, 0, size);
+		return dagTargets;
+	}
+
+	/**
+	 * Compute the interval labels of a randomized post-order traversal of
+	 * the DAG. The roots are taken in a random order and the arcs of each
+	 * component from a random position.
+	 * 
+	 * @param i
+	 *            the number of the label.
+	 */
+	private void label(int i, Random random) {
+		int c = this.numComponents;
+		int k = this.numLabels;
+		int[] order = new int[c];
+		for (int j = 0; j < c; j++) {
+			int r = random.nextInt(j + 1);
+			order[j] = order[r];
+			order[r] = j;
+		}
+
+		boolean[] visited = new boolean[c];
+		int[] callComponent = new int[c];
+		int[] callArc = new int[c];
+		int[] callStart = new int[c];
+		int next = 0;
+		for (int j = 0; j < c; j++) {
+			int root = order[j];
+			if (visited[root])
+				continue;
+
+			int depth = 0;
+			visited[root] = true;
+			callComponent[0] = root;
+			callArc[0] = 0;
+			callStart[0] = this.randomStart(root, random);
+			this.low[root * k + i] = Integer.MAX_VALUE;
+			while (depth >= 0) {
+				int v = callComponent[depth];
+				int degree = this.dagOffsets[v + 1] - this.dagOffsets[v];
+				if (callArc[depth] < degree) {
+					int a = callStart[depth] + callArc[depth]++;
+					if (a >= degree)
+						a -= degree;
+					int w = this.dagTargets[this.dagOffsets[v] + a];
+					if (!visited[w]) {
+						visited[w] = true;
+						this.low[w * k + i] = Integer.MAX_VALUE;
+						depth++;
+						callComponent[depth] = w;
+						callArc[depth] = 0;
+						callStart[depth] = this.randomStart(w, random);
+					} else {
+						this.low[v * k + i] = Math.min(this.low[v * k + i],
+								this.low[w * k + i]);
+					}
+					continue;
+				}
+
+				this.rank[v * k + i] = next;
+				this.low[v * k + i] = Math.min(this.low[v * k + i], next);
+				next++;
+				depth--;
+				if (depth >= 0) {
+					int parent = callComponent[depth];
+					this.low[parent * k + i] = Math.min(
+							this.low[parent * k + i], this.low[v * k + i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return a random position among the arcs of a component.
+	 */
+	private int randomStart(int c, Random random) {
+		int degree = this.dagOffsets[c + 1] - this.dagOffsets[c];
+		return degree == 0 ? 0 : random.nextInt(degree);
+	}
+
+	/**
+	 * Check if u reaches v, following output arcs.
+	 * 
+	 * @param u
+	 *            the id of the source vertex.
+	 * @param v
+	 *            the id of the target vertex.
+	 * @return TRUE if there is a path from u to v, which is the case when
+	 *         they are the same vertex.
+	 */
+	public boolean isReachable(int u, int v) {
+		if (u < 0 || u >= this.numVertex || v < 0 || v >= this.numVertex
+				|| this.component[u] < 0 || this.component[v] < 0)
+			throw new InvalidVertexException();
+
+		int cu = this.component[u];
+		int cv = this.component[v];
+		if (cu == cv)
+			return true;
+		if (!this.mayReach(cu, cv))
+			return false;
+		return this.search(cu, cv);
+	}
+
+	/**
+	 * Check the labels of two components.
+	 * 
+	 * @return FALSE if cu does not reach cv, or TRUE if it may.
+	 */
+	private boolean mayReach(int cu, int cv) {
+		// a component reaches only components with smaller numbers.
+		if (cu < cv)
+			return false;
+		int k = this.numLabels;
+		for (int i = 0; i < k; i++) {
+			if (this.low[cu * k + i] > this.low[cv * k + i]
+					|| this.rank[cv * k + i] > this.rank[cu * k + i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Search the DAG from a component for another, skipping the components
+	 * whose labels rule the target out.
+	 * 
+	 * @return TRUE if cu reaches cv.
+	 */
+	private boolean search(int cu, int cv) {
+		SearchWorkspace workspace = this.workspaces.get();
+		if (workspace == null) {
+			workspace = new SearchWorkspace();
+			this.workspaces.set(workspace);
+		}
+		workspace.start(this.numComponents);
+		int[] stack = workspace.queue;
+		int size = 0;
+
+		workspace.visit(cu);
+		stack[size++] = cu;
+		while (size > 0) {
+			int c = stack[--size];
+			for (int a = this.dagOffsets[c]; a < this.dagOffsets[c + 1]; a++) {
+				int w = this.dagTargets[a];
+				if (w == cv)
+					return true;
+				if (!workspace.isVisited(w)) {
+					workspace.visit(w);
+					if (this.mayReach(w, cv))
+						stack[size++] = w;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the strongly connected component of a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return the number of the component. A component reaches only
+	 *         components with smaller numbers.
+	 */
+	public int getComponent(int v) {
+		if (v < 0 || v >= this.numVertex || this.component[v] < 0)
+			throw new InvalidVertexException();
+		return this.component[v];
+	}
+
+	/**
+	 * Return the number of strongly connected components.
+	 * 
+	 * @return the number of components.
+	 */
+	public int getNumComponents() {
+		return this.numComponents;
+	}
+
+	/**
+	 * Return the number of arcs between components, without repetitions.
+	 * 
+	 * @return the number of arcs of the DAG of components.
+	 */
+	public int getNumComponentArcs() {
+		return this.dagTargets.length;
+	}
+
+	/**
+	 * Return the memory taken by the arrays of the index, not counting the
+	 * arrays kept by the searches.
+	 * 
+	 * @return the size in bytes.
+	 */
+	public long getSizeInBytes() {
+		return 4L * (this.component.length + this.dagOffsets.length
+				+ this.dagTargets.length + this.low.length + this.rank.length);
+	}
+}
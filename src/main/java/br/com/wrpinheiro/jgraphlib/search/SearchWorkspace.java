@@ -0,0 +1,126 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+
+/**
+ * The arrays indexed by vertex id used by a search, kept between searches so
+ * that a search allocates nothing but its result. Vertices are marked as
+ * visited with the number of the search, so starting a search forgets the
+ * marks of the earlier ones without clearing the array.
+ * 
+ * A workspace is used by one thread at a time.
+ * 
+ * @author wrp
+ */
+class SearchWorkspace {
+	/**
+	 * The number of the search running, stored in the marks of the vertices
+	 * it visits.
+	 */
+	private int generation;
+
+	/**
+	 * The number of the last search that visited each vertex.
+	 */
+	private int[] marks = new int[0];
+
+	/**
+	 * The parent of each visited vertex.
+	 */
+	int[] parent = new int[0];
+
+	/**
+	 * The distance of each visited vertex, for the searches that need it.
+	 */
+	int[] distance = new int[0];
+
+	/**
+	 * The queue of vertices to expand.
+	 */
+	int[] queue = new int[0];
+
+	/**
+	 * A second queue, for the searches from both ends.
+	 */
+	int[] otherQueue = new int[0];
+
+	/**
+	 * A buffer for the neighbours of a vertex.
+	 */
+	int[] neighbors = new int[16];
+
+	/**
+	 * Start a new search, forgetting the vertices visited by the earlier ones.
+	 * 
+	 * @param numVertex
+	 *            the number of vertices of the graph searched.
+	 */
+	void start(int numVertex) {
+		if (this.marks.length < numVertex) {
+			// leave room for the vertices added while the graph is searched.
+			int length = numVertex + (numVertex >>> 3);
+			this.marks = new int[length];
+			this.parent = new int[length];
+			this.distance = new int[length];
+			this.queue = new int[length];
+			this.otherQueue = new int[length];
+			this.generation = 0;
+		}
+
+		this.generation++;
+		if (this.generation == 0) {
+			// the numbers wrapped around: old marks could match again.
+			Arrays.fill(this.marks, 0);
+			this.generation = 1;
+		}
+	}
+
+	/**
+	 * Check if the running search visited a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return TRUE if the vertex was visited or FALSE otherwise.
+	 */
+	boolean isVisited(int v) {
+		return this.marks[v] == this.generation;
+	}
+
+	/**
+	 * Mark a vertex as visited by the running search.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 */
+	void visit(int v) {
+		this.marks[v] = this.generation;
+	}
+
+	/**
+	 * Return a buffer for the neighbours of a vertex with at least a length.
+	 * 
+	 * @param length
+	 *            the number of neighbours.
+	 * @return the buffer.
+	 */
+	int[] neighbors(int length) {
+		if (this.neighbors.length < length)
+			this.neighbors = new int[Math.max(length, 2 * this.neighbors.length)];
+		return this.neighbors;
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+
+/**
+ * The arrays indexed by vertex id used by a weighted search, kept between
+ * searches like a {@link SearchWorkspace}. Besides the distance and the
+ * parent of each vertex it holds a binary heap of vertex ids ordered by a key,
+ * with the position of each vertex in the heap so that its key can be
+ * decreased in place.
+ * 
+ * A workspace is used by one thread at a time.
+ * 
+ * @author wrp
+ */
+class ShortestPathWorkspace {
+	/**
+	 * The number of the search running, stored in the marks of the vertices
+	 * it reaches.
+	 */
+	private int generation;
+
+	/**
+	 * The number of the last search that reached each vertex.
+	 */
+	private int[] marks = new int[0];
+
+	/**
+	 * The distance of each reached vertex from the source.
+	 */
+	double[] distance = new double[0];
+
+	/**
+	 * The parent of each reached vertex.
+	 */
+	int[] parent = new int[0];
+
+	/**
+	 * The key of each vertex in the heap.
+	 */
+	private double[] key = new double[0];
+
+	/**
+	 * The position of each reached vertex in the heap, -1 when it is not in
+	 * it.
+	 */
+	private int[] position = new int[0];
+
+	/**
+	 * The vertices in the heap; the first one has the smallest key.
+	 */
+	private int[] heap = new int[0];
+
+	/**
+	 * The number of vertices in the heap.
+	 */
+	private int size;
+
+	/**
+	 * Start a new search with an empty heap, forgetting the vertices reached
+	 * by the earlier ones.
+	 * 
+	 * @param numVertex
+	 *            the number of vertices of the graph searched.
+	 */
+	void start(int numVertex) {
+		if (this.marks.length < numVertex) {
+			// leave room for the vertices added while the graph is searched.
+			int length = numVertex + (numVertex >>> 3);
+			this.marks = new int[length];
+			this.distance = new double[length];
+			this.parent = new int[length];
+			this.key = new double[length];
+			this.position = new int[length];
+			this.heap = new int[length];
+			this.generation = 0;
+		}
+
+		this.size = 0;
+		this.generation++;
+		if (this.generation == 0) {
+			// the numbers wrapped around: old marks could match again.
+			Arrays.fill(this.marks, 0);
+			this.generation = 1;
+		}
+	}
+
+	/**
+	 * Check if the running search reached a vertex.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return TRUE if the vertex was reached or FALSE otherwise.
+	 */
+	boolean isReached(int v) {
+		return this.marks[v] == this.generation;
+	}
+
+	/**
+	 * Mark a vertex as reached by the running search, out of the heap.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 */
+	void reach(int v) {
+		this.marks[v] = this.generation;
+		this.position[v] = -1;
+	}
+
+	/**
+	 * Check if a reached vertex is in the heap.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @return TRUE if the vertex is in the heap or FALSE otherwise.
+	 */
+	boolean isQueued(int v) {
+		return this.position[v] >= 0;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * 
+	 * @return TRUE if the heap is empty or FALSE otherwise.
+	 */
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Return the smallest key in the heap.
+	 * 
+	 * @return the key of the first vertex, which must exist.
+	 */
+	double peekKey() {
+		return this.key[this.heap[0]];
+	}
+
+	/**
+	 * Add a reached vertex to the heap or, if it is already in it, decrease
+	 * its key.
+	 * 
+	 * @param v
+	 *            the vertex id.
+	 * @param key
+	 *            the key, not larger than the current key of the vertex if it
+	 *            is in the heap.
+	 */
+	void enqueue(int v, double key) {
+		this.key[v] = key;
+		int i = this.position[v];
+		if (i < 0) {
+			i = this.size++;
+		}
+		this.siftUp(v, i);
+	}
+
+	/**
+	 * Remove the vertex with the smallest key from the heap.
+	 * 
+	 * @return the vertex id.
+	 */
+	int poll() {
+		int first = this.heap[0];
+		this.position[first] = -1;
+		int last = this.heap[--this.size];
+		if (this.size > 0)
+			this.siftDown(last, 0);
+		return first;
+	}
+
+	/**
+	 * Move a vertex up from a position of the heap until its parent has a
+	 * smaller key.
+	 */
+	private void siftUp(int v, int i) {
+		double k = this.key[v];
+		while (i > 0) {
+			int p = (i - 1) >>> 1;
+			int w = this.heap[p];
+			if (this.key[w] <= k)
+				break;
+			this.heap[i] = w;
+			this.position[w] = i;
+			i = p;
+		}
+		this.heap[i] = v;
+		this.position[v] = i;
+	}
+
+	/**
+	 * Move a vertex down from a position of the heap until its children have
+	 * larger keys.
+	 */
+	private void siftDown(int v, int i) {
+		double k = this.key[v];
+		int half = this.size >>> 1;
+		while (i < half) {
+			int c = 2 * i + 1;
+			int w = this.heap[c];
+			if (c + 1 < this.size && this.key[this.heap[c + 1]] < this.key[w]) {
+				w = this.heap[++c];
+			}
+			if (k <= this.key[w])
+				break;
+			this.heap[i] = w;
+			this.position[w] = i;
+			i = c;
+		}
+		this.heap[i] = v;
+		this.position[v] = i;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+/**
+ * Chooses the arcs kept by an {@link ArcFilteredGraph}. Arcs are given by
+ * their position in the adjacency of a vertex, as in
+ * {@link br.com.wrpinheiro.jgraphlib.IndexedGraph}, so any graph can be
+ * filtered.
+ *
+ * @author wrp
+ */
+public interface ArcFilter {
+	/**
+	 * Check if the ith output arc of a vertex is kept.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc, from 0 to getOutDegree(v) - 1.
+	 * @return TRUE if the arc is kept or FALSE otherwise.
+	 */
+	public abstract boolean acceptOut(int v, int i);
+
+	/**
+	 * Check if the ith input arc of a vertex is kept.
+	 *
+	 * @param v
+	 *            the vertex id.
+	 * @param i
+	 *            the position of the arc, from 0 to getInDegree(v) - 1.
+	 * @return TRUE if the arc is kept or FALSE otherwise.
+	 */
+	public abstract boolean acceptIn(int v, int i);
+}
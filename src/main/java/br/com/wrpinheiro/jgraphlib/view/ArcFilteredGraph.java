@@ -0,0 +1,214 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+import java.util.BitSet;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+
+/**
+ * A graph with only some of the arcs of another graph. The arcs kept are
+ * chosen by an {@link ArcFilter} from their position in the adjacency of a
+ * vertex, so any IndexedGraph can be filtered, views included. The arcs of a
+ * {@link Graph} can also be chosen by a set of arc ids, or once by their
+ * labels when the view is created. Nothing else is copied: the view keeps the
+ * vertex ids of the graph and reports the arcs left out as missing neighbours
+ * (-1), so the degrees are those of the graph.
+ *
+ * @author wrp
+ */
+public class ArcFilteredGraph implements IndexedGraph {
+	/**
+	 * The graph seen by this view.
+	 */
+	private final IndexedGraph graph;
+
+	/**
+	 * Chooses the arcs kept.
+	 */
+	private final ArcFilter filter;
+
+	/**
+	 * @param graph
+	 *            the graph seen by this view.
+	 * @param filter
+	 *            chooses the arcs kept.
+	 */
+	public ArcFilteredGraph(IndexedGraph graph, ArcFilter filter) {
+		this.graph = graph;
+		this.filter = filter;
+	}
+
+	/**
+	 * Creates a view with the arcs of the graph whose ids are in a set. Arcs
+	 * added to the graph later are kept only if they are added to the set.
+	 *
+	 * @param graph
+	 *            the graph seen by this view.
+	 * @param arcs
+	 *            the ids of the arcs kept.
+	 */
+	public <T> ArcFilteredGraph(Graph<T> graph, BitSet arcs) {
+		this(graph, new ArcIdFilter<T>(graph, arcs));
+	}
+
+	/**
+	 * Creates a view with the arcs of the graph whose labels are accepted by a
+	 * filter. The filter is called once for each arc.
+	 *
+	 * @param graph
+	 *            the graph seen by this view.
+	 * @param filter
+	 *            chooses the arcs kept.
+	 */
+	public <T> ArcFilteredGraph(Graph<T> graph,
+			ArcLabelFilter<? super T> filter) {
+		this(graph, acceptedArcs(graph, filter));
+	}
+
+	/**
+	 * Return the ids of the arcs of a graph whose labels are accepted by a
+	 * filter.
+	 */
+	private static <T> BitSet acceptedArcs(Graph<T> graph,
+			ArcLabelFilter<? super T> filter) {
+		BitSet arcs = new BitSet();
+		for (Arc<T> arc : graph.getArcs()) {
+			if (filter.accept(arc.getLabel()))
+				arcs.set(arc.getId());
+		}
+		return arcs;
+	}
+
+	/**
+	 * Return the graph seen by this view.
+	 *
+	 * @return the graph.
+	 */
+	public IndexedGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Return the filter that chooses the arcs kept.
+	 *
+	 * @return the filter.
+	 */
+	public ArcFilter getFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.graph.getNumVertex();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return this.graph.containsVertex(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		return this.graph.getOutDegree(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		int w = this.graph.getOutNeighbor(v, i);
+		return w >= 0 && this.filter.acceptOut(v, i) ? w : -1;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		return this.graph.getInDegree(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		int w = this.graph.getInNeighbor(v, i);
+		return w >= 0 && this.filter.acceptIn(v, i) ? w : -1;
+	}
+
+	/**
+	 * Keeps the arcs of a graph whose ids are in a set. Arcs of removed
+	 * vertices and removed arcs are never kept.
+	 */
+	private static class ArcIdFilter<T> implements ArcFilter {
+		private final Graph<T> graph;
+
+		private final BitSet arcs;
+
+		public ArcIdFilter(Graph<T> graph, BitSet arcs) {
+			this.graph = graph;
+			this.arcs = arcs;
+		}
+
+		/**
+		 * Check if an arc is kept.
+		 */
+		private boolean isKept(Arc<T> arc) {
+			int id = arc.getId();
+			return id >= 0 && !arc.isRemoved() && this.arcs.get(id);
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see br.com.wrpinheiro.jgraphlib.view.ArcFilter#acceptOut(int, int)
+		 */
+		public boolean acceptOut(int v, int i) {
+			return this.graph.containsVertex(v)
+					&& this.isKept(this.graph.getVertex(v).getOutArc(i));
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see br.com.wrpinheiro.jgraphlib.view.ArcFilter#acceptIn(int, int)
+		 */
+		public boolean acceptIn(int v, int i) {
+			return this.graph.containsVertex(v)
+					&& this.isKept(this.graph.getVertex(v).getInArc(i));
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+/**
+ * Chooses the arcs kept by an {@link ArcFilteredGraph} by their labels.
+ *
+ * @author wrp
+ */
+public interface ArcLabelFilter<T> {
+	/**
+	 * Check if the arcs with a label are kept.
+	 *
+	 * @param label
+	 *            the label of an arc, which may be null.
+	 * @return TRUE if the arcs are kept or FALSE otherwise.
+	 */
+	public abstract boolean accept(T label);
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+import java.util.BitSet;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * The subgraph induced by a set of vertices of another graph. Nothing is
+ * copied: the view keeps the vertex ids of the graph and reads its adjacency,
+ * reporting the vertices left out of the set as missing neighbours (-1), so
+ * the degrees are those of the graph.
+ *
+ * Changes to the graph or to the set are seen by the view.
+ *
+ * @author wrp
+ */
+public class InducedSubgraph implements IndexedGraph {
+	/**
+	 * The graph seen by this view.
+	 */
+	private final IndexedGraph graph;
+
+	/**
+	 * The ids of the vertices of the subgraph.
+	 */
+	private final BitSet vertices;
+
+	/**
+	 * @param graph
+	 *            the graph seen by this view.
+	 * @param vertices
+	 *            the ids of the vertices of the subgraph.
+	 */
+	public InducedSubgraph(IndexedGraph graph, BitSet vertices) {
+		this.graph = graph;
+		this.vertices = vertices;
+	}
+
+	/**
+	 * Return the graph seen by this view.
+	 *
+	 * @return the graph.
+	 */
+	public IndexedGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Return the ids of the vertices of the subgraph.
+	 *
+	 * @return the set of ids.
+	 */
+	public BitSet getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * Keep only the neighbours in the subgraph.
+	 */
+	private int neighbor(int w) {
+		return w >= 0 && this.vertices.get(w) ? w : -1;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.graph.getNumVertex();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && this.vertices.get(v) && this.graph.containsVertex(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		return this.containsVertex(v) ? this.graph.getOutDegree(v) : 0;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		if (!this.containsVertex(v))
+			throw new InvalidVertexException();
+		return this.neighbor(this.graph.getOutNeighbor(v, i));
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		return this.containsVertex(v) ? this.graph.getInDegree(v) : 0;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		if (!this.containsVertex(v))
+			throw new InvalidVertexException();
+		return this.neighbor(this.graph.getInNeighbor(v, i));
+	}
+}
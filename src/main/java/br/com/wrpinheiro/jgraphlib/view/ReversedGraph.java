@@ -0,0 +1,103 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+
+/**
+ * Another graph with every arc reversed, i.e. its transpose. The output arcs
+ * of a vertex are the input arcs of the same vertex in the graph, so nothing
+ * is copied and changes to the graph are seen by the view.
+ *
+ * @author wrp
+ */
+public class ReversedGraph implements IndexedGraph {
+	/**
+	 * The graph seen by this view.
+	 */
+	private final IndexedGraph graph;
+
+	/**
+	 * @param graph
+	 *            the graph seen by this view.
+	 */
+	public ReversedGraph(IndexedGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Return the graph seen by this view.
+	 *
+	 * @return the graph.
+	 */
+	public IndexedGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getNumVertex()
+	 */
+	public int getNumVertex() {
+		return this.graph.getNumVertex();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#containsVertex(int)
+	 */
+	public boolean containsVertex(int v) {
+		return this.graph.containsVertex(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutDegree(int)
+	 */
+	public int getOutDegree(int v) {
+		return this.graph.getInDegree(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getOutNeighbor(int, int)
+	 */
+	public int getOutNeighbor(int v, int i) {
+		return this.graph.getInNeighbor(v, i);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInDegree(int)
+	 */
+	public int getInDegree(int v) {
+		return this.graph.getOutDegree(v);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see br.com.wrpinheiro.jgraphlib.IndexedGraph#getInNeighbor(int, int)
+	 */
+	public int getInNeighbor(int v, int i) {
+		return this.graph.getOutNeighbor(v, i);
+	}
+}
@@ -18,20 +18,58 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import br.com.wrpinheiro.jgraphlib.base.ArcTest;
+import br.com.wrpinheiro.jgraphlib.base.ConcurrentGraphTest;
+import br.com.wrpinheiro.jgraphlib.base.FrozenGraphTest;
+import br.com.wrpinheiro.jgraphlib.base.GraphBuilderTest;
+import br.com.wrpinheiro.jgraphlib.base.GraphSnapshotTest;
 import br.com.wrpinheiro.jgraphlib.base.GraphTest;
+import br.com.wrpinheiro.jgraphlib.base.LabelDictionaryTest;
+import br.com.wrpinheiro.jgraphlib.base.OptimisticReadTest;
+import br.com.wrpinheiro.jgraphlib.base.PropertyColumnTest;
 import br.com.wrpinheiro.jgraphlib.familyset.ArrayFamilySetTest;
 import br.com.wrpinheiro.jgraphlib.familyset.SetMaintainerTest;
 import br.com.wrpinheiro.jgraphlib.hittingset.MinimalHittingSetTest;
+import br.com.wrpinheiro.jgraphlib.io.EdgeListImporterTest;
+import br.com.wrpinheiro.jgraphlib.io.MappedGraphTest;
+import br.com.wrpinheiro.jgraphlib.search.AStarSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.BreadthFirstIteratorTest;
 import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.DeltaSteppingSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.DijkstraSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.DirectionOptimizingSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.MultiSourceBreadthFirstSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.ParallelBreadthFirstSearchTest;
+import br.com.wrpinheiro.jgraphlib.search.PathCacheTest;
+import br.com.wrpinheiro.jgraphlib.search.ReachabilityIndexTest;
+import br.com.wrpinheiro.jgraphlib.view.GraphViewTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         GraphTest.class,
         ArcTest.class,
+        FrozenGraphTest.class,
+        GraphBuilderTest.class,
+        ConcurrentGraphTest.class,
+        OptimisticReadTest.class,
+        GraphSnapshotTest.class,
+        PropertyColumnTest.class,
+        LabelDictionaryTest.class,
         SetMaintainerTest.class,
         ArrayFamilySetTest.class,
         MinimalHittingSetTest.class,
-        BreadthFirstSearchTest.class
+        BreadthFirstSearchTest.class,
+        BreadthFirstIteratorTest.class,
+        DirectionOptimizingSearchTest.class,
+        DijkstraSearchTest.class,
+        AStarSearchTest.class,
+        DeltaSteppingSearchTest.class,
+        MultiSourceBreadthFirstSearchTest.class,
+        ParallelBreadthFirstSearchTest.class,
+        ReachabilityIndexTest.class,
+        PathCacheTest.class,
+        MappedGraphTest.class,
+        EdgeListImporterTest.class,
+        GraphViewTest.class
         })
 public class AllTests {
 	// does not need implementation.
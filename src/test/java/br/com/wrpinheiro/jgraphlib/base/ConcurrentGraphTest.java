@@ -0,0 +1,195 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class ConcurrentGraphTest {
+	private static final int NUM_THREADS = 8;
+
+	/**
+	 * Run a task in several threads and rethrow the first failure.
+	 */
+	private void runInThreads(final Runnable task) throws Throwable {
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		Thread[] threads = new Thread[NUM_THREADS];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					try {
+						task.run();
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (!failures.isEmpty())
+			throw failures.get(0);
+	}
+
+	@Test
+	public void testGraphIdsAreUnique() throws Throwable {
+		final Set<Graph<String>> graphs = new HashSet<Graph<String>>();
+		runInThreads(new Runnable() {
+			public void run() {
+				for (int i = 0; i < 1000; i++) {
+					Graph<String> g = new Graph<String>();
+					synchronized (graphs) {
+						graphs.add(g);
+					}
+				}
+			}
+		});
+
+		assertEquals(NUM_THREADS * 1000, graphs.size());
+	}
+
+	@Test
+	public void testConcurrentAppends() throws Throwable {
+		final ConcurrentGraph<String> g = new ConcurrentGraph<String>();
+		runInThreads(new Runnable() {
+			public void run() {
+				Vertex<String> previous = new Vertex<String>(g);
+				for (int i = 1; i < 1000; i++) {
+					Vertex<String> v = new Vertex<String>(g);
+					new Arc<String>(g, previous, v);
+					previous = v;
+				}
+			}
+		});
+
+		assertEquals(NUM_THREADS * 1000, g.getNumVertex());
+		for (int i = 0; i < g.getNumVertex(); i++) {
+			assertEquals(i, g.getVertex(i).getId());
+		}
+
+		int numArcs = 0;
+		for (Arc<String> arc : g.getArcs()) {
+			assertSame(arc, g.getArc(arc.getId()));
+			numArcs++;
+		}
+		assertEquals(NUM_THREADS * 999, numArcs);
+	}
+
+	@Test
+	public void testConcurrentRewiring() throws Throwable {
+		final ConcurrentGraph<String> g = new ConcurrentGraph<String>(4);
+		final int numVertex = 20;
+		for (int i = 0; i < numVertex; i++) {
+			new Vertex<String>(g);
+		}
+		final List<Arc<String>> arcs = new ArrayList<Arc<String>>();
+		for (int i = 0; i < 100; i++) {
+			arcs.add(new Arc<String>(g, g.getVertex(i % numVertex), g
+					.getVertex((i * 7) % numVertex)));
+		}
+		g.setAdjacencyIndexEnabled(true);
+
+		runInThreads(new Runnable() {
+			public void run() {
+				Random random = new Random();
+				for (int i = 0; i < 20000; i++) {
+					Arc<String> arc = arcs.get(random.nextInt(arcs.size()));
+					Vertex<String> v = g.getVertex(random.nextInt(numVertex));
+					switch (random.nextInt(3)) {
+					case 0:
+						arc.setSource(v);
+						break;
+					case 1:
+						arc.setTarget(v);
+						break;
+					default:
+						arc.setEndings(v, g.getVertex(random.nextInt(numVertex)));
+					}
+				}
+			}
+		});
+
+		int outArcs = 0;
+		int inArcs = 0;
+		for (Vertex<String> v : g.getVertices()) {
+			for (Arc<String> arc : v.getOutArcs()) {
+				assertSame(v, arc.getSource());
+				outArcs++;
+			}
+			for (Arc<String> arc : v.getInArcs()) {
+				assertSame(v, arc.getTarget());
+				inArcs++;
+			}
+		}
+		assertEquals(arcs.size(), outArcs);
+		assertEquals(arcs.size(), inArcs);
+
+		for (Vertex<String> u : g.getVertices()) {
+			for (Vertex<String> v : g.getVertices()) {
+				boolean linked = false;
+				for (Arc<String> arc : u.getOutArcs()) {
+					linked |= arc.getTarget() == v;
+				}
+				assertEquals(linked, u.isAdjacent(v));
+			}
+		}
+	}
+
+	@Test
+	public void testFreezeWhileRewiring() throws Throwable {
+		final ConcurrentGraph<String> g = new ConcurrentGraph<String>();
+		for (int i = 0; i < 10; i++) {
+			new Vertex<String>(g);
+		}
+		final List<Arc<String>> arcs = new ArrayList<Arc<String>>();
+		for (int i = 0; i < 50; i++) {
+			arcs.add(new Arc<String>(g, g.getVertex(i % 10), g
+					.getVertex((i + 1) % 10)));
+		}
+
+		runInThreads(new Runnable() {
+			public void run() {
+				Random random = new Random();
+				for (int i = 0; i < 2000; i++) {
+					arcs.get(random.nextInt(arcs.size())).setTarget(
+							g.getVertex(random.nextInt(10)));
+					if (i % 100 == 0)
+						assertEquals(arcs.size(), g.freeze().getNumArc());
+				}
+			}
+		});
+	}
+}
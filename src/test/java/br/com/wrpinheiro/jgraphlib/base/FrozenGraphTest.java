@@ -0,0 +1,94 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class FrozenGraphTest {
+
+	@Test
+	public void testFreeze() {
+		Graph<String> g = new Graph<String>();
+
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		Vertex<String> v2 = new Vertex<String>(g);
+
+		new Arc<String>(g, v0, v1).setLabel("a");
+		new Arc<String>(g, v0, v2).setLabel("b");
+		new Arc<String>(g, v2, v1).setLabel("c");
+		new Arc<String>(g, v1, null).setLabel("d");
+
+		FrozenGraph<String> fg = g.freeze();
+
+		assertEquals(3, fg.getNumVertex());
+		assertEquals(3, fg.getNumArc());
+
+		assertEquals(2, fg.getOutDegree(0));
+		assertEquals(1, fg.getOutNeighbor(0, 0));
+		assertEquals("a", fg.getOutArcLabel(0, 0));
+		assertEquals(2, fg.getOutNeighbor(0, 1));
+		assertEquals("b", fg.getOutArcLabel(0, 1));
+		assertEquals(0, fg.getOutDegree(1));
+		assertEquals(1, fg.getOutDegree(2));
+		assertEquals(1, fg.getOutNeighbor(2, 0));
+
+		assertEquals(0, fg.getInDegree(0));
+		assertEquals(2, fg.getInDegree(1));
+		assertEquals(0, fg.getInNeighbor(1, 0));
+		assertEquals("a", fg.getInArcLabel(1, 0));
+		assertEquals(2, fg.getInNeighbor(1, 1));
+		assertEquals("c", fg.getInArcLabel(1, 1));
+		assertEquals(1, fg.getInDegree(2));
+		assertEquals(0, fg.getInNeighbor(2, 0));
+	}
+
+	@Test
+	public void testFreezeIsNotChangedByTheGraph() {
+		Graph<String> g = new Graph<String>();
+
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		Arc<String> a = new Arc<String>(g, v0, v1);
+
+		FrozenGraph<String> fg = g.freeze();
+		a.setTarget(v0);
+		new Vertex<String>(g);
+
+		assertEquals(2, fg.getNumVertex());
+		assertEquals(1, fg.getOutNeighbor(0, 0));
+		assertEquals(1, fg.getInDegree(1));
+		assertEquals(0, fg.getInDegree(0));
+	}
+
+	@Test
+	public void testFreezeEmptyGraph() {
+		FrozenGraph<String> fg = new Graph<String>().freeze();
+
+		assertEquals(0, fg.getNumVertex());
+		assertEquals(0, fg.getNumArc());
+	}
+}
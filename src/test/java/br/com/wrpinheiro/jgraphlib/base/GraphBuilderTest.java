@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class GraphBuilderTest {
+
+	private GraphBuilder<String> createBuilder() {
+		GraphBuilder<String> builder = new GraphBuilder<String>(3, 2);
+
+		builder.addArcs(new int[] { 0, 2, 0 }, new int[] { 2, 1, 1 },
+				new String[] { "a", "b", "c" });
+		builder.addArcs(new int[] { 0, 0 }, new int[] { 1, 2 }, new String[] {
+				"c", "d" });
+		return builder;
+	}
+
+	@Test
+	public void testToGraph() {
+		Graph<String> g = createBuilder().toGraph();
+
+		assertEquals(3, g.getNumVertex());
+		Vertex<String> v0 = g.getVertex(0);
+		assertEquals(4, v0.getOutDegree());
+		assertEquals(g.getVertex(2), v0.getOutArc(0).getTarget());
+		assertEquals("a", v0.getOutArc(0).getLabel());
+		assertEquals("c", v0.getOutArc(1).getLabel());
+		assertEquals("c", v0.getOutArc(2).getLabel());
+		assertEquals("d", v0.getOutArc(3).getLabel());
+		assertEquals(v0, v0.getOutArc(3).getSource());
+
+		assertEquals(3, g.getVertex(1).getInDegree());
+		assertTrue(g.isAdjacent(g.getVertex(2), g.getVertex(1)));
+		assertEquals(g.getVertex(2), g.getArc(4).getSource());
+	}
+
+	@Test
+	public void testDeduplicate() {
+		GraphBuilder<String> builder = createBuilder();
+		builder.setDeduplicate(true);
+		FrozenGraph<String> fg = builder.toFrozenGraph();
+
+		assertEquals(4, fg.getNumArc());
+		assertEquals(3, fg.getOutDegree(0));
+		assertEquals(1, fg.getOutNeighbor(0, 0));
+		assertEquals("c", fg.getOutArcLabel(0, 0));
+		assertEquals(2, fg.getOutNeighbor(0, 1));
+		assertEquals(2, fg.getOutNeighbor(0, 2));
+		assertEquals(1, fg.getOutDegree(2));
+		assertEquals(2, fg.getInDegree(1));
+	}
+
+	@Test
+	public void testParallelDeduplicate() {
+		final int MAX_VERTICES = 50;
+		final int MAX_ARCS = 100000;
+		Random random = new Random(3);
+
+		int[] sources = new int[MAX_ARCS];
+		int[] targets = new int[MAX_ARCS];
+		boolean[][] adjacent = new boolean[MAX_VERTICES][MAX_VERTICES];
+		for (int i = 0; i < MAX_ARCS; i++) {
+			sources[i] = random.nextInt(MAX_VERTICES);
+			targets[i] = random.nextInt(MAX_VERTICES);
+			adjacent[sources[i]][targets[i]] = true;
+		}
+
+		GraphBuilder<String> builder = new GraphBuilder<String>(MAX_VERTICES, 0);
+		builder.setDeduplicate(true);
+		builder.setParallelism(4);
+		builder.addArcs(sources, targets, null);
+		FrozenGraph<String> fg = builder.toFrozenGraph();
+
+		for (int v = 0; v < MAX_VERTICES; v++) {
+			int degree = 0;
+			for (int w = 0; w < MAX_VERTICES; w++) {
+				if (adjacent[v][w])
+					assertEquals(w, fg.getOutNeighbor(v, degree++));
+			}
+			assertEquals(degree, fg.getOutDegree(v));
+		}
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testInvalidVertex() {
+		GraphBuilder<String> builder = new GraphBuilder<String>(2, 1);
+		builder.addArcs(new int[] { 0 }, new int[] { 2 }, null);
+	}
+}
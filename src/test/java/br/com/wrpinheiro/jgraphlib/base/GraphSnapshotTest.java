@@ -0,0 +1,297 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphSnapshot;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearch;
+
+/**
+ * @author wrp
+ */
+public class GraphSnapshotTest {
+
+	private Graph<String> createGraph(Graph<String> g) {
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		Vertex<String> v2 = new Vertex<String>(g);
+		Vertex<String> v3 = new Vertex<String>(g);
+
+		new Arc<String>(g, v0, v1);
+		new Arc<String>(g, v1, v2);
+		new Arc<String>(g, v2, v3);
+		new Arc<String>(g, v0, v3);
+		return g;
+	}
+
+	/**
+	 * Compare two graphs ignoring the order of the neighbours and the arcs
+	 * without an ending.
+	 */
+	private void assertSameGraph(IndexedGraph expected, IndexedGraph actual) {
+		assertEquals(expected.getNumVertex(), actual.getNumVertex());
+		for (int v = 0; v < expected.getNumVertex(); v++) {
+			assertEquals(neighbors(expected, v, true),
+					neighbors(actual, v, true));
+			assertEquals(neighbors(expected, v, false),
+					neighbors(actual, v, false));
+		}
+	}
+
+	private List<Integer> neighbors(IndexedGraph g, int v, boolean out) {
+		List<Integer> neighbors = new ArrayList<Integer>();
+		int degree = out ? g.getOutDegree(v) : g.getInDegree(v);
+		for (int i = 0; i < degree; i++) {
+			int w = out ? g.getOutNeighbor(v, i) : g.getInNeighbor(v, i);
+			if (w >= 0)
+				neighbors.add(w);
+		}
+		Collections.sort(neighbors);
+		return neighbors;
+	}
+
+	@Test
+	public void testSnapshotIgnoresLaterChanges() {
+		Graph<String> g = createGraph(new Graph<String>());
+		FrozenGraph<String> before = g.freeze();
+		GraphSnapshot<String> snapshot = g.snapshot();
+		assertSameGraph(before, snapshot);
+		assertEquals(0, g.getNumVersionedVertices());
+
+		g.getVertex(1).getOutArc(0).setTarget(g.getVertex(0));
+		new Arc<String>(g, g.getVertex(3), new Vertex<String>(g));
+
+		assertSameGraph(before, snapshot);
+		assertEquals(0, g.getOutNeighbor(1, 0));
+		assertEquals(5, g.getNumVertex());
+		// only the vertices changed keep a copy: 0, 1, 2 and 3.
+		assertEquals(4, g.getNumVersionedVertices());
+
+		snapshot.close();
+		assertEquals(0, g.getNumVersionedVertices());
+	}
+
+	@Test
+	public void testSeveralSnapshots() {
+		Graph<String> g = createGraph(new Graph<String>());
+		FrozenGraph<String> first = g.freeze();
+		GraphSnapshot<String> s1 = g.snapshot();
+
+		g.getVertex(0).getOutArc(0).setTarget(g.getVertex(2));
+		FrozenGraph<String> second = g.freeze();
+		GraphSnapshot<String> s2 = g.snapshot();
+
+		g.getVertex(0).getOutArc(0).setTarget(g.getVertex(3));
+
+		assertSameGraph(first, s1);
+		assertSameGraph(second, s2);
+
+		s1.close();
+		assertSameGraph(second, s2);
+		assertTrue(g.getNumVersionedVertices() > 0);
+		s2.close();
+		assertEquals(0, g.getNumVersionedVertices());
+	}
+
+	@Test
+	public void testSnapshotSeesRemovedVertices() {
+		Graph<String> g = createGraph(new Graph<String>());
+		FrozenGraph<String> before = g.freeze();
+		GraphSnapshot<String> snapshot = g.snapshot();
+
+		g.removeVertices(Collections.singleton(g.getVertex(1)));
+		assertFalse(g.containsVertex(1));
+		assertEquals(-1, g.getOutNeighbor(0, 0));
+
+		assertTrue(snapshot.containsVertex(1));
+		assertSameGraph(before, snapshot);
+		snapshot.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCompactWithOpenSnapshot() {
+		Graph<String> g = createGraph(new Graph<String>());
+		g.snapshot();
+		g.compact();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReadClosedSnapshot() {
+		Graph<String> g = createGraph(new Graph<String>());
+		GraphSnapshot<String> snapshot = g.snapshot();
+		snapshot.close();
+		snapshot.close();
+		g.compact();
+		snapshot.getOutDegree(0);
+	}
+
+	@Test
+	public void testSearchSnapshot() {
+		Graph<String> g = createGraph(new Graph<String>());
+		GraphSnapshot<String> snapshot = g.snapshot();
+		g.getVertex(0).getOutArc(1).setTarget(g.getVertex(0));
+		g.getVertex(1).getOutArc(0).setTarget(g.getVertex(0));
+
+		assertEquals(0, new BreadthFirstSearch<String>(g).search(0, 3).length);
+		int[] path = new BreadthFirstSearch<String>(snapshot).search(0, 3);
+		assertEquals(2, path.length);
+		assertEquals(0, path[0]);
+		assertEquals(3, path[1]);
+		snapshot.close();
+	}
+
+	/**
+	 * A writer rewires arcs at random while the snapshot is read and compared
+	 * with a frozen copy taken at the same time.
+	 */
+	@Test
+	public void testSnapshotWhileWriting() throws Throwable {
+		final Graph<String> g = new ConcurrentGraph<String>();
+		final Random random = new Random();
+		for (int i = 0; i < 50; i++) {
+			new Vertex<String>(g);
+		}
+		final List<Arc<String>> arcs = new ArrayList<Arc<String>>();
+		for (int i = 0; i < 200; i++) {
+			arcs.add(new Arc<String>(g, g.getVertex(random.nextInt(50)), g
+					.getVertex(random.nextInt(50))));
+		}
+
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		for (int round = 0; round < 10; round++) {
+			FrozenGraph<String> frozen = g.freeze();
+			GraphSnapshot<String> snapshot = g.snapshot();
+
+			final AtomicBoolean done = new AtomicBoolean();
+			Thread writer = new Thread(new Runnable() {
+				public void run() {
+					try {
+						while (!done.get()) {
+							Arc<String> arc = arcs.get(random.nextInt(arcs
+									.size()));
+							arc.setEndings(g.getVertex(random.nextInt(50)),
+									g.getVertex(random.nextInt(50)));
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			});
+			writer.start();
+			try {
+				for (int i = 0; i < 20; i++) {
+					assertSameGraph(frozen, snapshot);
+				}
+			} finally {
+				done.set(true);
+				writer.join();
+			}
+			assertSameGraph(frozen, snapshot);
+			snapshot.close();
+			assertEquals(0, g.getNumVersionedVertices());
+		}
+		if (!failures.isEmpty())
+			throw failures.get(0);
+	}
+
+	/**
+	 * Snapshots taken while writers move the targets of arcs see every move
+	 * on both of its vertices or on none of them.
+	 */
+	@Test
+	public void testSnapshotTakenWhileWriting() throws Throwable {
+		final Graph<String> g = new ConcurrentGraph<String>();
+		for (int i = 0; i < 50; i++) {
+			new Vertex<String>(g);
+		}
+		final List<Arc<String>> arcs = new ArrayList<Arc<String>>();
+		Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			arcs.add(new Arc<String>(g, g.getVertex(random.nextInt(50)), g
+					.getVertex(random.nextInt(50))));
+		}
+
+		final AtomicBoolean done = new AtomicBoolean();
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		List<Thread> writers = new ArrayList<Thread>();
+		for (int t = 0; t < 2; t++) {
+			final Random writerRandom = new Random(t);
+			Thread writer = new Thread(new Runnable() {
+				public void run() {
+					try {
+						while (!done.get()) {
+							arcs.get(writerRandom.nextInt(arcs.size()))
+									.setTarget(g.getVertex(writerRandom
+											.nextInt(50)));
+						}
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			});
+			writer.start();
+			writers.add(writer);
+		}
+
+		try {
+			for (int round = 0; round < 200; round++) {
+				GraphSnapshot<String> snapshot = g.snapshot();
+				try {
+					List<Long> out = new ArrayList<Long>();
+					List<Long> in = new ArrayList<Long>();
+					for (int v = 0; v < 50; v++) {
+						for (int w : neighbors(snapshot, v, true))
+							out.add(v * 50L + w);
+						for (int w : neighbors(snapshot, v, false))
+							in.add(w * 50L + v);
+					}
+					Collections.sort(in);
+					Collections.sort(out);
+					assertEquals(arcs.size(), out.size());
+					assertEquals(out, in);
+				} finally {
+					snapshot.close();
+				}
+			}
+		} finally {
+			done.set(true);
+			for (Thread writer : writers) {
+				writer.join();
+			}
+		}
+		if (!failures.isEmpty())
+			throw failures.get(0);
+	}
+}
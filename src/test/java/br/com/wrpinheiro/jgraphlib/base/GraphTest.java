@@ -22,7 +22,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -151,6 +155,244 @@ public class GraphTest {
 		assertFalse(g2.isAdjacent(vg2, vg2));
 	}
 	
+	@Test
+	public void testAdjacencyIndex() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+
+		Arc<Integer> a0 = new Arc<Integer>(g, v0, v1);
+		g.setAdjacencyIndexEnabled(true);
+		assertTrue(g.isAdjacencyIndexEnabled());
+		assertTrue(g.isAdjacent(v0, v1));
+		assertFalse(g.isAdjacent(v1, v0));
+
+		// parallel arcs
+		Arc<Integer> a1 = new Arc<Integer>(g, v0, v1);
+		a0.setTarget(v2);
+		assertTrue(g.isAdjacent(v0, v1));
+		assertTrue(g.isAdjacent(v0, v2));
+		v1.removeInArc(a1);
+		assertFalse(g.isAdjacent(v0, v1));
+
+		a0.setEndings(v2, v2);
+		assertFalse(g.isAdjacent(v0, v2));
+		assertTrue(g.isAdjacent(v2, v2));
+		v2.removeOutArc(a0);
+		assertFalse(g.isAdjacent(v2, v2));
+
+		Graph<Integer> g2 = new Graph<Integer>();
+		assertFalse(g.isAdjacent(v0, new Vertex<Integer>(g2)));
+
+		g.setAdjacencyIndexEnabled(false);
+		assertFalse(g.isAdjacencyIndexEnabled());
+	}
+
+	@Test
+	public void testAdjacencyIndexAgreesWithArcs() {
+		final int MAX_VERTICES = 30;
+		Graph<Integer> g = new Graph<Integer>();
+		Graph<Integer> scanned = new Graph<Integer>();
+		Random random = new Random(7);
+
+		List<Arc<Integer>> arcs = new ArrayList<Arc<Integer>>();
+		List<Arc<Integer>> scannedArcs = new ArrayList<Arc<Integer>>();
+		for (int i = 0; i < MAX_VERTICES; i++) {
+			new Vertex<Integer>(g);
+			new Vertex<Integer>(scanned);
+		}
+		g.setAdjacencyIndexEnabled(true);
+
+		for (int step = 0; step < 2000; step++) {
+			int s = random.nextInt(MAX_VERTICES);
+			int t = random.nextInt(MAX_VERTICES);
+			if (arcs.isEmpty() || random.nextInt(3) == 0) {
+				arcs.add(new Arc<Integer>(g, g.getVertex(s), g.getVertex(t)));
+				scannedArcs.add(new Arc<Integer>(scanned, scanned.getVertex(s),
+						scanned.getVertex(t)));
+			} else {
+				int i = random.nextInt(arcs.size());
+				if (random.nextBoolean()) {
+					arcs.get(i).setSource(g.getVertex(s));
+					scannedArcs.get(i).setSource(scanned.getVertex(s));
+				} else {
+					arcs.get(i).setTarget(g.getVertex(t));
+					scannedArcs.get(i).setTarget(scanned.getVertex(t));
+				}
+			}
+		}
+
+		for (int s = 0; s < MAX_VERTICES; s++) {
+			for (int t = 0; t < MAX_VERTICES; t++) {
+				assertEquals(scanned.isAdjacent(scanned.getVertex(s),
+						scanned.getVertex(t)), g.isAdjacent(g.getVertex(s),
+						g.getVertex(t)));
+			}
+		}
+	}
+
+	@Test
+	public void testAdjacencyViews() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+
+		List<Arc<Integer>> outArcs = v0.getOutArcsView();
+		assertEquals(0, outArcs.size());
+
+		Arc<Integer> a0 = new Arc<Integer>(g, v0, v1);
+		Arc<Integer> a1 = new Arc<Integer>(g, v0, null);
+
+		assertEquals(2, outArcs.size());
+		assertEquals(a0, outArcs.get(0));
+		assertEquals(2, v0.getOutDegree());
+		assertEquals(0, v0.getInDegree());
+		assertEquals(1, v1.getInDegree());
+		assertEquals(a1, v0.getOutArc(1));
+		assertEquals(a0, v1.getInArc(0));
+		assertEquals(1, v0.getOutNeighborId(0));
+		assertEquals(-1, v0.getOutNeighborId(1));
+		assertEquals(0, v1.getInNeighborId(0));
+
+		assertEquals(2, g.getOutDegree(0));
+		assertEquals(1, g.getOutNeighbor(0, 0));
+		assertEquals(1, g.getInDegree(1));
+		assertEquals(0, g.getInNeighbor(1, 0));
+
+		a0.setTarget(v0);
+		assertEquals(0, v0.getOutNeighborId(0));
+		assertEquals(0, v1.getInArcsView().size());
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testAdjacencyViewIsUnmodifiable() {
+		Graph<Integer> g = new Graph<Integer>();
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+
+		v0.getOutArcsView().add(new Arc<Integer>(g));
+	}
+
+	@Test
+	public void testRemoveVerticesKeepsIds() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+		Arc<Integer> a0 = new Arc<Integer>(g, v0, v1);
+		Arc<Integer> a1 = new Arc<Integer>(g, v0, v2);
+
+		Set<Vertex<Integer>> removed = new HashSet<Vertex<Integer>>(
+				Arrays.asList(v0, v1));
+		removed.remove(v0);
+		g.removeVertices(removed);
+
+		assertTrue(removed.contains(v1));
+		assertFalse(removed.contains(v0));
+		assertEquals(3, g.getNumVertex());
+		assertEquals(2, g.getNumLiveVertex());
+		assertEquals(1, v1.getId());
+		assertTrue(v1.isRemoved());
+		assertFalse(v2.isRemoved());
+		assertEquals(2, v2.getId());
+		assertEquals(v2, g.getVertex(2));
+		assertFalse(g.containsVertex(1));
+		assertEquals(-1, g.getOutNeighbor(0, 0));
+		assertEquals(2, g.getOutNeighbor(0, 1));
+
+		List<Vertex<Integer>> live = new ArrayList<Vertex<Integer>>();
+		for (Vertex<Integer> v : g.getVertices())
+			live.add(v);
+		assertEquals(Arrays.asList(v0, v2), live);
+
+		HashSet<Arc<Integer>> removedArcs = new HashSet<Arc<Integer>>(
+				Arrays.asList(a0, a1));
+		removedArcs.remove(a1);
+		g.removeArcs(removedArcs);
+		assertNull(g.getArc(0));
+		assertEquals(a1, g.getArc(1));
+		assertEquals(0, a0.getId());
+		assertTrue(a0.isRemoved());
+		assertTrue(removedArcs.contains(a0));
+		assertFalse(a0.equals(a1));
+	}
+
+	@Test(expected=InvalidVertexException.class)
+	public void testAccessToRemovedVertex() {
+		Graph<Integer> g = new Graph<Integer>();
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+
+		g.removeVertices(new HashSet<Vertex<Integer>>(Arrays.asList(v0)));
+		g.getVertex(0);
+	}
+
+	@Test
+	public void testCompact() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+		Vertex<Integer> v3 = new Vertex<Integer>(g);
+		Arc<Integer> a0 = new Arc<Integer>(g, v0, v1);
+		Arc<Integer> a1 = new Arc<Integer>(g, v3, v2);
+		g.setAdjacencyIndexEnabled(true);
+
+		g.removeVertices(new HashSet<Vertex<Integer>>(Arrays.asList(v0, v1)));
+		g.removeArcs(new HashSet<Arc<Integer>>(Arrays.asList(a0)));
+		int[] newIds = g.compact();
+
+		assertEquals(-1, newIds[0]);
+		assertEquals(-1, newIds[1]);
+		assertEquals(0, newIds[2]);
+		assertEquals(1, newIds[3]);
+
+		assertEquals(2, g.getNumVertex());
+		assertEquals(2, g.getNumLiveVertex());
+		assertEquals(v2, g.getVertex(0));
+		assertEquals(v3, g.getVertex(1));
+		assertEquals(a1, g.getArc(0));
+		assertEquals(0, a1.getId());
+		assertTrue(g.isAdjacent(v3, v2));
+		assertFalse(g.isAdjacent(v2, v3));
+		assertEquals(0, g.getOutNeighbor(1, 0));
+	}
+
+	@Test
+	public void testCompactDropsArcsOfRemovedVertices() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+		Arc<Integer> a0 = new Arc<Integer>(g, v2, v0);
+		Arc<Integer> a1 = new Arc<Integer>(g, v1, v2);
+
+		g.removeVertices(new HashSet<Vertex<Integer>>(Arrays.asList(v0)));
+		for (boolean indexed : new boolean[] { false, true }) {
+			g.setAdjacencyIndexEnabled(indexed);
+			assertFalse(v2.isAdjacent(v0));
+			assertTrue(v1.isAdjacent(v2));
+		}
+
+		g.compact();
+		assertEquals(0, v1.getId());
+		assertFalse(v0.equals(v1));
+		assertTrue(a0.isRemoved());
+		assertEquals(a1, g.getArc(0));
+		assertEquals(0, v2.getOutDegree());
+		assertEquals(1, v2.getInDegree());
+		for (boolean indexed : new boolean[] { true, false }) {
+			g.setAdjacencyIndexEnabled(indexed);
+			assertFalse(v2.isAdjacent(v1));
+			assertFalse(v2.isAdjacent(v0));
+			assertTrue(v1.isAdjacent(v2));
+		}
+	}
+
 	@Test
 	public void testRootVertex() {
 		Graph<Integer> g = new Graph<Integer>();
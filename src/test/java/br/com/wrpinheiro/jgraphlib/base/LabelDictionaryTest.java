@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.LabelDictionary;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class LabelDictionaryTest {
+
+	private Arc<String> createArc(Graph<String> g, String label) {
+		Arc<String> arc = new Arc<String>(g, new Vertex<String>(g),
+				new Vertex<String>(g));
+		arc.setLabel(label);
+		return arc;
+	}
+
+	@Test
+	public void testDictionary() {
+		LabelDictionary<String> dictionary = new LabelDictionary<String>();
+		assertEquals(0, dictionary.encode("a"));
+		assertEquals(1, dictionary.encode("b"));
+		assertEquals(0, dictionary.encode(new String("a")));
+		assertEquals(-1, dictionary.encode(null));
+		assertEquals(1, dictionary.getCode("b"));
+		assertEquals(-1, dictionary.getCode("c"));
+		assertEquals("b", dictionary.decode(1));
+		assertNull(dictionary.decode(-1));
+		assertEquals(2, dictionary.size());
+	}
+
+	@Test
+	public void testEncodedLabels() {
+		Graph<String> g = new Graph<String>();
+		Arc<String> a0 = this.createArc(g, new String("x"));
+		assertFalse(g.isLabelDictionaryEnabled());
+		assertEquals(-1, a0.getLabelCode());
+
+		g.setLabelDictionaryEnabled(true);
+		Arc<String> a1 = this.createArc(g, new String("x"));
+		Arc<String> a2 = this.createArc(g, "y");
+		Arc<String> a3 = this.createArc(g, null);
+
+		assertEquals(0, a0.getLabelCode());
+		assertEquals(0, a1.getLabelCode());
+		assertEquals(1, a2.getLabelCode());
+		assertEquals(-1, a3.getLabelCode());
+		assertSame(a0.getLabel(), a1.getLabel());
+		assertEquals(2, g.getLabelDictionary().size());
+
+		assertTrue(a0.hasSameLabel(a1));
+		assertFalse(a0.hasSameLabel(a2));
+		assertFalse(a0.hasSameLabel(a3));
+		assertTrue(a3.hasSameLabel(this.createArc(g, null)));
+
+		a2.setLabel("x");
+		assertTrue(a0.hasSameLabel(a2));
+
+		g.setLabelDictionaryEnabled(false);
+		assertNull(g.getLabelDictionary());
+		assertEquals(-1, a0.getLabelCode());
+		assertEquals("x", a0.getLabel());
+		assertTrue(a0.hasSameLabel(a1));
+	}
+
+	@Test
+	public void testLabelsOfDifferentGraphs() {
+		Graph<String> g1 = new Graph<String>();
+		Graph<String> g2 = new ConcurrentGraph<String>();
+		g1.setLabelDictionaryEnabled(true);
+		g2.setLabelDictionaryEnabled(true);
+		this.createArc(g2, "y");
+		Arc<String> a1 = this.createArc(g1, "x");
+		Arc<String> a2 = this.createArc(g2, "x");
+
+		assertEquals(0, a1.getLabelCode());
+		assertEquals(1, a2.getLabelCode());
+		assertTrue(a1.hasSameLabel(a2));
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearch;
+
+/**
+ * @author wrp
+ */
+public class OptimisticReadTest {
+	private static final int NUM_READERS = 4;
+
+	@Test
+	public void testValidate() {
+		ConcurrentGraph<String> g = new ConcurrentGraph<String>();
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+
+		long stamp = g.tryOptimisticRead();
+		assertTrue(stamp != 0);
+		assertTrue(g.validate(stamp));
+
+		new Vertex<String>(g);
+		assertTrue(g.validate(stamp));
+
+		Arc<String> arc = new Arc<String>(g, v0, v1);
+		assertFalse(g.validate(stamp));
+
+		stamp = g.tryOptimisticRead();
+		arc.setTarget(v0);
+		assertFalse(g.validate(stamp));
+
+		stamp = g.tryOptimisticRead();
+		v0.removeOutArc(arc);
+		assertFalse(g.validate(stamp));
+
+		stamp = g.tryOptimisticRead();
+		g.removeVertices(Collections.singleton(v1));
+		assertFalse(g.validate(stamp));
+
+		stamp = g.tryOptimisticRead();
+		g.compact();
+		assertFalse(g.validate(stamp));
+		assertTrue(g.validate(g.tryOptimisticRead()));
+		assertFalse(g.validate(0));
+	}
+
+	@Test
+	public void testOptimisticView() {
+		ConcurrentGraph<String> g = new ConcurrentGraph<String>();
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		Vertex<String> v2 = new Vertex<String>(g);
+		new Arc<String>(g, v0, v1);
+		new Arc<String>(g, v0, v2);
+		g.removeVertices(Collections.singleton(v2));
+
+		IndexedGraph view = g.getOptimisticView();
+		assertEquals(3, view.getNumVertex());
+		assertTrue(view.containsVertex(1));
+		assertFalse(view.containsVertex(2));
+		assertEquals(2, view.getOutDegree(0));
+		assertEquals(1, view.getOutNeighbor(0, 0));
+		assertEquals(-1, view.getOutNeighbor(0, 1));
+		assertEquals(1, view.getInDegree(1));
+		assertEquals(0, view.getInNeighbor(1, 0));
+		assertEquals(0, view.getOutDegree(2));
+	}
+
+	/**
+	 * One writer grows a chain 0 -> 1 -> ... and rewires extra arcs, always
+	 * from a lower to a higher id, while readers search paths from 0.
+	 */
+	@Test
+	public void testSearchWhileWriting() throws Throwable {
+		final Graph<String> g = new ConcurrentGraph<String>();
+		new Arc<String>(g, new Vertex<String>(g), new Vertex<String>(g));
+
+		final AtomicBoolean done = new AtomicBoolean();
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		List<Thread> readers = new ArrayList<Thread>();
+		for (int r = 0; r < NUM_READERS; r++) {
+			Thread reader = new Thread(new Runnable() {
+				public void run() {
+					try {
+						BreadthFirstSearch<String> bfs = new BreadthFirstSearch<String>(
+								g);
+						Random random = new Random();
+						while (!done.get()) {
+							// the last vertex may still lack its arc.
+							int v = random.nextInt(g.getNumVertex() - 1);
+							int[] path = bfs.search(0, v);
+							assertTrue(path.length > 0);
+							assertEquals(0, path[0]);
+							assertEquals(v, path[path.length - 1]);
+							for (int i = 1; i < path.length; i++) {
+								assertTrue(path[i - 1] < path[i]);
+							}
+						}
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			});
+			reader.start();
+			readers.add(reader);
+		}
+
+		Random random = new Random();
+		List<Arc<String>> extra = new ArrayList<Arc<String>>();
+		for (int i = 2; i < 3000; i++) {
+			Vertex<String> v = new Vertex<String>(g);
+			new Arc<String>(g, g.getVertex(i - 1), v);
+			if (i % 3 == 0) {
+				extra.add(new Arc<String>(g, g.getVertex(random.nextInt(i)), v));
+			} else if (!extra.isEmpty()) {
+				int source = random.nextInt(i);
+				Arc<String> arc = extra.get(random.nextInt(extra.size()));
+				arc.setTarget(null);
+				arc.setSource(g.getVertex(source));
+				arc.setTarget(g.getVertex(source + 1
+						+ random.nextInt(i - source)));
+			}
+		}
+		done.set(true);
+
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		if (!failures.isEmpty())
+			throw failures.get(0);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.BooleanColumn;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.DoubleColumn;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.IntColumn;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.LongColumn;
+import br.com.wrpinheiro.jgraphlib.ObjectColumn;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class PropertyColumnTest {
+
+	@Test
+	public void testColumns() {
+		Graph<String> g = new Graph<String>();
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		assertFalse(g.hasColumn("weight"));
+
+		IntColumn ints = g.getIntColumn("weight");
+		assertTrue(g.hasColumn("weight"));
+		assertSame(ints, g.getIntColumn("weight"));
+		assertEquals(0, ints.get(v1));
+		ints.set(v1, 7);
+		assertEquals(0, ints.get(v0));
+		assertEquals(7, ints.get(v1));
+		assertEquals(0, ints.get(1000));
+
+		LongColumn longs = g.getLongColumn("time");
+		longs.set(v0, 1L << 40);
+		assertEquals(1L << 40, longs.get(0));
+
+		DoubleColumn doubles = g.getDoubleColumn("distance");
+		doubles.set(1, 0.5);
+		assertEquals(0.5, doubles.get(v1), 0.0);
+
+		BooleanColumn marks = g.getBooleanColumn("mark");
+		marks.set(v0, true);
+		assertTrue(marks.get(v0));
+		assertFalse(marks.get(v1));
+		assertEquals(1, marks.count());
+
+		ObjectColumn<String> names = g.getObjectColumn("name");
+		names.set(v0, "zero");
+		assertEquals("zero", names.get(v0));
+		assertNull(names.get(v1));
+
+		assertTrue(g.removeColumn("weight"));
+		assertFalse(g.removeColumn("weight"));
+		assertEquals(0, g.getIntColumn("weight").get(v1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testColumnOfAnotherType() {
+		Graph<String> g = new Graph<String>();
+		g.getIntColumn("weight");
+		g.getDoubleColumn("weight");
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testColumnOfRemovedVertex() {
+		Graph<String> g = new Graph<String>();
+		Vertex<String> v0 = new Vertex<String>(g);
+		g.removeVertices(Collections.singleton(v0));
+		g.getIntColumn("weight").get(v0);
+	}
+
+	@Test
+	public void testRemoveAndCompact() {
+		Graph<String> g = new ConcurrentGraph<String>();
+		for (int i = 0; i < 6; i++) {
+			new Vertex<String>(g);
+		}
+		IntColumn ints = g.getIntColumn("weight");
+		BooleanColumn marks = g.getBooleanColumn("mark");
+		ObjectColumn<String> names = g.getObjectColumn("name");
+		for (int i = 0; i < 6; i++) {
+			ints.set(i, i * 10);
+			marks.set(i, i % 2 == 0);
+			names.set(i, "v" + i);
+		}
+
+		Vertex<String> v4 = g.getVertex(4);
+		g.removeVertices(Collections.singleton(g.getVertex(2)));
+		assertEquals(0, ints.get(2));
+		assertFalse(marks.get(2));
+		assertNull(names.get(2));
+
+		g.compact();
+		assertEquals(3, v4.getId());
+		assertEquals(40, ints.get(v4));
+		assertTrue(marks.get(v4));
+		assertEquals("v4", names.get(v4));
+		assertEquals(50, ints.get(4));
+		assertEquals(0, ints.get(5));
+		assertEquals(2, marks.count());
+		assertNull(names.get(5));
+	}
+
+	@Test
+	public void testVertexProperty() {
+		Graph<String> g = new Graph<String>();
+		Vertex<String> v0 = new Vertex<String>(g);
+		assertNull(v0.getProperty("at"));
+		v0.setProperty("at", Boolean.TRUE);
+		assertEquals(Boolean.TRUE, v0.getProperty("at"));
+	}
+}
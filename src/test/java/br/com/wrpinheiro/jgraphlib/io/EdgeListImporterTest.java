@@ -0,0 +1,141 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+
+/**
+ * @author wrp
+ */
+public class EdgeListImporterTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Keeps every arc received, as "source target weight".
+	 */
+	private static class ListSink implements EdgeSink {
+		private int numVertex = -1;
+		private List<String> arcs = new ArrayList<String>();
+
+		public void setNumVertex(int numVertex) {
+			this.numVertex = numVertex;
+		}
+
+		public void addArcs(int[] sources, int[] targets, double[] weights,
+				int length) {
+			for (int i = 0; i < length; i++) {
+				this.arcs.add(sources[i] + " " + targets[i] + " "
+						+ (weights == null ? "-" : String.valueOf(weights[i])));
+			}
+		}
+	}
+
+	private InputStream stream(String text) throws IOException {
+		return new ByteArrayInputStream(text.getBytes("US-ASCII"));
+	}
+
+	@Test
+	public void testEdgeList() throws IOException {
+		EdgeListImporter importer = new EdgeListImporter(
+				EdgeListImporter.Format.EDGE_LIST);
+		ListSink sink = new ListSink();
+
+		ImportStatistics stats = importer.importStream(
+				stream("# comment\n0 1\n\n  1\t2 \r\n% other\n2 0"), sink);
+
+		assertEquals(3, stats.getNumArcs());
+		assertEquals(-1, sink.numVertex);
+		assertEquals("0 1 -", sink.arcs.get(0));
+		assertEquals("1 2 -", sink.arcs.get(1));
+		assertEquals("2 0 -", sink.arcs.get(2));
+	}
+
+	@Test
+	public void testDimacs() throws IOException {
+		EdgeListImporter importer = new EdgeListImporter(
+				EdgeListImporter.Format.DIMACS);
+		ListSink sink = new ListSink();
+
+		importer.importStream(stream("c comment\np sp 4 3\na 1 2 7\na 2 3 0.5\n"
+				+ "a 4 1\n"), sink);
+
+		assertEquals(4, sink.numVertex);
+		assertEquals(3, sink.arcs.size());
+		assertEquals("0 1 7.0", sink.arcs.get(0));
+		assertEquals("1 2 0.5", sink.arcs.get(1));
+		assertEquals("3 0 1.0", sink.arcs.get(2));
+	}
+
+	@Test
+	public void testSmallChunksKeepFileOrder() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			text.append(i).append(' ').append(i + 1).append('\n');
+		}
+
+		EdgeListImporter importer = new EdgeListImporter(
+				EdgeListImporter.Format.EDGE_LIST);
+		importer.setChunkSize(7);
+		importer.setParallelism(3);
+		ListSink sink = new ListSink();
+		importer.importStream(stream(text.toString()), sink);
+
+		assertEquals(1000, sink.arcs.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i + " " + (i + 1) + " -", sink.arcs.get(i));
+		}
+	}
+
+	@Test
+	public void testImportIntoBuilder() throws IOException {
+		File file = folder.newFile("graph.txt");
+		FileOutputStream out = new FileOutputStream(file);
+		out.write("p sp 5 2\na 1 2\na 2 3\n".getBytes("US-ASCII"));
+		out.close();
+
+		GraphBuilder<String> builder = new GraphBuilder<String>(0, 0);
+		new EdgeListImporter(EdgeListImporter.Format.DIMACS).importFile(file,
+				new GraphBuilderSink<String>(builder));
+		FrozenGraph<String> fg = builder.toFrozenGraph();
+
+		assertEquals(5, fg.getNumVertex());
+		assertEquals(2, fg.getNumArc());
+		assertEquals(1, fg.getOutNeighbor(0, 0));
+		assertEquals(2, fg.getOutNeighbor(1, 0));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedLine() throws IOException {
+		new EdgeListImporter(EdgeListImporter.Format.EDGE_LIST).importStream(
+				stream("0 1\n0 x\n"), new ListSink());
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearch;
+
+/**
+ * @author wrp
+ */
+public class MappedGraphTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private FrozenGraph<String> createGraph() {
+		Graph<String> g = new Graph<String>();
+
+		Vertex<String> v0 = new Vertex<String>(g);
+		Vertex<String> v1 = new Vertex<String>(g);
+		Vertex<String> v2 = new Vertex<String>(g);
+		Vertex<String> v3 = new Vertex<String>(g);
+
+		new Arc<String>(g, v0, v1).setLabel("a");
+		new Arc<String>(g, v1, v2).setLabel("\u00e7\u00e3o");
+		new Arc<String>(g, v0, v2);
+		new Arc<String>(g, v2, v3).setLabel("");
+
+		return g.freeze();
+	}
+
+	@Test
+	public void testWriteAndOpen() throws IOException {
+		FrozenGraph<String> fg = createGraph();
+		File file = folder.newFile("graph.bin");
+		new BinaryGraphWriter<String>(new StringLabelCodec()).write(fg, file);
+
+		MappedGraph<String> mg = MappedGraph.open(file, new StringLabelCodec());
+
+		assertEquals(fg.getNumVertex(), mg.getNumVertex());
+		assertEquals(fg.getNumArc(), mg.getNumArc());
+		for (int v = 0; v < fg.getNumVertex(); v++) {
+			assertEquals(fg.getOutDegree(v), mg.getOutDegree(v));
+			for (int i = 0; i < fg.getOutDegree(v); i++) {
+				assertEquals(fg.getOutNeighbor(v, i), mg.getOutNeighbor(v, i));
+				assertEquals(fg.getOutArcLabel(v, i), mg.getOutArcLabel(v, i));
+			}
+			assertEquals(fg.getInDegree(v), mg.getInDegree(v));
+			for (int i = 0; i < fg.getInDegree(v); i++) {
+				assertEquals(fg.getInNeighbor(v, i), mg.getInNeighbor(v, i));
+				assertEquals(fg.getInArcLabel(v, i), mg.getInArcLabel(v, i));
+			}
+		}
+		assertNull(mg.getOutArcLabel(0, 1));
+		assertEquals("", mg.getOutArcLabel(2, 0));
+	}
+
+	@Test
+	public void testSearchMappedGraph() throws IOException {
+		File file = folder.newFile("graph.bin");
+		new BinaryGraphWriter<String>().write(createGraph(), file);
+
+		MappedGraph<String> mg = MappedGraph.open(file);
+		assertFalse(mg.hasLabels());
+
+		int[] path = new BreadthFirstSearch<String>(mg).search(0, 3);
+		assertEquals(3, path.length);
+		assertEquals(0, path[0]);
+		assertEquals(2, path[1]);
+		assertEquals(3, path[2]);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testLabelsNotWritten() throws IOException {
+		File file = folder.newFile("graph.bin");
+		new BinaryGraphWriter<String>().write(createGraph(), file);
+
+		MappedGraph.open(file, new StringLabelCodec()).getOutArcLabel(0, 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void testOpenInvalidFile() throws IOException {
+		File file = folder.newFile("graph.txt");
+		FileOutputStream out = new FileOutputStream(file);
+		out.write("0 1\n1 2\n".getBytes("US-ASCII"));
+		out.close();
+
+		MappedGraph.open(file);
+	}
+}
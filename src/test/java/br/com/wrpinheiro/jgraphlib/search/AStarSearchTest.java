@@ -0,0 +1,164 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.LABEL;
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createLabelledGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class AStarSearchTest {
+
+	/**
+	 * A side x side grid with arcs both ways between neighbours, costing 1
+	 * plus a random amount.
+	 */
+	private Graph<Double> createGrid(int side, long seed) {
+		Random random = new Random(seed);
+		Graph<Double> g = new Graph<Double>();
+		for (int i = 0; i < side * side; i++) {
+			new Vertex<Double>(g);
+		}
+		for (int y = 0; y < side; y++) {
+			for (int x = 0; x < side; x++) {
+				int v = y * side + x;
+				if (x + 1 < side) {
+					new Arc<Double>(g, g.getVertex(v), g.getVertex(v + 1))
+							.setLabel(1 + random.nextDouble());
+					new Arc<Double>(g, g.getVertex(v + 1), g.getVertex(v))
+							.setLabel(1 + random.nextDouble());
+				}
+				if (y + 1 < side) {
+					new Arc<Double>(g, g.getVertex(v), g.getVertex(v + side))
+							.setLabel(1 + random.nextDouble());
+					new Arc<Double>(g, g.getVertex(v + side), g.getVertex(v))
+							.setLabel(1 + random.nextDouble());
+				}
+			}
+		}
+		return g;
+	}
+
+	@Test
+	public void testManhattanHeuristic() {
+		final int side = 30;
+		Graph<Double> g = this.createGrid(side, 1);
+		DijkstraSearch<Double> dijkstra = new DijkstraSearch<Double>(g, LABEL);
+		AStarSearch<Double> aStar = new AStarSearch<Double>(g, LABEL,
+				new Heuristic() {
+					public double estimate(int v, int target) {
+						// every arc costs at least 1.
+						return Math.abs(v % side - target % side)
+								+ Math.abs(v / side - target / side);
+					}
+				});
+		Random random = new Random(2);
+		for (int i = 0; i < 50; i++) {
+			int u = random.nextInt(side * side);
+			int v = random.nextInt(side * side);
+			assertEquals(dijkstra.getDistance(u, v), aStar.getDistance(u, v),
+					1e-9);
+			assertEquals(dijkstra.search(u, v).length, aStar.search(u, v).length);
+		}
+	}
+
+	@Test
+	public void testLandmarks() {
+		Graph<Double> g = createLabelledGraph(400, 1600, 3);
+		DijkstraSearch<Double> dijkstra = new DijkstraSearch<Double>(g, LABEL);
+		LandmarkHeuristic landmarks = new LandmarkHeuristic(dijkstra, 4);
+		AStarSearch<Double> alt = new AStarSearch<Double>(g, LABEL, landmarks);
+
+		Random random = new Random(4);
+		for (int i = 0; i < 20; i++) {
+			int u = random.nextInt(400);
+			double[] distances = dijkstra.getDistances(u);
+			for (int v = 0; v < 400; v++) {
+				assertEquals(distances[v], alt.getDistance(u, v), 0);
+				// the estimate never exceeds the real distance.
+				assertTrue(landmarks.estimate(u, v) <= distances[v]);
+			}
+			assertEquals(0, landmarks.estimate(u, u), 0);
+		}
+	}
+
+	@Test
+	public void testLandmarksAreConsistent() {
+		Graph<Double> g = createLabelledGraph(200, 800, 5);
+		DijkstraSearch<Double> dijkstra = new DijkstraSearch<Double>(g, LABEL);
+		LandmarkHeuristic landmarks = new LandmarkHeuristic(dijkstra, 3);
+		for (int t = 0; t < 200; t += 13) {
+			for (Arc<Double> arc : g.getArcs()) {
+				int v = arc.getSource().getId();
+				int w = arc.getTarget().getId();
+				double hv = landmarks.estimate(v, t);
+				double hw = landmarks.estimate(w, t);
+				assertTrue(hw == Double.POSITIVE_INFINITY
+						|| hv <= arc.getLabel() + hw);
+			}
+		}
+	}
+
+	@Test
+	public void testChooseLandmarks() {
+		// two components: 0 -> 1 -> 2 and 3 -> 4.
+		Graph<Double> g = new Graph<Double>();
+		for (int i = 0; i < 5; i++) {
+			new Vertex<Double>(g);
+		}
+		new Arc<Double>(g, g.getVertex(0), g.getVertex(1)).setLabel(1.0);
+		new Arc<Double>(g, g.getVertex(1), g.getVertex(2)).setLabel(1.0);
+		new Arc<Double>(g, g.getVertex(3), g.getVertex(4)).setLabel(1.0);
+		DijkstraSearch<Double> dijkstra = new DijkstraSearch<Double>(g, LABEL);
+
+		// the vertices not reached are the farthest ones, so each component
+		// gets a landmark.
+		int[] chosen = new LandmarkHeuristic(dijkstra, 2).getLandmarks();
+		assertArrayEquals(new int[] { 3, 0 }, chosen);
+
+		Set<Integer> all = new HashSet<Integer>();
+		for (int v : new LandmarkHeuristic(dijkstra, 5).getLandmarks()) {
+			all.add(v);
+		}
+		assertEquals(5, all.size());
+	}
+
+	@Test
+	public void testUnreachableTarget() {
+		Graph<Double> g = this.createGrid(3, 6);
+		Vertex<Double> isolated = new Vertex<Double>(g);
+		DijkstraSearch<Double> dijkstra = new DijkstraSearch<Double>(g, LABEL);
+		AStarSearch<Double> alt = new AStarSearch<Double>(g, LABEL,
+				new LandmarkHeuristic(dijkstra, new int[] { 0 }));
+		assertEquals(Double.POSITIVE_INFINITY, alt.getDistance(0,
+				isolated.getId()), 0);
+		assertArrayEquals(new int[0], alt.search(4, isolated.getId()));
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * @author wrp
+ */
+public class BreadthFirstIteratorTest {
+
+	/**
+	 * A graph counting the neighbours read, to check what a traversal
+	 * touches.
+	 */
+	private static class CountingGraph implements IndexedGraph {
+		private final IndexedGraph g;
+		private int reads;
+
+		CountingGraph(IndexedGraph g) {
+			this.g = g;
+		}
+
+		public int getNumVertex() {
+			return this.g.getNumVertex();
+		}
+
+		public boolean containsVertex(int v) {
+			return this.g.containsVertex(v);
+		}
+
+		public int getOutDegree(int v) {
+			return this.g.getOutDegree(v);
+		}
+
+		public int getOutNeighbor(int v, int i) {
+			this.reads++;
+			return this.g.getOutNeighbor(v, i);
+		}
+
+		public int getInDegree(int v) {
+			return this.g.getInDegree(v);
+		}
+
+		public int getInNeighbor(int v, int i) {
+			return this.g.getInNeighbor(v, i);
+		}
+	}
+
+	/**
+	 * A binary tree: vertex v has the arcs v -> 2v + 1 and v -> 2v + 2.
+	 */
+	private FrozenGraph<Integer> createTree(int n) {
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n, n);
+		for (int v = 1; v < n; v++) {
+			builder.addArcs(new int[] { (v - 1) / 2 }, new int[] { v }, null);
+		}
+		return builder.toFrozenGraph();
+	}
+
+	@Test
+	public void testOrder() {
+		FrozenGraph<Integer> g = this.createTree(15);
+		BreadthFirstIterator it = new BreadthFirstIterator(g, 0);
+		for (int v = 0; v < 15; v++) {
+			assertTrue(it.hasNext());
+			assertEquals(v, it.nextVertex());
+			assertEquals(31 - Integer.numberOfLeadingZeros(v + 1), it.getDepth());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testDepthMatchesBreadthFirstSearch() {
+		int n = 2000;
+		Random random = new Random(1);
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n, 4 * n);
+		for (int i = 0; i < 4 * n; i++) {
+			builder.addArcs(new int[] { random.nextInt(n) },
+					new int[] { random.nextInt(n) }, null);
+		}
+		FrozenGraph<Integer> g = builder.toFrozenGraph();
+		BreadthFirstSearch<Integer> search = new BreadthFirstSearch<Integer>(g);
+
+		boolean[] seen = new boolean[n];
+		int last = 0;
+		for (BreadthFirstIterator it = new BreadthFirstIterator(g, 0); it
+				.hasNext();) {
+			int v = it.next();
+			assertFalse(seen[v]);
+			seen[v] = true;
+			assertTrue(it.getDepth() >= last);
+			last = it.getDepth();
+			assertEquals(search.search(0, v).length - 1, it.getDepth());
+		}
+		for (int v = 0; v < n; v++) {
+			assertEquals(search.search(0, v).length > 0, seen[v]);
+		}
+	}
+
+	@Test
+	public void testMaxDepth() {
+		BreadthFirstIterator it = new BreadthFirstIterator(this.createTree(1000),
+				0);
+		it.setMaxDepth(2);
+		assertEquals(7, it.traverse());
+		assertEquals(2, it.getDepth());
+	}
+
+	@Test
+	public void testLazy() {
+		CountingGraph g = new CountingGraph(this.createTree(100000));
+		BreadthFirstIterator it = new BreadthFirstIterator(g, 0);
+		assertEquals(0, it.nextVertex());
+		assertEquals(0, g.reads);
+		assertEquals(1, it.nextVertex());
+		assertEquals(2, g.reads);
+		assertEquals(2, it.nextVertex());
+		assertEquals(2, g.reads);
+		assertEquals(3, it.nextVertex());
+		assertEquals(4, g.reads);
+	}
+
+	@Test
+	public void testVisitorPrunes() {
+		FrozenGraph<Integer> g = this.createTree(15);
+		final int[] visited = new int[15];
+		BreadthFirstIterator it = new BreadthFirstIterator(g, 0);
+		it.setVisitor(new BreadthFirstVisitor() {
+			public boolean visit(int v, int depth) {
+				visited[v]++;
+				// leave the subtree of 2 out.
+				return v != 2;
+			}
+		});
+		assertEquals(9, it.traverse());
+		assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 0, 0, 1, 1, 1, 1, 0, 0,
+				0, 0 }, visited);
+	}
+
+	@Test
+	public void testCancel() {
+		CountingGraph g = new CountingGraph(this.createTree(100000));
+		final BreadthFirstIterator it = new BreadthFirstIterator(g, 0);
+		it.setVisitor(new BreadthFirstVisitor() {
+			public boolean visit(int v, int depth) {
+				if (v == 10)
+					it.cancel();
+				return true;
+			}
+		});
+		assertEquals(11, it.traverse());
+		assertTrue(it.isCancelled());
+		assertFalse(it.hasNext());
+		assertEquals(10, g.reads);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testNextAfterEnd() {
+		BreadthFirstIterator it = new BreadthFirstIterator(this.createTree(1), 0);
+		it.next();
+		it.next();
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testInvalidSource() {
+		new BreadthFirstIterator(this.createTree(3), 3);
+	}
+}
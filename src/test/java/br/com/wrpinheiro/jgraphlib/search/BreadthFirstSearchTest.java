@@ -16,11 +16,19 @@
 package br.com.wrpinheiro.jgraphlib.search;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import org.junit.Assume;
 import org.junit.Test;
 
 import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
 import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
 import br.com.wrpinheiro.jgraphlib.Vertex;
 import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearch;
 
@@ -113,4 +121,186 @@ public class BreadthFirstSearchTest {
 		assertEquals(1, v.length);
 		assertEquals(v1, v[0]);
 	}
+
+	@Test
+	public void testSearchWithoutPath() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+
+		new Arc<Integer>(g, v0, null);
+		new Arc<Integer>(g, v1, v0);
+		new Arc<Integer>(g, v0, v2);
+
+		BreadthFirstSearch<Integer> brFs = new BreadthFirstSearch<Integer>(g);
+		assertEquals(0, brFs.search(v2, v1).length);
+		assertEquals(0, brFs.search(v0, v1).length);
+		assertEquals(3, brFs.search(v1, v2).length);
+	}
+
+	@Test
+	public void testSearchFrozenGraph() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		//
+		// 0 <------ 1
+		// |
+		// v
+		// 2 ------> 4 ------> 3
+		// |                   ^
+		// |                   |
+		// +-------------------+
+		//
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+		Vertex<Integer> v3 = new Vertex<Integer>(g);
+		Vertex<Integer> v4 = new Vertex<Integer>(g);
+
+		new Arc<Integer>(g, v1, v0);
+		new Arc<Integer>(g, v0, v2);
+		new Arc<Integer>(g, v2, v4);
+		new Arc<Integer>(g, v4, v3);
+		new Arc<Integer>(g, v2, v3);
+
+		BreadthFirstSearch<Integer> brFs = new BreadthFirstSearch<Integer>(g.freeze());
+		int[] path = brFs.search(1, 3);
+
+		assertEquals(4, path.length);
+		assertEquals(1, path[0]);
+		assertEquals(0, path[1]);
+		assertEquals(2, path[2]);
+		assertEquals(3, path[3]);
+
+		assertEquals(0, brFs.search(3, 1).length);
+
+		path = brFs.search(4, 4);
+		assertEquals(1, path.length);
+		assertEquals(4, path[0]);
+	}
+
+	@Test
+	public void testBidirectionalSearch() {
+		Graph<Integer> g = new Graph<Integer>();
+
+		//
+		// 0 <------ 1
+		// |
+		// v
+		// 2 ------> 4 ------> 3
+		// |                   ^
+		// |                   |
+		// +-------------------+
+		//
+
+		Vertex<Integer> v0 = new Vertex<Integer>(g);
+		Vertex<Integer> v1 = new Vertex<Integer>(g);
+		Vertex<Integer> v2 = new Vertex<Integer>(g);
+		Vertex<Integer> v3 = new Vertex<Integer>(g);
+		Vertex<Integer> v4 = new Vertex<Integer>(g);
+
+		new Arc<Integer>(g, v1, v0);
+		new Arc<Integer>(g, v0, v2);
+		new Arc<Integer>(g, v2, v4);
+		new Arc<Integer>(g, v4, v3);
+		new Arc<Integer>(g, v2, v3);
+		new Arc<Integer>(g, null, v3);
+
+		BreadthFirstSearch<Integer> brFs = new BreadthFirstSearch<Integer>(g);
+		brFs.setBidirectional(true);
+		Vertex<Integer>[] v = brFs.search(v1, v3);
+		assertEquals(4, v.length);
+		assertEquals(v1, v[0]);
+		assertEquals(v0, v[1]);
+		assertEquals(v2, v[2]);
+		assertEquals(v3, v[3]);
+
+		assertEquals(0, brFs.search(v3, v1).length);
+		assertEquals(1, brFs.search(v4, v4).length);
+		assertEquals(2, brFs.search(v4, v3).length);
+	}
+
+	@Test
+	public void testBidirectionalSearchRandomGraph() {
+		Random random = new Random(1);
+		int n = 3000;
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n, 4 * n);
+		for (int i = 0; i < 4 * n; i++) {
+			builder.addArcs(new int[] { random.nextInt(n) },
+					new int[] { random.nextInt(n) }, null);
+		}
+		FrozenGraph<Integer> g = builder.toFrozenGraph();
+
+		BreadthFirstSearch<Integer> forward = new BreadthFirstSearch<Integer>(g);
+		BreadthFirstSearch<Integer> both = new BreadthFirstSearch<Integer>(g);
+		both.setBidirectional(true);
+		for (int i = 0; i < 200; i++) {
+			int u = random.nextInt(n);
+			int w = random.nextInt(n);
+			int[] path = both.search(u, w);
+			assertEquals(forward.search(u, w).length, path.length);
+			for (int j = 1; j < path.length; j++) {
+				boolean found = false;
+				for (int k = 0; k < g.getOutDegree(path[j - 1]); k++) {
+					found |= g.getOutNeighbor(path[j - 1], k) == path[j];
+				}
+				assertTrue(found);
+			}
+			if (path.length > 0) {
+				assertEquals(u, path[0]);
+				assertEquals(w, path[path.length - 1]);
+			}
+		}
+	}
+
+	/**
+	 * After the first search a search allocates only its result. Measured
+	 * with the allocation counter of the thread, where available.
+	 */
+	@Test
+	public void testSearchAllocation() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+		Assume.assumeTrue(counter.isThreadAllocatedMemorySupported()
+				&& counter.isThreadAllocatedMemoryEnabled());
+
+		Random random = new Random(1);
+		int n = 20000;
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n, 3 * n);
+		for (int i = 0; i < 3 * n; i++) {
+			builder.addArcs(new int[] { random.nextInt(n) },
+					new int[] { random.nextInt(n) }, null);
+		}
+		FrozenGraph<Integer> g = builder.toFrozenGraph();
+		int[] sources = new int[1000];
+		int[] targets = new int[1000];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = random.nextInt(n);
+			targets[i] = random.nextInt(n);
+		}
+
+		BreadthFirstSearch<Integer> brFs = new BreadthFirstSearch<Integer>(g);
+		for (boolean bidirectional : new boolean[] { false, true }) {
+			brFs.setBidirectional(bidirectional);
+			for (int i = 0; i < sources.length; i++) {
+				brFs.search(sources[i], targets[i]);
+			}
+
+			long thread = Thread.currentThread().getId();
+			long before = counter.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < sources.length; i++) {
+				brFs.search(sources[i], targets[i]);
+			}
+			long perSearch = (counter.getThreadAllocatedBytes(thread) - before)
+					/ sources.length;
+			// a path array, while the arrays indexed by vertex id would take
+			// over 200KB.
+			assertTrue("allocated " + perSearch + " bytes per search",
+					perSearch < 1024);
+		}
+	}
 }
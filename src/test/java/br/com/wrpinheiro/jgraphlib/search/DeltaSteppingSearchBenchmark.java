@@ -0,0 +1,98 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import br.com.wrpinheiro.jgraphlib.Graph;
+
+/**
+ * Times {@link DeltaSteppingSearch} on a random graph for several deltas and
+ * 1, 2, 4... threads up to the number of processors, against
+ * {@link DijkstraSearch}, and checks that every run finds the distances of
+ * Dijkstra. It is not a test and is not run by the build; run it on a
+ * multi-core machine with
+ * 
+ * <pre>
+ * mvn test-compile
+ * java -Xmx4g -cp target/classes:target/test-classes \
+ *     br.com.wrpinheiro.jgraphlib.search.DeltaSteppingSearchBenchmark \
+ *     [numVertex] [numArc] [maxThreads] [repeats]
+ * </pre>
+ * 
+ * The defaults are 200000 vertices, 1000000 arcs costing from 0 to 99.9,
+ * every processor and 3 repeats. The deltas swept are the default one and 1,
+ * 10 and 100. The speedup of the parallel relaxations has not been measured
+ * on a multi-core machine yet.
+ * 
+ * @author wrp
+ */
+public class DeltaSteppingSearchBenchmark {
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int m = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime
+				.getRuntime().availableProcessors();
+		int repeats = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+		double[] weights = new double[m];
+		Graph<Integer> g = SearchTestGraphs.createWeightedGraph(n, m, weights,
+				1);
+		System.out.println(n + " vertices, " + m + " arcs, "
+				+ Runtime.getRuntime().availableProcessors() + " processors");
+
+		final DijkstraSearch<Integer> dijkstra = new DijkstraSearch<Integer>(g,
+				weights);
+		double[] expected = dijkstra.getDistances(0);
+		double base = ParallelBreadthFirstSearchBenchmark.best(repeats,
+				new Runnable() {
+					public void run() {
+						dijkstra.getDistances(0);
+					}
+				});
+		System.out.printf("dijkstra              %8.1f ms%n", base);
+
+		for (double delta : new double[] { Double.NaN, 1, 10, 100 }) {
+			for (int threads : ParallelBreadthFirstSearchBenchmark
+					.threadCounts(maxThreads)) {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				try {
+					final DeltaSteppingSearch<Integer> search;
+					search = new DeltaSteppingSearch<Integer>(g, weights, pool);
+					if (!Double.isNaN(delta))
+						search.setDelta(delta);
+					if (!Arrays.equals(expected, search.getDistances(0)))
+						throw new AssertionError("Distances differ, delta "
+								+ delta + ", " + threads + " threads");
+					double time = ParallelBreadthFirstSearchBenchmark.best(
+							repeats, new Runnable() {
+								public void run() {
+									search.getDistances(0);
+								}
+							});
+					System.out.printf(
+							"delta %-7s %2d threads  %8.1f ms  speedup %.2f%n",
+							Double.isNaN(delta) ? "default" : delta, threads,
+							time, base / time);
+				} finally {
+					pool.shutdown();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createWeightedGraph;
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class DeltaSteppingSearchTest {
+
+	@Test
+	public void testSameDistancesAsDijkstra() {
+		double[] weights = new double[20000];
+		Graph<Integer> g = createWeightedGraph(5000, 20000, weights, 1);
+		DijkstraSearch<Integer> dijkstra = new DijkstraSearch<Integer>(g,
+				weights);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			DeltaSteppingSearch<Integer> search = new DeltaSteppingSearch<Integer>(
+					g, weights, pool);
+			for (double delta : new double[] { Double.NaN, 0.5, 10, 1000 }) {
+				if (!Double.isNaN(delta))
+					search.setDelta(delta);
+				for (int u = 0; u < 5000; u += 1111) {
+					assertArrayEquals(dijkstra.getDistances(u),
+							search.getDistances(u), 0);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testOwnPool() {
+		double[] weights = new double[3000];
+		Graph<Integer> g = createWeightedGraph(1000, 3000, weights, 2);
+		DeltaSteppingSearch<Integer> search = new DeltaSteppingSearch<Integer>(
+				g, weights);
+		search.setParallelism(2);
+		assertArrayEquals(new DijkstraSearch<Integer>(g, weights)
+				.getDistances(7), search.getDistances(7), 0);
+	}
+
+	@Test
+	public void testZeroWeightsAndRemovedVertices() {
+		Graph<Integer> g = new Graph<Integer>();
+		for (int i = 0; i < 5; i++) {
+			new Vertex<Integer>(g);
+		}
+		new Arc<Integer>(g, g.getVertex(0), g.getVertex(1));
+		new Arc<Integer>(g, g.getVertex(1), g.getVertex(2));
+		new Arc<Integer>(g, g.getVertex(2), g.getVertex(3));
+		new Arc<Integer>(g, g.getVertex(0), g.getVertex(4));
+		g.removeVertices(java.util.Collections.singleton(g.getVertex(4)));
+		DeltaSteppingSearch<Integer> search = new DeltaSteppingSearch<Integer>(
+				g, new ArcWeight<Integer>() {
+					public double getWeight(Arc<Integer> arc) {
+						return arc.getSource().getId() == 1 ? 0 : 2;
+					}
+				});
+		assertArrayEquals(new double[] { 0, 2, 2, 4, Double.POSITIVE_INFINITY },
+				search.getDistances(0), 0);
+	}
+
+	@Test
+	public void testSparseBuckets() {
+		double[] weights = new double[3000];
+		Graph<Integer> g = createWeightedGraph(1000, 3000, weights, 4);
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] *= 1e12;
+		}
+		DeltaSteppingSearch<Integer> search = new DeltaSteppingSearch<Integer>(
+				g, weights);
+		search.setDelta(1e-3);
+		assertArrayEquals(new DijkstraSearch<Integer>(g, weights)
+				.getDistances(0), search.getDistances(0), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDelta() {
+		new DeltaSteppingSearch<Integer>(new Graph<Integer>(), new double[0])
+				.setDelta(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeight() {
+		double[] weights = new double[10];
+		Graph<Integer> g = createWeightedGraph(5, 10, weights, 3);
+		weights[4] = -1;
+		new DeltaSteppingSearch<Integer>(g, weights).getDistances(0);
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testInvalidVertex() {
+		new DeltaSteppingSearch<Integer>(new Graph<Integer>(), new double[0])
+				.getDistances(0);
+	}
+}
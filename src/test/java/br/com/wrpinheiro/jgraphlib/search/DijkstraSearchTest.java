@@ -0,0 +1,168 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.LABEL;
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createLabelledGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class DijkstraSearchTest {
+
+	/**
+	 * The distances from u computed by Bellman-Ford.
+	 */
+	private double[] bellmanFord(Graph<Double> g, int u) {
+		double[] distances = new double[g.getNumVertex()];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[u] = 0;
+		for (boolean changed = true; changed;) {
+			changed = false;
+			for (Arc<Double> arc : g.getArcs()) {
+				int s = arc.getSource().getId();
+				int t = arc.getTarget().getId();
+				if (distances[s] + arc.getLabel() < distances[t]) {
+					distances[t] = distances[s] + arc.getLabel();
+					changed = true;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Check that a path exists in the graph and costs the distance given.
+	 */
+	private void assertPathCost(Graph<Double> g, int u, int v, int[] path,
+			double cost) {
+		assertEquals(u, path[0]);
+		assertEquals(v, path[path.length - 1]);
+		double total = 0;
+		for (int i = 1; i < path.length; i++) {
+			double best = Double.POSITIVE_INFINITY;
+			Vertex<Double> vertex = g.getVertex(path[i - 1]);
+			for (int j = 0; j < vertex.getOutDegree(); j++) {
+				if (vertex.getOutNeighborId(j) == path[i])
+					best = Math.min(best, vertex.getOutArc(j).getLabel());
+			}
+			assertTrue(best < Double.POSITIVE_INFINITY);
+			total += best;
+		}
+		assertEquals(cost, total, 0);
+	}
+
+	@Test
+	public void testSmallGraph() {
+		Graph<Double> g = new Graph<Double>();
+		Vertex<Double> v0 = new Vertex<Double>(g);
+		Vertex<Double> v1 = new Vertex<Double>(g);
+		Vertex<Double> v2 = new Vertex<Double>(g);
+		Vertex<Double> v3 = new Vertex<Double>(g);
+		new Arc<Double>(g, v0, v1).setLabel(1.0);
+		new Arc<Double>(g, v1, v2).setLabel(1.0);
+		new Arc<Double>(g, v0, v2).setLabel(5.0);
+		new Arc<Double>(g, v2, v3).setLabel(1.0);
+
+		DijkstraSearch<Double> search = new DijkstraSearch<Double>(g, LABEL);
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, search.search(0, 3));
+		assertEquals(3.0, search.getDistance(0, 3), 0);
+		assertArrayEquals(new Vertex[] { v0, v1, v2 }, search.search(v0, v2));
+		assertEquals(0, search.search(3, 0).length);
+		assertEquals(Double.POSITIVE_INFINITY, search.getDistance(3, 0), 0);
+		assertArrayEquals(new int[] { 2 }, search.search(2, 2));
+		assertArrayEquals(new double[] { 0, 1, 2, 3 }, search.getDistances(0),
+				0);
+	}
+
+	@Test
+	public void testRandomGraph() {
+		Graph<Double> g = createLabelledGraph(300, 1500, 1);
+		DijkstraSearch<Double> search = new DijkstraSearch<Double>(g, LABEL);
+		Random random = new Random(2);
+		for (int i = 0; i < 20; i++) {
+			int u = random.nextInt(300);
+			double[] expected = this.bellmanFord(g, u);
+			assertArrayEquals(expected, search.getDistances(u), 0);
+			for (int j = 0; j < 20; j++) {
+				int v = random.nextInt(300);
+				int[] path = search.search(u, v);
+				assertEquals(expected[v], search.getDistance(u, v), 0);
+				if (expected[v] == Double.POSITIVE_INFINITY)
+					assertEquals(0, path.length);
+				else
+					this.assertPathCost(g, u, v, path, expected[v]);
+			}
+		}
+	}
+
+	@Test
+	public void testWeightArray() {
+		Graph<Double> g = createLabelledGraph(200, 1000, 3);
+		double[] weights = new double[1000];
+		for (Arc<Double> arc : g.getArcs()) {
+			weights[arc.getId()] = arc.getLabel();
+		}
+		DijkstraSearch<Double> byLabel = new DijkstraSearch<Double>(g, LABEL);
+		DijkstraSearch<Double> byArray = new DijkstraSearch<Double>(g, weights);
+		for (int u = 0; u < 200; u += 17) {
+			assertArrayEquals(byLabel.getDistances(u), byArray.getDistances(u), 0);
+		}
+	}
+
+	@Test
+	public void testUnitWeightsMatchBreadthFirstSearch() {
+		Graph<Double> g = createLabelledGraph(300, 900, 4);
+		DijkstraSearch<Double> search = new DijkstraSearch<Double>(g,
+				new ArcWeight<Double>() {
+					public double getWeight(Arc<Double> arc) {
+						return 1;
+					}
+				});
+		BreadthFirstSearch<Double> bfs = new BreadthFirstSearch<Double>(g);
+		for (int u = 0; u < 300; u += 7) {
+			for (int v = 0; v < 300; v += 11) {
+				assertEquals(bfs.search(u, v).length, search.search(u, v).length);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeight() {
+		Graph<Double> g = createLabelledGraph(2, 0, 5);
+		new Arc<Double>(g, g.getVertex(0), g.getVertex(1)).setLabel(-1.0);
+		new DijkstraSearch<Double>(g, LABEL).search(0, 1);
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testInvalidVertex() {
+		Graph<Double> g = createLabelledGraph(2, 0, 6);
+		new DijkstraSearch<Double>(g, LABEL).search(0, 2);
+	}
+}
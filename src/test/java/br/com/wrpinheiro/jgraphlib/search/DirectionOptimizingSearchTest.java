@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createSkewedGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class DirectionOptimizingSearchTest {
+
+	/**
+	 * Check that a path exists in the graph and is as short as the path found
+	 * by {@link BreadthFirstSearch}.
+	 */
+	private void assertShortestPath(IndexedGraph g, int u, int v, int[] path) {
+		int[] expected = new BreadthFirstSearch<Integer>(g).search(u, v);
+		assertEquals(expected.length, path.length);
+		if (path.length == 0)
+			return;
+		assertEquals(u, path[0]);
+		assertEquals(v, path[path.length - 1]);
+		for (int i = 1; i < path.length; i++) {
+			boolean found = false;
+			for (int j = 0; j < g.getOutDegree(path[i - 1]); j++) {
+				found |= g.getOutNeighbor(path[i - 1], j) == path[i];
+			}
+			assertTrue(found);
+		}
+	}
+
+	@Test
+	public void testSearch() {
+		FrozenGraph<Integer> g = createSkewedGraph(2000, 10000, 1);
+		DirectionOptimizingSearch search = new DirectionOptimizingSearch(g);
+		Random random = new Random(2);
+		for (int i = 0; i < 50; i++) {
+			int u = random.nextInt(2000);
+			int v = random.nextInt(2000);
+			this.assertShortestPath(g, u, v, search.search(u, v));
+		}
+	}
+
+	@Test
+	public void testBottomUpOnly() {
+		FrozenGraph<Integer> g = createSkewedGraph(500, 1500, 3);
+		DirectionOptimizingSearch search = new DirectionOptimizingSearch(g);
+		search.setAlpha(Integer.MAX_VALUE);
+		search.setBeta(1);
+		Random random = new Random(4);
+		for (int i = 0; i < 50; i++) {
+			int u = random.nextInt(500);
+			int v = random.nextInt(500);
+			this.assertShortestPath(g, u, v, search.search(u, v));
+		}
+	}
+
+	@Test
+	public void testGetParents() {
+		FrozenGraph<Integer> g = createSkewedGraph(1000, 3000, 5);
+		int[] parent = new DirectionOptimizingSearch(g).getParents(0);
+		BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<Integer>(g);
+		assertEquals(0, parent[0]);
+		for (int v = 1; v < 1000; v++) {
+			int[] path = bfs.search(0, v);
+			if (path.length == 0) {
+				assertEquals(-1, parent[v]);
+			} else {
+				this.assertShortestPath(g, 0, v, this.toPath(parent, v));
+			}
+		}
+	}
+
+	/**
+	 * Follow the parents from a vertex back to the source.
+	 */
+	private int[] toPath(int[] parent, int v) {
+		int length = 1;
+		for (int w = v; parent[w] != w; w = parent[w])
+			length++;
+
+		int[] path = new int[length];
+		for (int w = v; length > 0; w = parent[w])
+			path[--length] = w;
+		return path;
+	}
+
+	@Test
+	public void testSearchGraph() {
+		Graph<Integer> g = new Graph<Integer>();
+		for (int i = 0; i < 64; i++) {
+			new Vertex<Integer>(g);
+		}
+		for (int i = 1; i < 64; i++) {
+			new Arc<Integer>(g, g.getVertex(i - 1), g.getVertex(i));
+		}
+		new Arc<Integer>(g, g.getVertex(3), g.getVertex(60));
+		new Arc<Integer>(g, g.getVertex(0), null);
+
+		DirectionOptimizingSearch search = new DirectionOptimizingSearch(g);
+		assertArrayEquals(new int[] { 2, 3, 60, 61 }, search.search(2, 61));
+		assertEquals(0, search.search(61, 2).length);
+		assertArrayEquals(new int[] { 5 }, search.search(5, 5));
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testSearchInvalidVertex() {
+		new DirectionOptimizingSearch(createSkewedGraph(10, 10, 6))
+				.search(0, 10);
+	}
+}
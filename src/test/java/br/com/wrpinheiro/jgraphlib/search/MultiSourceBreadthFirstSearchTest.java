@@ -0,0 +1,102 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createRandomGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * @author wrp
+ */
+public class MultiSourceBreadthFirstSearchTest {
+
+	@Test
+	public void testGetDistances() {
+		FrozenGraph<Integer> g = createRandomGraph(1000, 2500, 1);
+		Random random = new Random(2);
+		// more than one group of sources, with repeated sources.
+		int[] sources = new int[100];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = random.nextInt(50);
+		}
+
+		int[][] distances = new MultiSourceBreadthFirstSearch(g)
+				.getDistances(sources);
+		assertEquals(sources.length, distances.length);
+		BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<Integer>(g);
+		for (int i = 0; i < sources.length; i += 7) {
+			for (int v = 0; v < 1000; v += 3) {
+				int[] path = bfs.search(sources[i], v);
+				assertEquals(path.length - 1, distances[i][v]);
+			}
+		}
+	}
+
+	@Test
+	public void testSearch() {
+		FrozenGraph<Integer> g = createRandomGraph(2000, 5000, 3);
+		Random random = new Random(4);
+		int[] sources = new int[150];
+		int[] targets = new int[150];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = random.nextInt(2000);
+			targets[i] = random.nextInt(2000);
+		}
+		targets[0] = sources[0];
+
+		int[][] paths = new MultiSourceBreadthFirstSearch(g).search(sources,
+				targets);
+		BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<Integer>(g);
+		assertArrayEquals(new int[] { sources[0] }, paths[0]);
+		for (int i = 0; i < sources.length; i++) {
+			int[] path = paths[i];
+			assertEquals(bfs.search(sources[i], targets[i]).length,
+					path.length);
+			if (path.length == 0)
+				continue;
+			assertEquals(sources[i], path[0]);
+			assertEquals(targets[i], path[path.length - 1]);
+			for (int j = 1; j < path.length; j++) {
+				boolean found = false;
+				for (int k = 0; k < g.getOutDegree(path[j - 1]); k++) {
+					found |= g.getOutNeighbor(path[j - 1], k) == path[j];
+				}
+				assertTrue(found);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSearchWithoutTargets() {
+		new MultiSourceBreadthFirstSearch(createRandomGraph(10, 10, 5))
+				.search(new int[] { 0, 1 }, new int[] { 2 });
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testSearchInvalidVertex() {
+		new MultiSourceBreadthFirstSearch(createRandomGraph(10, 10, 6))
+				.getDistances(new int[] { 0, 10 });
+	}
+}
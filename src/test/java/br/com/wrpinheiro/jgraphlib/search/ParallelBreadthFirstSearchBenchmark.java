@@ -0,0 +1,113 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+
+/**
+ * Times a full {@link ParallelBreadthFirstSearch} traversal of an R-MAT graph
+ * with 1, 2, 4... threads up to the number of processors, against a
+ * sequential traversal by {@link BreadthFirstIterator}. It is not a test and
+ * is not run by the build; run it on a multi-core machine with
+ * 
+ * <pre>
+ * mvn test-compile
+ * java -Xmx4g -cp target/classes:target/test-classes \
+ *     br.com.wrpinheiro.jgraphlib.search.ParallelBreadthFirstSearchBenchmark \
+ *     [scale] [edgeFactor] [maxThreads] [repeats]
+ * </pre>
+ * 
+ * The defaults are scale 20, edge factor 16, every processor and 5 repeats.
+ * The speedup of the parallel search has not been measured on a multi-core
+ * machine yet.
+ * 
+ * @author wrp
+ */
+public class ParallelBreadthFirstSearchBenchmark {
+
+	public static void main(String[] args) {
+		int scale = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int edgeFactor = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime
+				.getRuntime().availableProcessors();
+		int repeats = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		final FrozenGraph<Integer> g = SearchTestGraphs.createRMatGraph(scale,
+				edgeFactor, 1);
+		System.out.println("R-MAT scale " + scale + ": " + g.getNumVertex()
+				+ " vertices, " + edgeFactor * g.getNumVertex() + " arcs, "
+				+ Runtime.getRuntime().availableProcessors() + " processors");
+
+		double base = best(repeats, new Runnable() {
+			public void run() {
+				BreadthFirstIterator it = new BreadthFirstIterator(g, 0);
+				while (it.hasNext())
+					it.nextVertex();
+			}
+		});
+		System.out.printf("sequential  %8.1f ms%n", base);
+
+		for (int threads : threadCounts(maxThreads)) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				final ParallelBreadthFirstSearch search;
+				search = new ParallelBreadthFirstSearch(g, pool);
+				double time = best(repeats, new Runnable() {
+					public void run() {
+						search.getParents(0);
+					}
+				});
+				System.out.printf("%2d threads  %8.1f ms  speedup %.2f%n",
+						threads, time, base / time);
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Return 1, 2, 4... up to max, and max itself.
+	 */
+	static List<Integer> threadCounts(int max) {
+		List<Integer> counts = new ArrayList<Integer>();
+		for (int threads = 1; threads < max; threads *= 2) {
+			counts.add(threads);
+		}
+		counts.add(max);
+		return counts;
+	}
+
+	/**
+	 * Return the best time of some runs, in milliseconds, after as many runs
+	 * to warm up.
+	 */
+	static double best(int repeats, Runnable run) {
+		for (int i = 0; i < repeats; i++) {
+			run.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < repeats; i++) {
+			long start = System.nanoTime();
+			run.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1e6;
+	}
+}
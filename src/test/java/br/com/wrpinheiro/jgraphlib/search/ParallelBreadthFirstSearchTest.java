@@ -0,0 +1,120 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createHubGraph;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+import br.com.wrpinheiro.jgraphlib.IndexedGraph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+
+/**
+ * @author wrp
+ */
+public class ParallelBreadthFirstSearchTest {
+
+	/**
+	 * A random graph whose vertex 0 links to many vertices, so the frontiers
+	 * are split among the threads.
+	 */
+
+	private boolean isArc(IndexedGraph g, int u, int v) {
+		for (int i = 0; i < g.getOutDegree(u); i++) {
+			if (g.getOutNeighbor(u, i) == v)
+				return true;
+		}
+		return false;
+	}
+
+	@Test
+	public void testSearch() {
+		FrozenGraph<Integer> g = createHubGraph(20000, 30000, 1);
+		BreadthFirstSearch<Integer> bfs = new BreadthFirstSearch<Integer>(g);
+		ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(g);
+		search.setParallelism(4);
+
+		Random random = new Random(2);
+		for (int i = 0; i < 20; i++) {
+			int u = i % 2 == 0 ? 0 : random.nextInt(20000);
+			int v = random.nextInt(20000);
+			int[] path = search.search(u, v);
+			assertEquals(bfs.search(u, v).length, path.length);
+			if (path.length > 0) {
+				assertEquals(u, path[0]);
+				assertEquals(v, path[path.length - 1]);
+			}
+			for (int j = 1; j < path.length; j++) {
+				assertTrue(this.isArc(g, path[j - 1], path[j]));
+			}
+		}
+	}
+
+	@Test
+	public void testGetParents() {
+		FrozenGraph<Integer> g = createHubGraph(10000, 20000, 3);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			int[] parent = new ParallelBreadthFirstSearch(g, pool)
+					.getParents(0);
+			int[] expected = new DirectionOptimizingSearch(g).getParents(0);
+
+			assertEquals(0, parent[0]);
+			for (int v = 1; v < parent.length; v++) {
+				assertEquals(expected[v] == -1, parent[v] == -1);
+				if (parent[v] != -1) {
+					assertTrue(this.isArc(g, parent[v], v));
+					assertEquals(this.depth(expected, v),
+							this.depth(parent, v));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private int depth(int[] parent, int v) {
+		int depth = 0;
+		for (; parent[v] != v; v = parent[v])
+			depth++;
+		return depth;
+	}
+
+	@Test
+	public void testSearchSmallGraph() {
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(4, 3);
+		builder.addArcs(new int[] { 0, 1, 2 }, new int[] { 1, 2, 0 }, null);
+		ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(
+				builder.toFrozenGraph());
+		assertArrayEquals(new int[] { 1, 2, 0 }, search.search(1, 0));
+		assertArrayEquals(new int[] { 3 }, search.search(3, 3));
+		assertEquals(0, search.search(0, 3).length);
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testSearchInvalidVertex() {
+		new ParallelBreadthFirstSearch(createHubGraph(10, 10, 4))
+				.search(-1, 0);
+	}
+}
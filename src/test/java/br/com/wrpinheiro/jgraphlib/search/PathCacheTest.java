@@ -0,0 +1,187 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.ConcurrentGraph;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class PathCacheTest {
+
+	/**
+	 * A path 0 -> 1 -> 2 -> 3.
+	 */
+	private Graph<String> createGraph() {
+		Graph<String> g = new Graph<String>();
+		for (int i = 0; i < 4; i++) {
+			new Vertex<String>(g);
+		}
+		for (int i = 0; i < 3; i++) {
+			new Arc<String>(g, g.getVertex(i), g.getVertex(i + 1));
+		}
+		return g;
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		BreadthFirstSearch<String> search = new BreadthFirstSearch<String>(
+				this.createGraph());
+		assertNull(search.getCache());
+		search.setCacheCapacity(10);
+		PathCache cache = search.getCache();
+
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, search.search(0, 3));
+		int[] path = search.search(0, 3);
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, path);
+		// the caller gets a copy.
+		path[0] = 7;
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, search.search(0, 3));
+		assertEquals(0, search.search(3, 0).length);
+		assertEquals(0, search.search(3, 0).length);
+
+		assertEquals(2, cache.getMisses());
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.size());
+
+		search.setCacheCapacity(0);
+		assertNull(search.getCache());
+	}
+
+	@Test
+	public void testEviction() {
+		BreadthFirstSearch<String> search = new BreadthFirstSearch<String>(
+				this.createGraph());
+		search.setCacheCapacity(2);
+		PathCache cache = search.getCache();
+		search.search(0, 1);
+		search.search(0, 2);
+		// 0 -> 1 becomes the most recently used.
+		search.search(0, 1);
+		search.search(0, 3);
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.size());
+
+		search.search(0, 1);
+		assertEquals(2, cache.getHits());
+		search.search(0, 2);
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void testInvalidation() {
+		Graph<String> g = this.createGraph();
+		BreadthFirstSearch<String> search = new BreadthFirstSearch<String>(g);
+		search.setCacheCapacity(10);
+		PathCache cache = search.getCache();
+		assertEquals(0, search.search(3, 0).length);
+		assertEquals(4, search.search(0, 3).length);
+
+		// a new arc makes a shorter path and a path back.
+		long count = g.getModificationCount();
+		Arc<String> arc = new Arc<String>(g, g.getVertex(0), g.getVertex(3));
+		assertTrue(g.getModificationCount() > count);
+		assertArrayEquals(new int[] { 0, 3 }, search.search(0, 3));
+		assertEquals(2, cache.getInvalidations());
+
+		count = g.getModificationCount();
+		arc.setEndings(g.getVertex(3), g.getVertex(0));
+		assertTrue(g.getModificationCount() > count);
+		assertArrayEquals(new int[] { 3, 0 }, search.search(3, 0));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, search.search(0, 3));
+
+		count = g.getModificationCount();
+		g.removeVertices(Collections.singleton(g.getVertex(1)));
+		assertTrue(g.getModificationCount() > count);
+		assertEquals(0, search.search(0, 3).length);
+
+		// labels and new vertices do not change the arcs.
+		count = g.getModificationCount();
+		arc.setLabel("x");
+		new Vertex<String>(g);
+		assertEquals(count, g.getModificationCount());
+	}
+
+	@Test
+	public void testStaleVersion() {
+		PathCache cache = new PathCache(10);
+		int[] path = { 0, 1 };
+		assertNull(cache.get(0, 1, 4));
+		cache.put(0, 1, 4, path);
+		assertArrayEquals(path, cache.get(0, 1, 4));
+
+		// a search that started before the change misses and keeps the
+		// paths of the newer count.
+		assertNull(cache.get(0, 1, 2));
+		cache.put(0, 1, 2, new int[] { 0, 2, 1 });
+		assertArrayEquals(path, cache.get(0, 1, 4));
+		assertEquals(0, cache.getInvalidations());
+
+		assertNull(cache.get(0, 1, 6));
+		assertEquals(1, cache.getInvalidations());
+	}
+
+	@Test
+	public void testConcurrentGraph() {
+		ConcurrentGraph<String> g = new ConcurrentGraph<String>();
+		for (int i = 0; i < 3; i++) {
+			new Vertex<String>(g);
+		}
+		new Arc<String>(g, g.getVertex(0), g.getVertex(1));
+		long count = g.getModificationCount();
+		assertEquals(g.tryOptimisticRead(), count);
+
+		BreadthFirstSearch<String> search = new BreadthFirstSearch<String>(g);
+		search.setCacheCapacity(10);
+		assertEquals(0, search.search(0, 2).length);
+		new Arc<String>(g, g.getVertex(1), g.getVertex(2));
+		assertTrue(g.getModificationCount() > count);
+		assertArrayEquals(new int[] { 0, 1, 2 }, search.search(0, 2));
+		assertArrayEquals(new int[] { 0, 1, 2 }, search.search(0, 2));
+		assertEquals(1, search.getCache().getHits());
+	}
+
+	@Test
+	public void testIndexedGraph() {
+		FrozenGraph<String> g = this.createGraph().freeze();
+		BreadthFirstSearch<String> search = new BreadthFirstSearch<String>(g);
+		search.setCacheCapacity(1);
+		search.search(0, 3);
+		search.search(0, 3);
+		assertEquals(1, search.getCache().getHits());
+		search.getCache().clear();
+		assertEquals(0, search.getCache().size());
+		assertEquals(1, search.getCache().getInvalidations());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeCapacity() {
+		new BreadthFirstSearch<String>(this.createGraph()).setCacheCapacity(-1);
+	}
+}
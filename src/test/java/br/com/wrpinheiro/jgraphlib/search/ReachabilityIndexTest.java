@@ -0,0 +1,129 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import static br.com.wrpinheiro.jgraphlib.search.SearchTestGraphs.createRandomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * @author wrp
+ */
+public class ReachabilityIndexTest {
+
+	/**
+	 * Compare every query with a breadth first search.
+	 */
+	private void assertSameReachability(FrozenGraph<Integer> g,
+			ReachabilityIndex index) {
+		BreadthFirstSearch<Integer> search = new BreadthFirstSearch<Integer>(g);
+		for (int u = 0; u < g.getNumVertex(); u++) {
+			for (int v = 0; v < g.getNumVertex(); v++) {
+				assertEquals(search.search(u, v).length > 0,
+						index.isReachable(u, v));
+			}
+		}
+	}
+
+	@Test
+	public void testComponents() {
+		// 0 <-> 1 -> 2 <-> 3 -> 4, and 5 alone.
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(6, 6);
+		builder.addArcs(new int[] { 0, 1, 1, 2, 3, 3 }, new int[] { 1, 0, 2,
+				3, 2, 4 }, null);
+		FrozenGraph<Integer> g = builder.toFrozenGraph();
+		ReachabilityIndex index = new ReachabilityIndex(g);
+
+		assertEquals(4, index.getNumComponents());
+		assertEquals(2, index.getNumComponentArcs());
+		assertEquals(index.getComponent(0), index.getComponent(1));
+		assertEquals(index.getComponent(2), index.getComponent(3));
+		assertTrue(index.getComponent(0) > index.getComponent(2));
+		assertTrue(index.getComponent(2) > index.getComponent(4));
+
+		assertTrue(index.isReachable(1, 0));
+		assertTrue(index.isReachable(0, 4));
+		assertTrue(index.isReachable(5, 5));
+		assertFalse(index.isReachable(4, 0));
+		assertFalse(index.isReachable(0, 5));
+		assertTrue(index.getSizeInBytes() > 0);
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		for (int seed = 0; seed < 5; seed++) {
+			// sparse graphs have many components, denser ones a large one.
+			FrozenGraph<Integer> g = createRandomGraph(150,
+					100 + 60 * seed, seed);
+			for (int labels = 0; labels <= 4; labels += 2) {
+				this.assertSameReachability(g, new ReachabilityIndex(g, labels,
+						seed));
+			}
+		}
+	}
+
+	@Test
+	public void testRemovedVertices() {
+		Graph<Integer> g = new Graph<Integer>();
+		for (int i = 0; i < 3; i++) {
+			new Vertex<Integer>(g);
+		}
+		new Arc<Integer>(g, g.getVertex(0), g.getVertex(1));
+		new Arc<Integer>(g, g.getVertex(1), g.getVertex(2));
+		g.removeVertices(Collections.singleton(g.getVertex(1)));
+
+		ReachabilityIndex index = new ReachabilityIndex(g);
+		assertEquals(2, index.getNumComponents());
+		assertFalse(index.isReachable(0, 2));
+		try {
+			index.isReachable(0, 1);
+			fail();
+		} catch (InvalidVertexException e) {
+			// the vertex was removed.
+		}
+	}
+
+	@Test
+	public void testLongPath() {
+		// deep enough to overflow a recursive traversal.
+		int n = 200000;
+		int[] sources = new int[n - 1];
+		int[] targets = new int[n - 1];
+		for (int i = 0; i < n - 1; i++) {
+			sources[i] = i;
+			targets[i] = i + 1;
+		}
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n, n - 1);
+		builder.addArcs(sources, targets, null);
+		ReachabilityIndex index = new ReachabilityIndex(builder.toFrozenGraph());
+		assertEquals(n, index.getNumComponents());
+		assertTrue(index.isReachable(0, n - 1));
+		assertFalse(index.isReachable(n - 1, 0));
+	}
+}
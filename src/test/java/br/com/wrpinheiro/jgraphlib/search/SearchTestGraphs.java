@@ -0,0 +1,169 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.search;
+
+import java.util.Random;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.FrozenGraph;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.GraphBuilder;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+
+/**
+ * Random graphs shared by the tests of the searches.
+ * 
+ * @author wrp
+ */
+final class SearchTestGraphs {
+
+	/**
+	 * The arc costs are their labels.
+	 */
+	static final ArcWeight<Double> LABEL = new ArcWeight<Double>() {
+		public double getWeight(Arc<Double> arc) {
+			return arc.getLabel();
+		}
+	};
+
+	private SearchTestGraphs() {
+	}
+
+	/**
+	 * A graph with m arcs between random vertices.
+	 */
+	static FrozenGraph<Integer> createRandomGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		for (int i = 0; i < m; i++) {
+			sources[i] = random.nextInt(n);
+			targets[i] = random.nextInt(n);
+		}
+		return build(n, sources, targets);
+	}
+
+	/**
+	 * A graph with m arcs to random vertices, skewed so that a few vertices
+	 * have most of the output arcs.
+	 */
+	static FrozenGraph<Integer> createSkewedGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		for (int i = 0; i < m; i++) {
+			sources[i] = (int) (n * Math.pow(random.nextDouble(), 3));
+			targets[i] = random.nextInt(n);
+		}
+		return build(n, sources, targets);
+	}
+
+	/**
+	 * A graph with m arcs between random vertices plus n / 2 arcs from
+	 * vertex 0 to random vertices, so that the frontiers grow large.
+	 */
+	static FrozenGraph<Integer> createHubGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		int[] sources = new int[m + n / 2];
+		int[] targets = new int[m + n / 2];
+		for (int i = 0; i < m; i++) {
+			sources[i] = random.nextInt(n);
+			targets[i] = random.nextInt(n);
+		}
+		for (int i = 0; i < n / 2; i++) {
+			sources[m + i] = 0;
+			targets[m + i] = random.nextInt(n);
+		}
+		return build(n, sources, targets);
+	}
+
+	/**
+	 * An R-MAT graph with 2^scale vertices and edgeFactor * 2^scale arcs:
+	 * each arc falls in a quadrant of the adjacency matrix with the
+	 * probabilities 0.57, 0.19, 0.19 and 0.05, recursively, so the degrees
+	 * are skewed as in social and web graphs.
+	 */
+	static FrozenGraph<Integer> createRMatGraph(int scale, int edgeFactor,
+			long seed) {
+		Random random = new Random(seed);
+		int n = 1 << scale;
+		int m = edgeFactor * n;
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		for (int i = 0; i < m; i++) {
+			int u = 0;
+			int v = 0;
+			for (int bit = n >>> 1; bit > 0; bit >>>= 1) {
+				double r = random.nextDouble();
+				if (r >= 0.57 + 0.19) {
+					u |= bit;
+					if (r >= 0.57 + 0.19 + 0.19)
+						v |= bit;
+				} else if (r >= 0.57) {
+					v |= bit;
+				}
+			}
+			sources[i] = u;
+			targets[i] = v;
+		}
+		return build(n, sources, targets);
+	}
+
+	private static FrozenGraph<Integer> build(int n, int[] sources,
+			int[] targets) {
+		GraphBuilder<Integer> builder = new GraphBuilder<Integer>(n,
+				sources.length);
+		builder.addArcs(sources, targets, null);
+		return builder.toFrozenGraph();
+	}
+
+	/**
+	 * A graph with m arcs between random vertices, labelled with their costs
+	 * from 0 to 99. See {@link #LABEL}.
+	 */
+	static Graph<Double> createLabelledGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		Graph<Double> g = new Graph<Double>();
+		for (int i = 0; i < n; i++) {
+			new Vertex<Double>(g);
+		}
+		for (int i = 0; i < m; i++) {
+			Arc<Double> arc = new Arc<Double>(g, g.getVertex(random.nextInt(n)),
+					g.getVertex(random.nextInt(n)));
+			arc.setLabel((double) random.nextInt(100));
+		}
+		return g;
+	}
+
+	/**
+	 * A graph with m arcs between random vertices, whose costs from 0 to 99.9
+	 * are stored in weights by arc id.
+	 */
+	static Graph<Integer> createWeightedGraph(int n, int m, double[] weights,
+			long seed) {
+		Random random = new Random(seed);
+		Graph<Integer> g = new Graph<Integer>();
+		for (int i = 0; i < n; i++) {
+			new Vertex<Integer>(g);
+		}
+		for (int i = 0; i < m; i++) {
+			Arc<Integer> arc = new Arc<Integer>(g, g.getVertex(random
+					.nextInt(n)), g.getVertex(random.nextInt(n)));
+			weights[arc.getId()] = random.nextInt(1000) / 10.0;
+		}
+		return g;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2006-2013 Wellington Ricardo Pinheiro.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.wrpinheiro.jgraphlib.view;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.wrpinheiro.jgraphlib.Arc;
+import br.com.wrpinheiro.jgraphlib.Graph;
+import br.com.wrpinheiro.jgraphlib.InvalidVertexException;
+import br.com.wrpinheiro.jgraphlib.Vertex;
+import br.com.wrpinheiro.jgraphlib.search.BreadthFirstSearch;
+
+/**
+ * @author wrp
+ */
+public class GraphViewTest {
+	private Graph<String> g;
+
+	/**
+	 * 0 -a-> 1 -a-> 2 -a-> 3 and 0 -b-> 3
+	 */
+	@Before
+	public void createGraph() {
+		this.g = new Graph<String>();
+		for (int i = 0; i < 4; i++) {
+			new Vertex<String>(this.g);
+		}
+		this.addArc(0, 1, "a");
+		this.addArc(1, 2, "a");
+		this.addArc(2, 3, "a");
+		this.addArc(0, 3, "b");
+	}
+
+	private void addArc(int source, int target, String label) {
+		Arc<String> arc = new Arc<String>(this.g, this.g.getVertex(source),
+				this.g.getVertex(target));
+		arc.setLabel(label);
+	}
+
+	@Test
+	public void testInducedSubgraph() {
+		BitSet vertices = new BitSet();
+		vertices.set(0);
+		vertices.set(1);
+		vertices.set(2);
+		InducedSubgraph sub = new InducedSubgraph(this.g, vertices);
+
+		assertEquals(4, sub.getNumVertex());
+		assertFalse(sub.containsVertex(3));
+		assertEquals(0, sub.getOutDegree(3));
+		assertEquals(2, sub.getOutDegree(0));
+		assertEquals(1, sub.getOutNeighbor(0, 0));
+		assertEquals(-1, sub.getOutNeighbor(0, 1));
+		assertEquals(-1, sub.getOutNeighbor(2, 0));
+		assertArrayEquals(new int[] { 0, 1, 2 },
+				new BreadthFirstSearch<String>(sub).search(0, 2));
+
+		vertices.clear(1);
+		assertEquals(0, new BreadthFirstSearch<String>(sub).search(0, 2).length);
+	}
+
+	@Test(expected = InvalidVertexException.class)
+	public void testSearchOutsideInducedSubgraph() {
+		BitSet vertices = new BitSet();
+		vertices.set(0);
+		new BreadthFirstSearch<String>(new InducedSubgraph(this.g, vertices))
+				.search(0, 3);
+	}
+
+	@Test
+	public void testArcFilteredGraph() {
+		ArcFilteredGraph onlyA = new ArcFilteredGraph(this.g,
+				new ArcLabelFilter<String>() {
+					public boolean accept(String label) {
+						return "a".equals(label);
+					}
+				});
+		assertEquals(2, onlyA.getOutDegree(0));
+		assertEquals(-1, onlyA.getOutNeighbor(0, 1));
+		assertEquals(2, onlyA.getInNeighbor(3, 0));
+		assertEquals(-1, onlyA.getInNeighbor(3, 1));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 },
+				new BreadthFirstSearch<String>(onlyA).search(0, 3));
+		assertArrayEquals(new int[] { 0, 3 },
+				new BreadthFirstSearch<String>(this.g).search(0, 3));
+	}
+
+	@Test
+	public void testArcFilteredGraphOfRemovedVertex() {
+		BitSet arcs = new BitSet();
+		arcs.set(0, 4);
+		ArcFilteredGraph view = new ArcFilteredGraph(this.g, arcs);
+		this.g.removeVertices(Collections.singleton(this.g.getVertex(1)));
+
+		assertFalse(view.containsVertex(1));
+		assertEquals(0, view.getOutDegree(1));
+		assertEquals(2, view.getOutDegree(0));
+		assertEquals(-1, view.getOutNeighbor(0, 0));
+		assertEquals(3, view.getOutNeighbor(0, 1));
+		assertArrayEquals(new int[] { 0, 3 },
+				new BreadthFirstSearch<String>(view).search(0, 3));
+	}
+
+	@Test
+	public void testArcFilteredView() {
+		ArcFilteredGraph firstOnly = new ArcFilteredGraph(new ReversedGraph(
+				this.g), new ArcFilter() {
+			public boolean acceptOut(int v, int i) {
+				return i == 0;
+			}
+
+			public boolean acceptIn(int v, int i) {
+				return i == 0;
+			}
+		});
+		assertEquals(2, firstOnly.getOutDegree(3));
+		assertEquals(2, firstOnly.getOutNeighbor(3, 0));
+		assertEquals(-1, firstOnly.getOutNeighbor(3, 1));
+		assertArrayEquals(new int[] { 3, 2, 1, 0 },
+				new BreadthFirstSearch<String>(firstOnly).search(3, 0));
+	}
+
+	@Test
+	public void testReversedGraph() {
+		ReversedGraph reversed = new ReversedGraph(this.g);
+		assertEquals(2, reversed.getOutDegree(3));
+		assertEquals(2, reversed.getInDegree(0));
+		assertEquals(0, reversed.getOutDegree(0));
+		assertArrayEquals(new int[] { 3, 0 },
+				new BreadthFirstSearch<String>(reversed).search(3, 0));
+		assertEquals(0, new BreadthFirstSearch<String>(reversed).search(0, 3).length);
+	}
+
+	@Test
+	public void testStackedViews() {
+		BitSet vertices = new BitSet();
+		vertices.set(0, 4);
+		vertices.clear(1);
+		ReversedGraph view = new ReversedGraph(new InducedSubgraph(this.g,
+				vertices));
+		assertTrue(view.containsVertex(3));
+		assertArrayEquals(new int[] { 2 },
+				new BreadthFirstSearch<String>(view).search(2, 2));
+		assertEquals(0, new BreadthFirstSearch<String>(view).search(2, 0).length);
+		assertArrayEquals(new int[] { 3, 0 },
+				new BreadthFirstSearch<String>(view).search(3, 0));
+	}
+}